@@ -31,26 +31,48 @@ import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
 import javax.tools.Diagnostic;
 import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
 import javax.tools.StandardLocation;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+/**
+ * Collects every class annotated with a given annotation. The class names are written to a resource named after
+ * the annotation, and a class index named {@code <annotation>Index} is generated next to the annotation so the
+ * connector can create each class without going through reflection at startup.
+ * <p>
+ * The index implements the interface named by the {@code classIndexInterface} option. Without that option no index
+ * is generated.
+ */
 public class ClassProcessor extends AbstractProcessor {
     private final String annotationClassName;
 
     private Path outputPath;
+    private String indexInterfaceName;
 
     private final List<String> locations = new ArrayList<>();
+    private final List<TypeElement> pendingElements = new ArrayList<>();
+    private boolean indexGenerated;
 
     public ClassProcessor(String annotationClassName) {
         this.annotationClassName = annotationClassName;
@@ -66,6 +88,16 @@ public class ClassProcessor extends AbstractProcessor {
         if (outputFile != null && !outputFile.isEmpty()) {
             this.outputPath = Paths.get(outputFile);
         }
+
+        String indexInterface = processingEnv.getOptions().get("classIndexInterface");
+        if (indexInterface != null && !indexInterface.isEmpty()) {
+            this.indexInterfaceName = indexInterface;
+        }
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return new HashSet<>(Arrays.asList("metadataOutputFile", "classIndexInterface"));
     }
 
     @Override
@@ -93,10 +125,150 @@ public class ClassProcessor extends AbstractProcessor {
 
             TypeElement typeElement = (TypeElement) element;
             this.locations.add(typeElement.getQualifiedName().toString());
+            this.pendingElements.add(typeElement);
+        }
+
+        // Generate the index in the same round the classes were found in, so the generated source
+        // goes through the normal compilation rounds instead of being created in the last one
+        if (!roundEnv.errorRaised()) {
+            generateIndex();
         }
         return true;
     }
 
+    private void generateIndex() {
+        if (this.indexGenerated) {
+            if (!this.pendingElements.isEmpty()) {
+                this.processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Classes annotated with "
+                        + this.annotationClassName + " were found after the index was generated; they will only be loaded through the resource list");
+            }
+            return;
+        }
+        this.indexGenerated = true;
+
+        if (this.indexInterfaceName == null) {
+            this.processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "No classIndexInterface given, not generating an index for " + this.annotationClassName);
+            this.pendingElements.clear();
+            return;
+        }
+
+        String indexClassName = this.annotationClassName + "Index";
+        int lastDot = indexClassName.lastIndexOf('.');
+        String packageName = indexClassName.substring(0, lastDot);
+        String simpleName = indexClassName.substring(lastDot + 1);
+
+        try {
+            JavaFileObject file = this.processingEnv.getFiler().createSourceFile(indexClassName, this.pendingElements.toArray(new Element[0]));
+            try (Writer writer = file.openWriter()) {
+                writer.write(writeIndex(packageName, simpleName));
+            }
+        } catch (IOException ex) {
+            this.processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Unable to generate " + indexClassName + ": " + ex.getMessage());
+        }
+        this.pendingElements.clear();
+    }
+
+    private String writeIndex(String packageName, String simpleName) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("package ").append(packageName).append(";\n\n");
+        builder.append("/**\n * Generated by ").append(getClass().getSimpleName()).append(". Do not edit.\n */\n");
+        builder.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        builder.append("public final class ").append(simpleName).append(" implements ").append(this.indexInterfaceName).append(" {\n");
+
+        builder.append("    private static final Class<?>[] CLASSES = {\n");
+        for (TypeElement element : this.pendingElements) {
+            builder.append("            ").append(element.getQualifiedName()).append(".class,\n");
+        }
+        builder.append("    };\n\n");
+
+        builder.append("    @Override\n");
+        builder.append("    public Class<?>[] getClasses() {\n");
+        builder.append("        return CLASSES.clone();\n");
+        builder.append("    }\n\n");
+
+        builder.append("    @Override\n");
+        builder.append("    public Object create(int index, Object... args) {\n");
+        builder.append("        switch (index) {\n");
+        for (int i = 0; i < this.pendingElements.size(); i++) {
+            TypeElement element = this.pendingElements.get(i);
+            if (element.getModifiers().contains(Modifier.ABSTRACT)) {
+                continue;
+            }
+
+            builder.append("            case ").append(i).append(":\n");
+            List<List<TypeMirror>> seenParameterTypes = new ArrayList<>();
+            for (ExecutableElement constructor : ElementFilter.constructorsIn(element.getEnclosedElements())) {
+                if (constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                    continue;
+                }
+                List<TypeMirror> parameterTypes = new ArrayList<>();
+                for (VariableElement parameter : constructor.getParameters()) {
+                    parameterTypes.add(this.processingEnv.getTypeUtils().erasure(parameter.asType()));
+                }
+                // Constructors are picked by the runtime types of the arguments, so two that could accept the
+                // same arguments can't be told apart
+                for (List<TypeMirror> seen : seenParameterTypes) {
+                    if (overlaps(seen, parameterTypes)) {
+                        this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Constructors of classes annotated with "
+                                + this.annotationClassName + " must not accept the same arguments as another constructor", constructor);
+                    }
+                }
+                seenParameterTypes.add(parameterTypes);
+
+                builder.append("                if (args.length == ").append(parameterTypes.size());
+                for (int j = 0; j < parameterTypes.size(); j++) {
+                    TypeMirror type = parameterTypes.get(j);
+                    if (type.getKind().isPrimitive()) {
+                        builder.append(" && args[").append(j).append("] instanceof ").append(boxedType(type));
+                    } else {
+                        builder.append(" && (args[").append(j).append("] == null || args[").append(j).append("] instanceof ").append(type).append(")");
+                    }
+                }
+                builder.append(") {\n");
+                builder.append("                    return new ").append(element.getQualifiedName()).append("(");
+                for (int j = 0; j < parameterTypes.size(); j++) {
+                    if (j != 0) {
+                        builder.append(", ");
+                    }
+                    builder.append("(").append(parameterTypes.get(j)).append(") args[").append(j).append("]");
+                }
+                builder.append(");\n");
+                builder.append("                }\n");
+            }
+            builder.append("                break;\n");
+        }
+        builder.append("        }\n");
+        builder.append("        throw new IllegalArgumentException(\"No constructor of \" + CLASSES[index].getName() + \" takes \" + java.util.Arrays.toString(args));\n");
+        builder.append("    }\n");
+        builder.append("}\n");
+        return builder.toString();
+    }
+
+    /**
+     * @return true if both parameter lists could accept the same arguments
+     */
+    private boolean overlaps(List<TypeMirror> first, List<TypeMirror> second) {
+        if (first.size() != second.size()) {
+            return false;
+        }
+        Types types = this.processingEnv.getTypeUtils();
+        for (int i = 0; i < first.size(); i++) {
+            TypeMirror firstType = boxedType(first.get(i));
+            TypeMirror secondType = boxedType(second.get(i));
+            if (!types.isAssignable(firstType, secondType) && !types.isAssignable(secondType, firstType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private TypeMirror boxedType(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return this.processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).asType();
+        }
+        return type;
+    }
+
     public boolean contains(Collection<? extends TypeElement> elements, String className) {
         if (elements.isEmpty()) {
             return false;
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.benchmarks;
+
+import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.loadtest.BedrockBot;
+import org.geysermc.loadtest.EmbeddedGeyser;
+import org.geysermc.loadtest.StubJavaServer;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provides a real, fully joined {@link GeyserSession} to benchmarks.
+ * <p>
+ * Most hot paths need a session for its mappings and caches, and building one by hand would skip exactly the state
+ * that makes them slow. Instead, Geyser and the stub Java server from the load test harness are started in-process
+ * and a single bot joins. This is done once per JVM and shared by all benchmarks in the fork.
+ */
+public final class BenchmarkSession {
+    private static GeyserSession session;
+
+    private BenchmarkSession() {
+    }
+
+    public static synchronized GeyserSession get() throws Exception {
+        if (session != null) {
+            return session;
+        }
+
+        int javaPort = findFreeTcpPort();
+        int bedrockPort = findFreeUdpPort();
+
+        StubJavaServer stubServer = new StubJavaServer("127.0.0.1", javaPort);
+        stubServer.bind();
+
+        EmbeddedGeyser geyser = new EmbeddedGeyser(bedrockPort, "127.0.0.1", javaPort, false);
+        geyser.onEnable();
+
+        BedrockBot bot = new BedrockBot("Benchmark");
+        bot.connect(new InetSocketAddress("127.0.0.1", bedrockPort)).get(30, TimeUnit.SECONDS);
+
+        for (GeyserSession player : GeyserConnector.getInstance().getPlayers()) {
+            session = player;
+        }
+        if (session == null) {
+            throw new IllegalStateException("Benchmark bot joined but no session was registered");
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            bot.disconnect();
+            geyser.onDisable();
+            stubServer.close();
+        }));
+        return session;
+    }
+
+    private static int findFreeTcpPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static int findFreeUdpPort() throws IOException {
+        try (DatagramSocket socket = new DatagramSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
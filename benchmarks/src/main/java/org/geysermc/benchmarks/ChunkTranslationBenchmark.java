@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.benchmarks;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.Column;
+import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.utils.ChunkUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures converting a whole Java chunk column to Bedrock sections.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChunkTranslationBenchmark {
+    @Param(Fixtures.SYNTHETIC)
+    public String fixture;
+
+    private GeyserSession session;
+    private List<Column> columns;
+    private int yOffset;
+
+    @Setup
+    public void setup() throws Exception {
+        session = BenchmarkSession.get();
+        columns = Fixtures.columns(fixture);
+        yOffset = session.getChunkCache().getChunkMinY();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(25)
+    public void translateToBedrock(Blackhole blackhole) {
+        // Columns are not modified by translation, so they can be reused
+        for (int i = 0; i < 25; i++) {
+            blackhole.consume(ChunkUtils.translateToBedrock(session, columns.get(i % columns.size()), yOffset));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.benchmarks;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.Column;
+import com.nukkitx.math.vector.Vector3d;
+import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.translators.collision.CollisionManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the collision correction that runs for every movement packet, with the player standing on the ground
+ * of the fixture chunks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CollisionBenchmark {
+    @Param(Fixtures.SYNTHETIC)
+    public String fixture;
+
+    private CollisionManager collisionManager;
+    private Vector3d[] positions;
+    private int index;
+
+    @Setup
+    public void setup() throws Exception {
+        GeyserSession session = BenchmarkSession.get();
+        List<Column> columns = Fixtures.columns(fixture);
+        for (Column column : columns) {
+            session.getChunkCache().addToCache(column);
+        }
+        collisionManager = session.getCollisionManager();
+
+        // Walk across the surface of the first column, including partial block positions
+        Column column = columns.get(0);
+        int baseX = column.getX() << 4;
+        int baseZ = column.getZ() << 4;
+        positions = new Vector3d[64];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = Vector3d.from(baseX + 2.3 + (i % 12), 64, baseZ + 2.7 + (i / 12));
+        }
+    }
+
+    @Benchmark
+    public boolean correctPlayerPosition() {
+        collisionManager.updatePlayerBoundingBox(positions[index++ % positions.length]);
+        return collisionManager.correctPlayerPosition();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.benchmarks;
+
+import com.github.steveice10.mc.protocol.data.game.entity.metadata.EntityMetadata;
+import com.github.steveice10.mc.protocol.data.game.entity.metadata.ItemStack;
+import com.github.steveice10.mc.protocol.data.game.entity.metadata.MetadataType;
+import com.nukkitx.math.vector.Vector3f;
+import org.geysermc.connector.entity.Entity;
+import org.geysermc.connector.entity.ItemEntity;
+import org.geysermc.connector.entity.Tickable;
+import org.geysermc.connector.entity.living.animal.PigEntity;
+import org.geysermc.connector.entity.type.EntityType;
+import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.session.cache.EntityCache;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures entity lookups and iteration with 5000 cached entities, half of them dropped items that are ticked.
+ * The items are given their item stack like the metadata translator would, so they are spawned on the client and
+ * ticking them runs the same movement and block lookups as in game.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityCacheBenchmark {
+    private static final int ENTITIES = 5000;
+    private static final long FIRST_JAVA_ID = 1_000_000;
+
+    private GeyserSession session;
+    private EntityCache entityCache;
+    private long[] geyserIds;
+    private int index;
+
+    @Setup
+    public void setup() throws Exception {
+        session = BenchmarkSession.get();
+        entityCache = session.getEntityCache();
+
+        geyserIds = new long[ENTITIES];
+        for (int i = 0; i < ENTITIES; i++) {
+            long geyserId = entityCache.getNextEntityId().incrementAndGet();
+            Vector3f position = Vector3f.from(i % 100, 64, i / 100);
+            Entity entity;
+            if (i % 2 == 0) {
+                entity = new ItemEntity(FIRST_JAVA_ID + i, geyserId, EntityType.ITEM, position, Vector3f.ZERO, Vector3f.ZERO);
+                entityCache.spawnEntity(entity);
+                // Items only spawn on the client, and start ticking, once they know their item stack
+                entity.updateBedrockMetadata(new EntityMetadata(8, MetadataType.ITEM, new ItemStack(1, 1)), session);
+            } else {
+                entity = new PigEntity(FIRST_JAVA_ID + i, geyserId, EntityType.PIG, position, Vector3f.ZERO, Vector3f.ZERO);
+                entityCache.cacheEntity(entity);
+            }
+            geyserIds[i] = geyserId;
+        }
+    }
+
+    @Benchmark
+    public Entity getEntityByJavaId() {
+        return entityCache.getEntityByJavaId(FIRST_JAVA_ID + (index++ % ENTITIES));
+    }
+
+    @Benchmark
+    public Entity getEntityByGeyserId() {
+        return entityCache.getEntityByGeyserId(geyserIds[index++ % ENTITIES]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void tickEntities() {
+        for (Tickable entity : entityCache.getTickableEntities()) {
+            entity.tick(session);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void getEntitiesByType(Blackhole blackhole) {
+        blackhole.consume(entityCache.getEntitiesByType(PigEntity.class));
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.benchmarks;
+
+import com.github.steveice10.mc.protocol.MinecraftProtocol;
+import com.github.steveice10.mc.protocol.packet.ingame.server.ServerKeepAlivePacket;
+import com.github.steveice10.mc.protocol.packet.ingame.server.ServerPlayerListEntryPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.server.entity.*;
+import com.github.steveice10.mc.protocol.packet.ingame.server.world.ServerChunkDataPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.server.world.ServerUpdateLightPacket;
+import com.github.steveice10.packetlib.event.session.DisconnectedEvent;
+import com.github.steveice10.packetlib.event.session.PacketReceivedEvent;
+import com.github.steveice10.packetlib.event.session.SessionAdapter;
+import com.github.steveice10.packetlib.packet.Packet;
+import com.github.steveice10.packetlib.tcp.TcpClientSession;
+
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Joins a real Java server in offline mode and records the packets it sends, to be used as benchmark fixtures.
+ * <p>
+ * Copy the output to {@code benchmarks/src/main/resources/fixtures/<name>.bin}, rebuild, and pass
+ * {@code -p fixture=<name>} to the benchmarks. Record from a world that is representative of what players see - the
+ * spawn of a busy server is a good choice. {@code --only} keeps a single kind of traffic, so each burst can be
+ * measured on its own:
+ * <pre>
+ * java -cp benchmarks.jar org.geysermc.benchmarks.FixtureRecorder --server 127.0.0.1:25565 --seconds 15 --only chunks --output chunks.bin
+ * </pre>
+ */
+public class FixtureRecorder {
+    /**
+     * Keeps one packet type from dominating the fixtures
+     */
+    private static final int MAX_PER_TYPE = 200;
+
+    /**
+     * The packets kept by each {@code --only} filter
+     */
+    private static final Map<String, List<Class<? extends Packet>>> FILTERS = new HashMap<>();
+
+    static {
+        FILTERS.put("chunks", Arrays.asList(ServerChunkDataPacket.class, ServerUpdateLightPacket.class));
+        FILTERS.put("entity-movement", Arrays.asList(ServerEntityPositionPacket.class, ServerEntityPositionRotationPacket.class,
+                ServerEntityRotationPacket.class, ServerEntityHeadLookPacket.class, ServerEntityTeleportPacket.class,
+                ServerEntityVelocityPacket.class));
+        FILTERS.put("player-list", Collections.singletonList(ServerPlayerListEntryPacket.class));
+    }
+
+    public static void main(String[] args) throws Exception {
+        String server = "127.0.0.1:25565";
+        String username = "GeyserBench";
+        int seconds = 15;
+        String output = "recorded.bin";
+        List<Class<? extends Packet>> only = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--server":
+                    server = args[++i];
+                    break;
+                case "--username":
+                    username = args[++i];
+                    break;
+                case "--seconds":
+                    seconds = Integer.parseInt(args[++i]);
+                    break;
+                case "--output":
+                    output = args[++i];
+                    break;
+                case "--only":
+                    only = FILTERS.get(args[++i]);
+                    if (only == null) {
+                        System.out.println("Unknown filter " + args[i] + "; expected one of " + FILTERS.keySet());
+                        return;
+                    }
+                    break;
+                default:
+                    System.out.println("Usage: FixtureRecorder [--server host:port] [--username name] [--seconds seconds] [--only "
+                            + String.join("|", FILTERS.keySet()) + "] [--output file]");
+                    return;
+            }
+        }
+        List<Class<? extends Packet>> kept = only;
+
+        String[] addressParts = server.split(":");
+        Map<Class<?>, Integer> counts = new HashMap<>();
+        CountDownLatch disconnected = new CountDownLatch(1);
+
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(output))) {
+            TcpClientSession client = new TcpClientSession(addressParts[0], Integer.parseInt(addressParts[1]), new MinecraftProtocol(username));
+            client.addListener(new SessionAdapter() {
+                @Override
+                public void packetReceived(PacketReceivedEvent event) {
+                    Packet packet = event.getPacket();
+                    // Only in-game packets can be read back without going through the login sequence
+                    if (!packet.getClass().getName().contains(".ingame.") || packet instanceof ServerKeepAlivePacket) {
+                        return;
+                    }
+                    if (kept != null && !kept.contains(packet.getClass())) {
+                        return;
+                    }
+                    int count = counts.merge(packet.getClass(), 1, Integer::sum);
+                    if (count > MAX_PER_TYPE) {
+                        return;
+                    }
+                    try {
+                        synchronized (out) {
+                            Fixtures.write(out, packet);
+                        }
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                }
+
+                @Override
+                public void disconnected(DisconnectedEvent event) {
+                    System.out.println("Disconnected: " + event.getReason());
+                    disconnected.countDown();
+                }
+            });
+            client.connect();
+
+            disconnected.await(seconds, TimeUnit.SECONDS);
+            client.disconnect("Done recording");
+        }
+
+        System.out.println("Recorded to " + output + ":");
+        counts.forEach((type, count) -> System.out.println("  " + type.getSimpleName() + ": " + Math.min(count, MAX_PER_TYPE)));
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.benchmarks;
+
+import com.github.steveice10.mc.protocol.data.game.MessageType;
+import com.github.steveice10.mc.protocol.data.game.chunk.Chunk;
+import com.github.steveice10.mc.protocol.data.game.chunk.Column;
+import com.github.steveice10.mc.protocol.data.game.entity.metadata.ItemStack;
+import com.github.steveice10.mc.protocol.packet.ingame.server.ServerChatPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.server.ServerDisconnectPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.server.ServerJoinGamePacket;
+import com.github.steveice10.mc.protocol.packet.ingame.server.ServerKeepAlivePacket;
+import com.github.steveice10.mc.protocol.packet.ingame.server.ServerRespawnPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.server.window.ServerWindowItemsPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.server.world.ServerChunkDataPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.server.world.ServerUpdateTimePacket;
+import com.github.steveice10.opennbt.tag.builtin.*;
+import com.github.steveice10.packetlib.io.stream.StreamNetInput;
+import com.github.steveice10.packetlib.io.stream.StreamNetOutput;
+import com.github.steveice10.packetlib.packet.Packet;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.registry.BlockRegistries;
+import org.geysermc.connector.registry.type.ItemMapping;
+
+import java.io.*;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Input data for benchmarks.
+ * <p>
+ * Each benchmark takes a {@code fixture} parameter. {@value #SYNTHETIC} generates a deterministic synthetic set;
+ * any other value names a recording made from a real server with {@link FixtureRecorder}, which is read from
+ * {@code /fixtures/<name>.bin} on the classpath. A named recording that is missing, or that has nothing the benchmark
+ * can use, fails the benchmark instead of quietly measuring something else:
+ * <pre>
+ * java -jar benchmarks.jar ChunkTranslationBenchmark -p fixture=chunks
+ * </pre>
+ * Numbers are only comparable between runs that used the same fixture.
+ */
+public final class Fixtures {
+    public static final String SYNTHETIC = "synthetic";
+
+    private static final Map<String, List<Packet>> recordings = new HashMap<>();
+
+    private Fixtures() {
+    }
+
+    /**
+     * @return all packets of the named recording
+     * @throws IllegalStateException if the recording is not bundled
+     */
+    public static synchronized List<Packet> recorded(String fixture) throws IOException {
+        List<Packet> packets = recordings.get(fixture);
+        if (packets == null) {
+            try (InputStream stream = Fixtures.class.getResourceAsStream(resource(fixture))) {
+                if (stream == null) {
+                    throw new IllegalStateException("Fixture recording " + resource(fixture) + " is not bundled; record it with "
+                            + FixtureRecorder.class.getSimpleName() + " or run with -p fixture=" + SYNTHETIC);
+                }
+                packets = read(stream);
+            }
+            recordings.put(fixture, packets);
+        }
+        return packets;
+    }
+
+    public static String resource(String fixture) {
+        return "/fixtures/" + fixture + ".bin";
+    }
+
+    public static List<Column> columns(String fixture) throws IOException {
+        List<Column> columns = new ArrayList<>();
+        if (!SYNTHETIC.equals(fixture)) {
+            for (Packet packet : recorded(fixture)) {
+                if (packet instanceof ServerChunkDataPacket) {
+                    columns.add(((ServerChunkDataPacket) packet).getColumn());
+                }
+            }
+            return requireNonEmpty(fixture, columns, "chunks");
+        }
+
+        Random random = new Random(0);
+        for (int x = -2; x <= 2; x++) {
+            for (int z = -2; z <= 2; z++) {
+                columns.add(syntheticColumn(x, z, random));
+            }
+        }
+        return columns;
+    }
+
+    public static List<Component> messages(String fixture) throws IOException {
+        List<Component> messages = new ArrayList<>();
+        if (!SYNTHETIC.equals(fixture)) {
+            for (Packet packet : recorded(fixture)) {
+                if (packet instanceof ServerChatPacket) {
+                    messages.add(((ServerChatPacket) packet).getMessage());
+                }
+            }
+            return requireNonEmpty(fixture, messages, "chat messages");
+        }
+
+        messages.add(Component.text("Hello world"));
+        messages.add(Component.text()
+                .append(Component.text("[", NamedTextColor.DARK_GRAY))
+                .append(Component.text("Server", NamedTextColor.GOLD, TextDecoration.BOLD))
+                .append(Component.text("] ", NamedTextColor.DARK_GRAY))
+                .append(Component.text("Welcome back, ", NamedTextColor.GRAY))
+                .append(Component.text("Steve", NamedTextColor.AQUA))
+                .append(Component.text("!", NamedTextColor.GRAY))
+                .build());
+        messages.add(Component.translatable("chat.type.text", Component.text("Alex"), Component.text("anyone up for some mining?")));
+        messages.add(Component.translatable("death.attack.arrow", Component.text("Steve"), Component.text("Skeleton")));
+        messages.add(Component.translatable("multiplayer.player.joined", NamedTextColor.YELLOW, Component.text("Alex")));
+        return messages;
+    }
+
+    public static List<ItemStack> items(String fixture, GeyserSession session) throws IOException {
+        List<ItemStack> items = new ArrayList<>();
+        if (!SYNTHETIC.equals(fixture)) {
+            for (Packet packet : recorded(fixture)) {
+                if (packet instanceof ServerWindowItemsPacket) {
+                    for (ItemStack item : ((ServerWindowItemsPacket) packet).getItems()) {
+                        if (item != null && item.getId() != 0) {
+                            items.add(item);
+                        }
+                    }
+                }
+            }
+            return requireNonEmpty(fixture, items, "items");
+        }
+
+        items.add(item(session, "minecraft:stone", 64, null));
+        items.add(item(session, "minecraft:oak_planks", 32, null));
+
+        CompoundTag sword = new CompoundTag("");
+        ListTag enchantments = new ListTag("Enchantments");
+        CompoundTag sharpness = new CompoundTag("");
+        sharpness.put(new StringTag("id", "minecraft:sharpness"));
+        sharpness.put(new ShortTag("lvl", (short) 5));
+        enchantments.add(sharpness);
+        sword.put(enchantments);
+        CompoundTag display = new CompoundTag("display");
+        display.put(new StringTag("Name", "{\"text\":\"Excalibur\",\"color\":\"gold\"}"));
+        sword.put(display);
+        sword.put(new IntTag("Damage", 12));
+        items.add(item(session, "minecraft:diamond_sword", 1, sword));
+
+        CompoundTag chestplate = new CompoundTag("");
+        CompoundTag dyed = new CompoundTag("display");
+        dyed.put(new IntTag("color", 0x3C44AA));
+        chestplate.put(dyed);
+        items.add(item(session, "minecraft:leather_chestplate", 1, chestplate));
+
+        CompoundTag potion = new CompoundTag("");
+        potion.put(new StringTag("Potion", "minecraft:strong_healing"));
+        items.add(item(session, "minecraft:potion", 1, potion));
+        return items;
+    }
+
+    /**
+     * @return packets to push through the Java translator registry
+     */
+    public static List<Packet> javaPackets(String fixture) throws IOException {
+        List<Packet> packets = new ArrayList<>();
+        if (!SYNTHETIC.equals(fixture)) {
+            for (Packet packet : recorded(fixture)) {
+                // Chunks are translated on another thread, which would not be measured, and the rest would reset the
+                // session every time they are replayed
+                if (!(packet instanceof ServerChunkDataPacket || packet instanceof ServerJoinGamePacket
+                        || packet instanceof ServerRespawnPacket || packet instanceof ServerDisconnectPacket)) {
+                    packets.add(packet);
+                }
+            }
+            return requireNonEmpty(fixture, packets, "packets that can be replayed");
+        }
+
+        packets.add(new ServerKeepAlivePacket(1));
+        packets.add(new ServerUpdateTimePacket(1000, 6000));
+        for (Component message : messages(SYNTHETIC)) {
+            packets.add(new ServerChatPacket(message, MessageType.SYSTEM, new UUID(0, 0)));
+        }
+        return packets;
+    }
+
+    private static <T> List<T> requireNonEmpty(String fixture, List<T> values, String description) {
+        if (values.isEmpty()) {
+            throw new IllegalStateException("Fixture recording " + resource(fixture) + " contains no " + description);
+        }
+        return values;
+    }
+
+    private static ItemStack item(GeyserSession session, String identifier, int amount, CompoundTag nbt) {
+        ItemMapping mapping = session.getItemMappings().getMapping(identifier);
+        return new ItemStack(mapping.getJavaId(), amount, nbt);
+    }
+
+    /**
+     * Builds a plains-like column: stone with scattered ores, a layer of dirt and grass, some water and a few blocks
+     * that need special handling (waterlogged blocks, flower pots and pistons).
+     */
+    private static Column syntheticColumn(int chunkX, int chunkZ, Random random) {
+        int stone = javaId("minecraft:stone");
+        int[] ores = {javaId("minecraft:coal_ore"), javaId("minecraft:iron_ore"), javaId("minecraft:gold_ore"),
+                javaId("minecraft:diamond_ore"), javaId("minecraft:andesite"), javaId("minecraft:gravel")};
+        int dirt = javaId("minecraft:dirt");
+        int grass = javaId("minecraft:grass_block[snowy=false]");
+        int water = javaId("minecraft:water[level=0]");
+        int seagrass = javaId("minecraft:seagrass");
+        int waterloggedStairs = javaId("minecraft:oak_stairs[facing=north,half=bottom,shape=straight,waterlogged=true]");
+        int flowerPot = javaId("minecraft:potted_poppy");
+        int piston = javaId("minecraft:piston[extended=false,facing=up]");
+
+        Chunk[] chunks = new Chunk[16];
+        for (int sectionY = 0; sectionY < 5; sectionY++) {
+            Chunk chunk = new Chunk();
+            for (int y = 0; y < 16; y++) {
+                int blockY = (sectionY << 4) + y;
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        int state;
+                        if (blockY < 60) {
+                            state = random.nextInt(20) == 0 ? ores[random.nextInt(ores.length)] : stone;
+                        } else if (blockY < 63) {
+                            state = dirt;
+                        } else if (blockY == 63) {
+                            state = x < 4 ? water : grass;
+                        } else if (blockY == 64 && x < 4 && z == 0) {
+                            state = random.nextBoolean() ? seagrass : waterloggedStairs;
+                        } else if (blockY == 64 && x == 8 && z == 8) {
+                            state = random.nextBoolean() ? flowerPot : piston;
+                        } else {
+                            continue;
+                        }
+                        chunk.set(x, y, z, state);
+                    }
+                }
+            }
+            chunks[sectionY] = chunk;
+        }
+
+        int[] biomeData = new int[1024];
+        for (int i = 0; i < biomeData.length; i++) {
+            // Plains with the occasional river
+            biomeData[i] = (i & 3) == 0 && random.nextInt(4) == 0 ? 7 : 1;
+        }
+
+        return new Column(chunkX, chunkZ, chunks, new CompoundTag[0], new CompoundTag("HeightMaps"), biomeData);
+    }
+
+    private static int javaId(String identifier) {
+        return BlockRegistries.JAVA_IDENTIFIERS.getOrDefault(identifier, 0);
+    }
+
+    /**
+     * Reads packets in the format written by {@link #write(DataOutputStream, Packet)}.
+     */
+    public static List<Packet> read(InputStream stream) throws IOException {
+        List<Packet> packets = new ArrayList<>();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+        while (true) {
+            String className;
+            try {
+                className = in.readUTF();
+            } catch (EOFException e) {
+                break;
+            }
+            byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+
+            try {
+                Constructor<?> constructor = Class.forName(className).getDeclaredConstructor();
+                constructor.setAccessible(true);
+                Packet packet = (Packet) constructor.newInstance();
+                packet.read(new StreamNetInput(new ByteArrayInputStream(data)));
+                packets.add(packet);
+            } catch (ReflectiveOperationException e) {
+                throw new IOException("Unable to read recorded " + className, e);
+            }
+        }
+        return packets;
+    }
+
+    /**
+     * Writes a packet as its class name followed by its length-prefixed wire data.
+     */
+    public static void write(DataOutputStream out, Packet packet) throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        packet.write(new StreamNetOutput(data));
+        out.writeUTF(packet.getClass().getName());
+        out.writeInt(data.size());
+        data.writeTo(out);
+    }
+}
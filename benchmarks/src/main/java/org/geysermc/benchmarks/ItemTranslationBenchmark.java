@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.benchmarks;
+
+import com.github.steveice10.mc.protocol.data.game.entity.metadata.ItemStack;
+import com.nukkitx.protocol.bedrock.data.inventory.ItemData;
+import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.translators.item.ItemTranslator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures translating item stacks in both directions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemTranslationBenchmark {
+    @Param(Fixtures.SYNTHETIC)
+    public String fixture;
+
+    private GeyserSession session;
+    private List<ItemStack> javaItems;
+    private final List<ItemData> bedrockItems = new ArrayList<>();
+    private int index;
+
+    @Setup
+    public void setup() throws Exception {
+        session = BenchmarkSession.get();
+        javaItems = Fixtures.items(fixture, session);
+        for (ItemStack item : javaItems) {
+            bedrockItems.add(ItemTranslator.translateToBedrock(session, item));
+        }
+    }
+
+    @Benchmark
+    public ItemData translateToBedrock() {
+        // Translation may modify the NBT of the input, so work on a copy like Geyser does with GeyserItemStack
+        ItemStack item = javaItems.get(index++ % javaItems.size());
+        return ItemTranslator.translateToBedrock(session, new ItemStack(item.getId(), item.getAmount(),
+                item.getNbt() == null ? null : item.getNbt().clone()));
+    }
+
+    @Benchmark
+    public ItemStack translateToJava() {
+        return ItemTranslator.translateToJava(bedrockItems.get(index++ % bedrockItems.size()), session.getItemMappings());
+    }
+}
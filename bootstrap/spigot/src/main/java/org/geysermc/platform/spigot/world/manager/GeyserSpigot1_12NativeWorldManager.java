@@ -27,7 +27,6 @@ package org.geysermc.platform.spigot.world.manager;
 
 import com.viaversion.viaversion.api.Via;
 import com.viaversion.viaversion.protocols.protocol1_13to1_12_2.storage.BlockStorage;
-import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.geysermc.connector.network.session.GeyserSession;
@@ -49,7 +48,7 @@ public class GeyserSpigot1_12NativeWorldManager extends GeyserSpigot1_12WorldMan
 
     @Override
     public int getBlockAt(GeyserSession session, int x, int y, int z) {
-        Player player = Bukkit.getPlayer(session.getPlayerEntity().getUsername());
+        Player player = getPlayer(session);
         if (player == null) {
             return BlockStateValues.JAVA_AIR_ID;
         }
@@ -71,6 +71,15 @@ public class GeyserSpigotLegacyNativeWorldManager extends GeyserSpigotNativeWorl
         return oldToNewBlockId.getOrDefault(nativeBlockId, nativeBlockId);
     }
 
+    @Override
+    public void getBlocksIn(GeyserSession session, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, int[] out) {
+        super.getBlocksIn(session, minX, minY, minZ, maxX, maxY, maxZ, out);
+        int volume = (maxY - minY + 1) * (maxX - minX + 1) * (maxZ - minZ + 1);
+        for (int i = 0; i < volume; i++) {
+            out[i] = oldToNewBlockId.getOrDefault(out[i], out[i]);
+        }
+    }
+
     @Override
     public boolean isLegacy() {
         return true;
@@ -25,7 +25,7 @@
 
 package org.geysermc.platform.spigot.world.manager;
 
-import org.bukkit.Bukkit;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.geysermc.connector.network.session.GeyserSession;
@@ -33,6 +33,8 @@ import org.geysermc.connector.network.translators.world.block.BlockStateValues;
 import org.geysermc.geyser.adapters.spigot.SpigotAdapters;
 import org.geysermc.geyser.adapters.spigot.SpigotWorldAdapter;
 
+import java.util.Arrays;
+
 public class GeyserSpigotNativeWorldManager extends GeyserSpigotWorldManager {
     protected final SpigotWorldAdapter adapter;
 
@@ -43,10 +45,29 @@ public class GeyserSpigotNativeWorldManager extends GeyserSpigotWorldManager {
 
     @Override
     public int getBlockAt(GeyserSession session, int x, int y, int z) {
-        Player player = Bukkit.getPlayer(session.getPlayerEntity().getUsername());
+        Player player = getPlayer(session);
         if (player == null) {
             return BlockStateValues.JAVA_AIR_ID;
         }
         return adapter.getBlockAt(player.getWorld(), x, y, z);
     }
+
+    @Override
+    public void getBlocksIn(GeyserSession session, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, int[] out) {
+        Player player = getPlayer(session);
+        if (player == null) {
+            Arrays.fill(out, 0, (maxY - minY + 1) * (maxX - minX + 1) * (maxZ - minZ + 1), BlockStateValues.JAVA_AIR_ID);
+            return;
+        }
+        // The adapter reads straight from the server's chunks, so only the world lookup needs to be shared
+        World world = player.getWorld();
+        int index = 0;
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    out[index++] = adapter.getBlockAt(world, x, y, z);
+                }
+            }
+        }
+    }
 }
@@ -26,11 +26,16 @@
 package org.geysermc.platform.spigot.world.manager;
 
 import com.github.steveice10.mc.protocol.MinecraftConstants;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.nukkitx.math.vector.Vector3i;
 import com.nukkitx.nbt.NbtMap;
 import com.nukkitx.nbt.NbtMapBuilder;
 import com.nukkitx.nbt.NbtType;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.Lectern;
@@ -46,9 +51,13 @@ import org.geysermc.connector.network.translators.world.block.BlockStateValues;
 import org.geysermc.connector.registry.BlockRegistries;
 import org.geysermc.connector.utils.BlockEntityUtils;
 import org.geysermc.connector.utils.GameRule;
+import org.geysermc.connector.utils.MathUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The base world manager to use when there is no supported NMS revision
@@ -59,16 +68,61 @@ public class GeyserSpigotWorldManager extends GeyserWorldManager {
      */
     protected static final int CLIENT_PROTOCOL_VERSION = MinecraftConstants.PROTOCOL_VERSION;
 
+    /**
+     * Regions at least this large are read from chunk snapshots instead of block by block
+     */
+    private static final int SNAPSHOT_THRESHOLD = 512;
+
     private final Plugin plugin;
 
+    /**
+     * The Bukkit player of each session, so they don't need to be looked up by name for every block
+     */
+    private final Cache<GeyserSession, Player> players = CacheBuilder.newBuilder()
+            .weakKeys()
+            .weakValues()
+            .build();
+
+    /**
+     * Java block state IDs by block data, to avoid building and hashing the block state string for every lookup
+     */
+    private final Map<BlockData, Integer> blockDataIds = new ConcurrentHashMap<>();
+
     public GeyserSpigotWorldManager(Plugin plugin) {
         this.plugin = plugin;
     }
 
+    /**
+     * @return the Bukkit player for this session, or null if they are not online
+     */
+    protected Player getPlayer(GeyserSession session) {
+        Player player = players.getIfPresent(session);
+        if (player == null || !player.isOnline()) {
+            player = Bukkit.getPlayer(session.getPlayerEntity().getUsername());
+            if (player == null) {
+                return null;
+            }
+            players.put(session, player);
+        }
+        return player;
+    }
+
+    /**
+     * @return the Java block state ID of the block data
+     */
+    protected int getJavaBlockId(BlockData blockData) {
+        Integer id = blockDataIds.get(blockData);
+        if (id == null) {
+            id = BlockRegistries.JAVA_IDENTIFIERS.getOrDefault(blockData.getAsString(), BlockStateValues.JAVA_AIR_ID);
+            blockDataIds.put(blockData, id);
+        }
+        return id;
+    }
+
     @Override
     public int getBlockAt(GeyserSession session, int x, int y, int z) {
         Player bukkitPlayer;
-        if ((bukkitPlayer = Bukkit.getPlayer(session.getPlayerEntity().getUsername())) == null) {
+        if ((bukkitPlayer = getPlayer(session)) == null) {
             return BlockStateValues.JAVA_AIR_ID;
         }
         World world = bukkitPlayer.getWorld();
@@ -77,7 +131,50 @@ public class GeyserSpigotWorldManager extends GeyserWorldManager {
             return BlockStateValues.JAVA_AIR_ID;
         }
 
-        return BlockRegistries.JAVA_IDENTIFIERS.getOrDefault(world.getBlockAt(x, y, z).getBlockData().getAsString(), BlockStateValues.JAVA_AIR_ID);
+        return getJavaBlockId(world.getBlockAt(x, y, z).getBlockData());
+    }
+
+    @Override
+    public void getBlocksIn(GeyserSession session, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, int[] out) {
+        if (isLegacy()) {
+            // No block data to read; go block by block
+            super.getBlocksIn(session, minX, minY, minZ, maxX, maxY, maxZ, out);
+            return;
+        }
+
+        int volume = (maxY - minY + 1) * (maxX - minX + 1) * (maxZ - minZ + 1);
+        Player bukkitPlayer = getPlayer(session);
+        if (bukkitPlayer == null) {
+            Arrays.fill(out, 0, volume, BlockStateValues.JAVA_AIR_ID);
+            return;
+        }
+        World world = bukkitPlayer.getWorld();
+
+        // Copying a chunk is only worth it if many blocks are read from it
+        Long2ObjectMap<ChunkSnapshot> snapshots = volume >= SNAPSHOT_THRESHOLD ? new Long2ObjectOpenHashMap<>() : null;
+        int index = 0;
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    int chunkX = x >> 4;
+                    int chunkZ = z >> 4;
+                    if (!world.isChunkLoaded(chunkX, chunkZ)) {
+                        out[index++] = BlockStateValues.JAVA_AIR_ID;
+                        continue;
+                    }
+
+                    BlockData blockData;
+                    if (snapshots != null) {
+                        ChunkSnapshot snapshot = snapshots.computeIfAbsent(MathUtils.chunkPositionToLong(chunkX, chunkZ),
+                                position -> world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false));
+                        blockData = snapshot.getBlockData(x & 15, y, z & 15);
+                    } else {
+                        blockData = world.getBlockAt(x, y, z).getBlockData();
+                    }
+                    out[index++] = getJavaBlockId(blockData);
+                }
+            }
+        }
     }
 
     @Override
@@ -90,7 +187,7 @@ public class GeyserSpigotWorldManager extends GeyserWorldManager {
         // Run as a task to prevent async issues
         Runnable lecternInfoGet = () -> {
             Player bukkitPlayer;
-            if ((bukkitPlayer = Bukkit.getPlayer(session.getPlayerEntity().getUsername())) == null) {
+            if ((bukkitPlayer = getPlayer(session)) == null) {
                 return;
             }
 
@@ -157,7 +254,7 @@ public class GeyserSpigotWorldManager extends GeyserWorldManager {
     }
 
     public Boolean getGameRuleBool(GeyserSession session, GameRule gameRule) {
-        String value = Bukkit.getPlayer(session.getPlayerEntity().getUsername()).getWorld().getGameRuleValue(gameRule.getJavaID());
+        String value = getPlayer(session).getWorld().getGameRuleValue(gameRule.getJavaID());
         if (!value.isEmpty()) {
             return Boolean.parseBoolean(value);
         }
@@ -166,7 +263,7 @@ public class GeyserSpigotWorldManager extends GeyserWorldManager {
 
     @Override
     public int getGameRuleInt(GeyserSession session, GameRule gameRule) {
-        String value = Bukkit.getPlayer(session.getPlayerEntity().getUsername()).getWorld().getGameRuleValue(gameRule.getJavaID());
+        String value = getPlayer(session).getWorld().getGameRuleValue(gameRule.getJavaID());
         if (!value.isEmpty()) {
             return Integer.parseInt(value);
         }
@@ -175,7 +272,7 @@ public class GeyserSpigotWorldManager extends GeyserWorldManager {
 
     @Override
     public boolean hasPermission(GeyserSession session, String permission) {
-        return Bukkit.getPlayer(session.getPlayerEntity().getUsername()).hasPermission(permission);
+        return getPlayer(session).hasPermission(permission);
     }
 
     /**
@@ -41,9 +41,14 @@ import org.geysermc.connector.bootstrap.GeyserBootstrap;
 import org.geysermc.connector.command.CommandManager;
 import org.geysermc.connector.common.AuthType;
 import org.geysermc.connector.configuration.GeyserConfiguration;
+import org.geysermc.connector.metrics.GeyserMetrics;
 import org.geysermc.connector.metrics.Metrics;
+import org.geysermc.connector.metrics.MetricsHttpServer;
 import org.geysermc.connector.network.ConnectorServerEventHandler;
+import org.geysermc.connector.network.JoinAdmissionController;
 import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.session.SessionRegistry;
+import org.geysermc.connector.network.session.auth.LoginCryptoExecutor;
 import org.geysermc.connector.registry.BlockRegistries;
 import org.geysermc.connector.registry.Registries;
 import org.geysermc.connector.network.translators.PacketTranslatorRegistry;
@@ -62,6 +67,7 @@ import org.jetbrains.annotations.Contract;
 
 import javax.naming.directory.Attribute;
 import javax.naming.directory.InitialDirContext;
+import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
@@ -70,6 +76,7 @@ import java.text.DecimalFormat;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
@@ -96,7 +103,7 @@ public class GeyserConnector {
 
     private static final String IP_REGEX = "\\b\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}\\b";
 
-    private final List<GeyserSession> players = new ArrayList<>();
+    private final SessionRegistry sessionRegistry = new SessionRegistry();
 
     private static GeyserConnector instance;
 
@@ -117,6 +124,16 @@ public class GeyserConnector {
     private boolean shuttingDown = false;
 
     private final ScheduledExecutorService generalThreadPool;
+    private final LoginCryptoExecutor loginCryptoExecutor;
+    private final JoinAdmissionController joinAdmissionController;
+    private final ConnectorServerEventHandler serverEventHandler;
+    private final GeyserMetrics geyserMetrics;
+    private MetricsHttpServer metricsHttpServer;
+
+    /**
+     * How long each startup task took, in the order they finished in
+     */
+    private List<StartupTasks.TaskTiming> startupTimeline;
 
     private final BedrockServer bedrockServer;
     private final PlatformType platformType;
@@ -143,19 +160,38 @@ public class GeyserConnector {
         logger.info("******************************************");
 
         this.generalThreadPool = Executors.newScheduledThreadPool(config.getGeneralThreadPool());
+        this.loginCryptoExecutor = new LoginCryptoExecutor(config);
+        this.joinAdmissionController = new JoinAdmissionController(this);
+        this.joinAdmissionController.start();
+        this.geyserMetrics = new GeyserMetrics(this, config.getMetricsEndpoint().isEnabled());
+        if (config.isTrackSessionTraffic()) {
+            long interval = TimeUnit.SECONDS.toNanos(5);
+            generalThreadPool.scheduleAtFixedRate(() -> {
+                for (GeyserSession session : sessionRegistry.getSessions()) {
+                    session.getTrafficStats().updateRates(interval);
+                }
+            }, 5, 5, TimeUnit.SECONDS);
+        }
 
         logger.setDebug(config.isDebugMode());
 
-        PacketTranslatorRegistry.init();
-
         /* Initialize translators and registries */
-        BlockRegistries.init();
-        Registries.init();
-
-        ItemTranslator.init();
-        LocaleUtils.init();
-
-        ResourcePack.loadPacks();
+        // Registries and translators are chained, as their static initializers reference each other and
+        // initializing them from different threads at once could deadlock
+        ForkJoinPool startupPool = new ForkJoinPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        try {
+            this.startupTimeline = new StartupTasks()
+                    .add("block registries", BlockRegistries::init)
+                    .add("registries", Registries::init, "block registries")
+                    .add("item translators", ItemTranslator::init, "registries")
+                    .add("packet translators", PacketTranslatorRegistry::init, "item translators")
+                    .add("locales", LocaleUtils::init)
+                    .add("resource packs", () -> ResourcePack.loadPacks(startupPool))
+                    .run(startupPool);
+        } finally {
+            startupPool.shutdown();
+        }
+        StartupTasks.logTimeline(logger, startupTimeline);
 
         if (platformType != PlatformType.STANDALONE && config.getRemote().getAddress().equals("auto")) {
             // Set the remote address to localhost since that is where we are always connecting
@@ -256,7 +292,8 @@ public class GeyserConnector {
             }
         }
 
-        bedrockServer.setHandler(new ConnectorServerEventHandler(this));
+        this.serverEventHandler = new ConnectorServerEventHandler(this);
+        bedrockServer.setHandler(serverEventHandler);
 
         if (shouldStartListener) {
             bedrockServer.bind().whenComplete((avoid, throwable) -> {
@@ -269,9 +306,19 @@ public class GeyserConnector {
             }).join();
         }
 
+        if (geyserMetrics.isEnabled()) {
+            try {
+                metricsHttpServer = new MetricsHttpServer(geyserMetrics.getRegistry(), config.getMetricsEndpoint().getAddress(), config.getMetricsEndpoint().getPort());
+                metricsHttpServer.start();
+                logger.info("Serving metrics on " + config.getMetricsEndpoint().getAddress() + ":" + config.getMetricsEndpoint().getPort());
+            } catch (IOException e) {
+                logger.error("Could not start the metrics endpoint", e);
+            }
+        }
+
         if (config.getMetrics().isEnabled()) {
             metrics = new Metrics(this, "GeyserMC", config.getMetrics().getUniqueId(), false, java.util.logging.Logger.getLogger(""));
-            metrics.addCustomChart(new Metrics.SingleLineChart("players", players::size));
+            metrics.addCustomChart(new Metrics.SingleLineChart("players", sessionRegistry::size));
             // Prevent unwanted words best we can
             metrics.addCustomChart(new Metrics.SimplePie("authMode", () -> AuthType.getByName(config.getRemote().getAuthType()).toString().toLowerCase()));
             metrics.addCustomChart(new Metrics.SimplePie("platform", platformType::getPlatformName));
@@ -279,7 +326,7 @@ public class GeyserConnector {
             metrics.addCustomChart(new Metrics.SimplePie("version", () -> GeyserConnector.VERSION));
             metrics.addCustomChart(new Metrics.AdvancedPie("playerPlatform", () -> {
                 Map<String, Integer> valueMap = new HashMap<>();
-                for (GeyserSession session : players) {
+                for (GeyserSession session : sessionRegistry.getSessions()) {
                     if (session == null) continue;
                     if (session.getClientData() == null) continue;
                     String os = session.getClientData().getDeviceOs().toString();
@@ -293,7 +340,7 @@ public class GeyserConnector {
             }));
             metrics.addCustomChart(new Metrics.AdvancedPie("playerVersion", () -> {
                 Map<String, Integer> valueMap = new HashMap<>();
-                for (GeyserSession session : players) {
+                for (GeyserSession session : sessionRegistry.getSessions()) {
                     if (session == null) continue;
                     if (session.getClientData() == null) continue;
                     String version = session.getClientData().getGameVersion();
@@ -386,12 +433,10 @@ public class GeyserConnector {
         bootstrap.getGeyserLogger().info(LanguageUtils.getLocaleStringLog("geyser.core.shutdown"));
         shuttingDown = true;
 
-        if (players.size() >= 1) {
-            bootstrap.getGeyserLogger().info(LanguageUtils.getLocaleStringLog("geyser.core.shutdown.kick.log", players.size()));
+        if (sessionRegistry.size() >= 1) {
+            bootstrap.getGeyserLogger().info(LanguageUtils.getLocaleStringLog("geyser.core.shutdown.kick.log", sessionRegistry.size()));
 
-            // Make a copy to prevent ConcurrentModificationException
-            final List<GeyserSession> tmpPlayers = new ArrayList<>(players);
-            for (GeyserSession playerSession : tmpPlayers) {
+            for (GeyserSession playerSession : sessionRegistry.getSessions()) {
                 playerSession.disconnect(LanguageUtils.getPlayerLocaleString("geyser.core.shutdown.kick.message", playerSession.getLocale()));
             }
 
@@ -401,7 +446,7 @@ public class GeyserConnector {
                     // Simulate a long-running Job
                     try {
                         while (true) {
-                            if (players.size() == 0) {
+                            if (sessionRegistry.size() == 0) {
                                 return;
                             }
 
@@ -423,6 +468,11 @@ public class GeyserConnector {
         }
 
         generalThreadPool.shutdown();
+        loginCryptoExecutor.shutdown();
+        joinAdmissionController.shutdown();
+        if (metricsHttpServer != null) {
+            metricsHttpServer.stop();
+        }
         bedrockServer.close();
         if (timeSyncer != null) {
             timeSyncer.shutdown();
@@ -431,7 +481,7 @@ public class GeyserConnector {
             skinUploader.close();
         }
         newsHandler.shutdown();
-        players.clear();
+        sessionRegistry.clear();
         defaultAuthType = null;
         this.getCommandManager().getCommands().clear();
 
@@ -439,11 +489,18 @@ public class GeyserConnector {
     }
 
     public void addPlayer(GeyserSession player) {
-        players.add(player);
+        sessionRegistry.add(player);
     }
 
     public void removePlayer(GeyserSession player) {
-        players.remove(player);
+        sessionRegistry.remove(player);
+    }
+
+    /**
+     * @return a snapshot of all connected players; it does not change as players join or leave
+     */
+    public List<GeyserSession> getPlayers() {
+        return sessionRegistry.getSessions();
     }
 
     /**
@@ -454,17 +511,18 @@ public class GeyserConnector {
      */
     @Contract("null -> null")
     public GeyserSession getPlayerByUuid(UUID uuid) {
-        if (uuid == null) {
-            return null;
-        }
-
-        for (GeyserSession session : players) {
-            if (uuid.equals(session.getPlayerEntity().getUuid())) {
-                return session;
-            }
-        }
+        return sessionRegistry.getByJavaUuid(uuid);
+    }
 
-        return null;
+    /**
+     * Gets a player by the UUID of their Bedrock account
+     *
+     * @param uuid the Bedrock UUID
+     * @return the player or <code>null</code> if there is no player online with this UUID
+     */
+    @Contract("null -> null")
+    public GeyserSession getPlayerByBedrockUuid(UUID uuid) {
+        return sessionRegistry.getByBedrockUuid(uuid);
     }
 
     /**
@@ -475,13 +533,18 @@ public class GeyserConnector {
      */
     @SuppressWarnings("unused") // API usage
     public GeyserSession getPlayerByXuid(String xuid) {
-        for (GeyserSession session : players) {
-            if (session.getAuthData() != null && session.getAuthData().getXboxUUID().equals(xuid)) {
-                return session;
-            }
-        }
+        return sessionRegistry.getByXuid(xuid);
+    }
 
-        return null;
+    /**
+     * Gets a player by their Java username, ignoring case
+     *
+     * @param name the Java username
+     * @return the player or <code>null</code> if there is no player online with this name
+     */
+    @Contract("null -> null")
+    public GeyserSession getPlayerByName(String name) {
+        return sessionRegistry.getByName(name);
     }
 
     public static GeyserConnector start(PlatformType platformType, GeyserBootstrap bootstrap) {
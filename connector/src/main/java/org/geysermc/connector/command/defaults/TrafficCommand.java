@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.command.defaults;
+
+import org.geysermc.common.PlatformType;
+import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.command.CommandSender;
+import org.geysermc.connector.command.GeyserCommand;
+import org.geysermc.connector.common.ChatColor;
+import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.session.SessionTrafficStats;
+import org.geysermc.connector.network.session.cache.EntityMovementThrottle;
+import org.geysermc.connector.utils.LanguageUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lists the players and packet types with the highest packet rates, from {@link SessionTrafficStats}.
+ */
+public class TrafficCommand extends GeyserCommand {
+    private static final int DEFAULT_COUNT = 5;
+
+    private final GeyserConnector connector;
+
+    public TrafficCommand(GeyserConnector connector, String name, String description, String permission) {
+        super(name, description, permission);
+
+        this.connector = connector;
+    }
+
+    @Override
+    public void execute(GeyserSession session, CommandSender sender, String[] args) {
+        // Only allow the console to see the traffic of every player on Geyser Standalone
+        if (!sender.isConsole() && connector.getPlatformType() == PlatformType.STANDALONE) {
+            sender.sendMessage(LanguageUtils.getPlayerLocaleString("geyser.bootstrap.command.permission_fail", sender.getLocale()));
+            return;
+        }
+
+        if (!connector.getConfig().isTrackSessionTraffic()) {
+            sender.sendMessage(ChatColor.RED + LanguageUtils.getPlayerLocaleString("geyser.commands.traffic.disabled", sender.getLocale()));
+            return;
+        }
+
+        int count = DEFAULT_COUNT;
+        if (args.length >= 1) {
+            try {
+                count = Math.max(1, Integer.parseInt(args[0]));
+            } catch (NumberFormatException e) {
+                sender.sendMessage(ChatColor.RED + LanguageUtils.getPlayerLocaleString("geyser.commands.traffic.usage", sender.getLocale()));
+                return;
+            }
+        }
+
+        List<GeyserSession> sessions = new ArrayList<>(connector.getPlayers());
+        sessions.sort(Comparator.comparingDouble((GeyserSession player) -> player.getTrafficStats().getPacketsPerSecond()).reversed());
+
+        sender.sendMessage(ChatColor.YELLOW + LanguageUtils.getPlayerLocaleString("geyser.commands.traffic.top_players", sender.getLocale()));
+        for (int i = 0; i < Math.min(count, sessions.size()); i++) {
+            SessionTrafficStats stats = sessions.get(i).getTrafficStats();
+            String line = ChatColor.GRAY + LanguageUtils.getPlayerLocaleString("geyser.commands.traffic.entry", sender.getLocale(), i + 1,
+                    ChatColor.WHITE + sessions.get(i).getName() + ChatColor.GRAY, format(stats.getPacketsPerSecond()),
+                    format(stats.getBytesPerSecond() / 1024));
+            EntityMovementThrottle movementThrottle = sessions.get(i).getEntityCache().getMovementThrottle();
+            if (movementThrottle != null) {
+                line += LanguageUtils.getPlayerLocaleString("geyser.commands.traffic.movement_saved", sender.getLocale(),
+                        format(movementThrottle.getSavedBytes() / 1024D), movementThrottle.getSkippedPackets());
+            }
+            sender.sendMessage(line);
+        }
+
+        // Add up every packet type over all sessions
+        Map<String, double[]> packetRates = new HashMap<>();
+        for (GeyserSession player : sessions) {
+            for (SessionTrafficStats.Direction direction : SessionTrafficStats.Direction.values()) {
+                for (SessionTrafficStats.PacketTraffic traffic : player.getTrafficStats().getTraffic(direction).values()) {
+                    double[] rates = packetRates.computeIfAbsent(traffic.getPacketClass().getSimpleName() + " (" + direction.getDisplayName() + ")",
+                            key -> new double[2]);
+                    rates[0] += traffic.getPacketsPerSecond();
+                    rates[1] += traffic.getBytesPerSecond();
+                }
+            }
+        }
+        List<Map.Entry<String, double[]>> packets = new ArrayList<>(packetRates.entrySet());
+        packets.sort(Comparator.comparingDouble((Map.Entry<String, double[]> entry) -> entry.getValue()[0]).reversed());
+
+        sender.sendMessage(ChatColor.YELLOW + LanguageUtils.getPlayerLocaleString("geyser.commands.traffic.top_packets", sender.getLocale()));
+        for (int i = 0; i < Math.min(count, packets.size()); i++) {
+            double[] rates = packets.get(i).getValue();
+            sender.sendMessage(ChatColor.GRAY + LanguageUtils.getPlayerLocaleString("geyser.commands.traffic.entry", sender.getLocale(), i + 1,
+                    ChatColor.WHITE + packets.get(i).getKey() + ChatColor.GRAY, format(rates[0]), format(rates[1] / 1024)));
+        }
+    }
+
+    private static String format(double value) {
+        return String.format("%.1f", value);
+    }
+}
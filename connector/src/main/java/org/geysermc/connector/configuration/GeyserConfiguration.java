@@ -28,6 +28,7 @@ package org.geysermc.connector.configuration;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.geysermc.connector.GeyserLogger;
 import org.geysermc.connector.network.CIDRMatcher;
+import org.geysermc.connector.network.CIDRSet;
 import org.geysermc.connector.utils.LanguageUtils;
 
 import java.nio.file.Path;
@@ -63,6 +64,10 @@ public interface GeyserConfiguration {
 
     int getPingPassthroughInterval();
 
+    int getPingPassthroughStaleTime();
+
+    List<String> getPingPassthroughTargets();
+
     boolean isForwardPlayerPing();
 
     int getMaxPlayers();
@@ -95,10 +100,20 @@ public interface GeyserConfiguration {
 
     int getCacheImages();
 
+    int getSkinUploadRate();
+
     boolean isAllowCustomSkulls();
 
+    int getMaxVisibleCustomSkulls();
+
+    int getCustomSkullRenderDistance();
+
     IMetricsInfo getMetrics();
 
+    IMetricsEndpointConfiguration getMetricsEndpoint();
+
+    IJoinAdmissionConfiguration getJoinAdmission();
+
     interface IBedrockConfiguration {
 
         String getAddress();
@@ -115,6 +130,10 @@ public interface GeyserConfiguration {
 
         int getCompressionLevel();
 
+        boolean isAdaptiveCompression();
+
+        int getAdaptiveCompressionThreshold();
+
         boolean isEnableProxyProtocol();
 
         List<String> getProxyProtocolWhitelistedIPs();
@@ -123,6 +142,11 @@ public interface GeyserConfiguration {
          * @return Unmodifiable list of {@link CIDRMatcher}s from {@link #getProxyProtocolWhitelistedIPs()}
          */
         List<CIDRMatcher> getWhitelistedIPsMatchers();
+
+        /**
+         * @return {@link #getProxyProtocolWhitelistedIPs()} as a {@link CIDRSet}, for fast lookups
+         */
+        CIDRSet getWhitelistedIPsSet();
     }
 
     interface IRemoteConfiguration {
@@ -163,8 +187,51 @@ public interface GeyserConfiguration {
         String getUniqueId();
     }
 
+    interface IMetricsEndpointConfiguration {
+
+        boolean isEnabled();
+
+        String getAddress();
+
+        int getPort();
+    }
+
+    interface IJoinAdmissionConfiguration {
+
+        int getJoinsPerSecond();
+
+        int getCpuThreshold();
+
+        int getMaxQueueSize();
+    }
+
+    interface IEntityMovementThrottlingConfiguration {
+
+        boolean isEnabled();
+
+        int getFullRateDistance();
+
+        int getMaxInterval();
+
+        Map<String, Integer> getEntityTypes();
+    }
+
     int getScoreboardPacketThreshold();
 
+    int getLoginThreads();
+
+    int getLoginQueueSize();
+
+    int getMaxPendingLoginsPerAddress();
+
+    int getMaxPingsPerSecondPerAddress();
+
+    boolean isTrackSessionTraffic();
+
+    int getEntityCullingDistance();
+
+    IEntityMovementThrottlingConfiguration getEntityMovementThrottling();
+
     // if u have offline mode enabled pls be safe
     boolean isEnableProxyConnections();
 
@@ -34,6 +34,7 @@ import lombok.Setter;
 import org.geysermc.connector.GeyserConnector;
 import org.geysermc.connector.common.serializer.AsteriskSerializer;
 import org.geysermc.connector.network.CIDRMatcher;
+import org.geysermc.connector.network.CIDRSet;
 
 import java.nio.file.Path;
 import java.util.Collections;
@@ -83,6 +84,12 @@ public abstract class GeyserJacksonConfiguration implements GeyserConfiguration
     @JsonProperty("ping-passthrough-interval")
     private int pingPassthroughInterval = 3;
 
+    @JsonProperty("ping-passthrough-stale-time")
+    private int pingPassthroughStaleTime = 60;
+
+    @JsonProperty("ping-passthrough-targets")
+    private List<String> pingPassthroughTargets = Collections.emptyList();
+
     @JsonProperty("forward-player-ping")
     private boolean forwardPlayerPing = false;
 
@@ -117,9 +124,18 @@ public abstract class GeyserJacksonConfiguration implements GeyserConfiguration
     @JsonProperty("cache-images")
     private int cacheImages = 0;
 
+    @JsonProperty("skin-upload-rate")
+    private int skinUploadRate = 0;
+
     @JsonProperty("allow-custom-skulls")
     private boolean allowCustomSkulls = true;
 
+    @JsonProperty("max-visible-custom-skulls")
+    private int maxVisibleCustomSkulls = 128;
+
+    @JsonProperty("custom-skull-render-distance")
+    private int customSkullRenderDistance = 32;
+
     @JsonProperty("add-non-bedrock-items")
     private boolean addNonBedrockItems = true;
 
@@ -134,6 +150,12 @@ public abstract class GeyserJacksonConfiguration implements GeyserConfiguration
 
     private MetricsInfo metrics = new MetricsInfo();
 
+    @JsonProperty("metrics-endpoint")
+    private MetricsEndpointConfiguration metricsEndpoint = new MetricsEndpointConfiguration();
+
+    @JsonProperty("join-admission")
+    private JoinAdmissionConfiguration joinAdmission = new JoinAdmissionConfiguration();
+
     @Getter
     @JsonIgnoreProperties(ignoreUnknown = true)
     public static class BedrockConfiguration implements IBedrockConfiguration {
@@ -159,6 +181,12 @@ public abstract class GeyserJacksonConfiguration implements GeyserConfiguration
             return Math.max(-1, Math.min(compressionLevel, 9));
         }
 
+        @JsonProperty("adaptive-compression")
+        private boolean adaptiveCompression = false;
+
+        @JsonProperty("adaptive-compression-threshold")
+        private int adaptiveCompressionThreshold = 2048;
+
         @JsonProperty("enable-proxy-protocol")
         private boolean enableProxyProtocol = false;
 
@@ -181,6 +209,20 @@ public abstract class GeyserJacksonConfiguration implements GeyserConfiguration
             }
             return Collections.unmodifiableList(matchers);
         }
+
+        @JsonIgnore
+        private CIDRSet whitelistedIPsSet = null;
+
+        @Override
+        public CIDRSet getWhitelistedIPsSet() {
+            CIDRSet set = this.whitelistedIPsSet;
+            if (set == null) {
+                synchronized (this) {
+                    this.whitelistedIPsSet = set = new CIDRSet(proxyProtocolWhitelistedIPs);
+                }
+            }
+            return set;
+        }
     }
 
     @Getter
@@ -229,9 +271,68 @@ public abstract class GeyserJacksonConfiguration implements GeyserConfiguration
         private String uniqueId = UUID.randomUUID().toString();
     }
 
+    @Getter
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class MetricsEndpointConfiguration implements IMetricsEndpointConfiguration {
+        private boolean enabled = false;
+
+        private String address = "127.0.0.1";
+
+        private int port = 9225;
+    }
+
+    @Getter
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class JoinAdmissionConfiguration implements IJoinAdmissionConfiguration {
+        @JsonProperty("joins-per-second")
+        private int joinsPerSecond = 0;
+
+        @JsonProperty("cpu-threshold")
+        private int cpuThreshold = 85;
+
+        @JsonProperty("max-queue-size")
+        private int maxQueueSize = 500;
+    }
+
     @JsonProperty("scoreboard-packet-threshold")
     private int scoreboardPacketThreshold = 10;
 
+    @JsonProperty("login-threads")
+    private int loginThreads = -1;
+
+    @JsonProperty("login-queue-size")
+    private int loginQueueSize = 512;
+
+    @JsonProperty("max-pending-logins-per-address")
+    private int maxPendingLoginsPerAddress = 4;
+
+    @JsonProperty("max-pings-per-second-per-address")
+    private int maxPingsPerSecondPerAddress = 0;
+
+    @JsonProperty("track-session-traffic")
+    private boolean trackSessionTraffic = false;
+
+    @JsonProperty("entity-culling-distance")
+    private int entityCullingDistance = 0;
+
+    @JsonProperty("entity-movement-throttling")
+    private EntityMovementThrottlingConfiguration entityMovementThrottling = new EntityMovementThrottlingConfiguration();
+
+    @Getter
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class EntityMovementThrottlingConfiguration implements IEntityMovementThrottlingConfiguration {
+        private boolean enabled = false;
+
+        @JsonProperty("full-rate-distance")
+        private int fullRateDistance = 24;
+
+        @JsonProperty("max-interval")
+        private int maxInterval = 8;
+
+        @JsonProperty("entity-types")
+        private Map<String, Integer> entityTypes = Collections.singletonMap("ender_dragon", -1);
+    }
+
     @JsonProperty("enable-proxy-connections")
     private boolean enableProxyConnections = false;
 
@@ -38,9 +38,18 @@ import org.geysermc.connector.GeyserConnector;
 import org.geysermc.connector.common.serializer.AsteriskSerializer;
 import org.geysermc.connector.configuration.GeyserConfiguration;
 import org.geysermc.connector.network.BedrockProtocol;
+import org.geysermc.connector.network.ConnectorServerEventHandler;
+import org.geysermc.connector.network.session.AdaptiveCompression;
 import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.session.SessionTrafficStats;
+import org.geysermc.connector.network.session.cache.EntityMovementThrottle;
+import org.geysermc.connector.network.session.auth.LoginCryptoExecutor;
+import org.geysermc.connector.ping.GeyserLegacyPingPassthrough;
+import org.geysermc.connector.ping.IGeyserPingPassthrough;
+import org.geysermc.connector.skin.SkinStore;
 import org.geysermc.connector.utils.DockerCheck;
 import org.geysermc.connector.utils.FileUtils;
+import org.geysermc.connector.utils.StartupTasks;
 import org.geysermc.floodgate.util.DeviceOs;
 import org.geysermc.floodgate.util.FloodgateInfoHolder;
 
@@ -50,7 +59,7 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.UnknownHostException;
-import java.util.Properties;
+import java.util.*;
 
 @Getter
 public class DumpInfo {
@@ -64,6 +73,13 @@ public class DumpInfo {
     private final Object2IntMap<DeviceOs> userPlatforms;
     private final HashInfo hashInfo;
     private final RamInfo ramInfo;
+    private final LoginInfo loginInfo;
+    private final ConnectorServerEventHandler.PingStats pingStats;
+    private final GeyserLegacyPingPassthrough.PingPassthroughStats pingPassthroughStats;
+    private final List<SessionTrafficInfo> sessionTraffic;
+    private final CompressionInfo compressionInfo;
+    private final SkinStore.SkinStoreStats skinStore;
+    private final List<StartupTasks.TaskTiming> startupTimeline;
     private final BootstrapDumpInfo bootstrapInfo;
 
     public DumpInfo() {
@@ -98,6 +114,10 @@ public class DumpInfo {
         this.hashInfo = new HashInfo(md5Hash, sha256Hash);
 
         this.ramInfo = new DumpInfo.RamInfo();
+        this.loginInfo = new DumpInfo.LoginInfo();
+        this.pingStats = GeyserConnector.getInstance().getServerEventHandler().getStats();
+        IGeyserPingPassthrough pingPassthrough = GeyserConnector.getInstance().getBootstrap().getGeyserPingPassthrough();
+        this.pingPassthroughStats = pingPassthrough instanceof GeyserLegacyPingPassthrough ? ((GeyserLegacyPingPassthrough) pingPassthrough).getStats() : null;
 
         this.userPlatforms = new Object2IntOpenHashMap<>();
         for (GeyserSession session : GeyserConnector.getInstance().getPlayers()) {
@@ -105,6 +125,22 @@ public class DumpInfo {
             userPlatforms.put(device, userPlatforms.getOrDefault(device, 0) + 1);
         }
 
+        if (GeyserConnector.getInstance().getConfig().isTrackSessionTraffic()) {
+            this.sessionTraffic = new ArrayList<>();
+            for (GeyserSession session : GeyserConnector.getInstance().getPlayers()) {
+                sessionTraffic.add(new SessionTrafficInfo(session));
+            }
+            sessionTraffic.sort(Comparator.comparingDouble(SessionTrafficInfo::getPacketsPerSecond).reversed());
+        } else {
+            this.sessionTraffic = null;
+        }
+
+        this.compressionInfo = GeyserConnector.getInstance().getConfig().getBedrock().isAdaptiveCompression() ? new CompressionInfo() : null;
+
+        this.skinStore = SkinStore.getStats();
+
+        this.startupTimeline = GeyserConnector.getInstance().getStartupTimeline();
+
         this.bootstrapInfo = GeyserConnector.getInstance().getBootstrap().getDumpInfo();
     }
 
@@ -207,4 +243,83 @@ public class DumpInfo {
             this.max = Runtime.getRuntime().maxMemory() / MEGABYTE;
         }
     }
+
+    @Getter
+    public static class SessionTrafficInfo {
+        private static final int PACKET_TYPES = 10;
+
+        @AsteriskSerializer.Asterisk
+        private final String name;
+        private final double packetsPerSecond;
+        private final double bytesPerSecond;
+        /**
+         * The most sent or received packet types, as packet counts and estimated bytes
+         */
+        private final Map<String, long[]> packets = new LinkedHashMap<>();
+        /**
+         * Entity movement updates skipped by movement throttling, and the estimated bytes that saved
+         */
+        private final long movesSkipped;
+        private final long movesSavedBytes;
+
+        SessionTrafficInfo(GeyserSession session) {
+            SessionTrafficStats stats = session.getTrafficStats();
+            this.name = session.getName();
+            this.packetsPerSecond = stats.getPacketsPerSecond();
+            this.bytesPerSecond = stats.getBytesPerSecond();
+
+            EntityMovementThrottle movementThrottle = session.getEntityCache().getMovementThrottle();
+            this.movesSkipped = movementThrottle != null ? movementThrottle.getSkippedPackets() : 0;
+            this.movesSavedBytes = movementThrottle != null ? movementThrottle.getSavedBytes() : 0;
+
+            List<Map.Entry<String, SessionTrafficStats.PacketTraffic>> packets = new ArrayList<>();
+            for (SessionTrafficStats.Direction direction : SessionTrafficStats.Direction.values()) {
+                for (SessionTrafficStats.PacketTraffic traffic : stats.getTraffic(direction).values()) {
+                    packets.add(new AbstractMap.SimpleEntry<>(direction.name() + " " + traffic.getPacketClass().getSimpleName(), traffic));
+                }
+            }
+            packets.sort(Comparator.comparingLong((Map.Entry<String, SessionTrafficStats.PacketTraffic> entry) -> entry.getValue().getPackets()).reversed());
+            for (int i = 0; i < Math.min(PACKET_TYPES, packets.size()); i++) {
+                SessionTrafficStats.PacketTraffic traffic = packets.get(i).getValue();
+                this.packets.put(packets.get(i).getKey(), new long[] {traffic.getPackets(), traffic.getEstimatedBytes()});
+            }
+        }
+    }
+
+    @Getter
+    public static class CompressionInfo {
+        /**
+         * The amount of players using each compression level
+         */
+        private final int[] sessionsPerLevel = new int[AdaptiveCompression.MAX_LEVEL + 1];
+        /**
+         * Per level, the sampled raw bytes, compressed bytes and compression time in nanoseconds
+         */
+        private final long[][] samples = new long[AdaptiveCompression.MAX_LEVEL + 1][];
+
+        CompressionInfo() {
+            for (GeyserSession session : GeyserConnector.getInstance().getPlayers()) {
+                if (session.getAdaptiveCompression() != null) {
+                    sessionsPerLevel[session.getAdaptiveCompression().getLevel()]++;
+                }
+            }
+
+            AdaptiveCompression.CompressionStats stats = AdaptiveCompression.getStats();
+            for (int i = 0; i <= AdaptiveCompression.MAX_LEVEL; i++) {
+                samples[i] = new long[] {stats.getRawBytes(i), stats.getCompressedBytes(i), stats.getCompressionNanos(i)};
+            }
+        }
+    }
+
+    @Getter
+    public static class LoginInfo {
+        private final int queueSize;
+        private final LoginCryptoExecutor.LoginStats stats;
+
+        LoginInfo() {
+            LoginCryptoExecutor executor = GeyserConnector.getInstance().getLoginCryptoExecutor();
+            this.queueSize = executor.getQueueSize();
+            this.stats = executor.getStats();
+        }
+    }
 }
@@ -45,6 +45,7 @@ import org.geysermc.connector.entity.living.ArmorStandEntity;
 import org.geysermc.connector.entity.player.PlayerEntity;
 import org.geysermc.connector.entity.type.EntityType;
 import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.session.cache.EntityMovementThrottle;
 import org.geysermc.connector.network.translators.chat.MessageTranslator;
 import org.geysermc.connector.utils.MathUtils;
 
@@ -158,14 +159,9 @@ public class Entity {
         setOnGround(isOnGround);
         this.position = Vector3f.from(position.getX() + relX, position.getY() + relY, position.getZ() + relZ);
 
-        MoveEntityAbsolutePacket moveEntityPacket = new MoveEntityAbsolutePacket();
-        moveEntityPacket.setRuntimeEntityId(geyserId);
-        moveEntityPacket.setPosition(position);
-        moveEntityPacket.setRotation(getBedrockRotation());
-        moveEntityPacket.setOnGround(isOnGround);
-        moveEntityPacket.setTeleported(false);
-
-        session.sendUpstreamPacket(moveEntityPacket);
+        if (shouldSendMovement(session, false)) {
+            sendMovePacket(session, false);
+        }
     }
 
     public void moveAbsolute(GeyserSession session, Vector3f position, float yaw, float pitch, boolean isOnGround, boolean teleported) {
@@ -177,11 +173,34 @@ public class Entity {
         setRotation(rotation);
         setOnGround(isOnGround);
 
+        if (shouldSendMovement(session, teleported)) {
+            sendMovePacket(session, teleported);
+        }
+    }
+
+    /**
+     * Whether the current position should be sent to the client now. Entities that aren't spawned on the client
+     * get their position when they are, and far away entities may be held back by the {@link EntityMovementThrottle}.
+     *
+     * @param teleported whether this movement is a teleport
+     */
+    protected boolean shouldSendMovement(GeyserSession session, boolean teleported) {
+        if (!valid) {
+            return false;
+        }
+        EntityMovementThrottle movementThrottle = session.getEntityCache().getMovementThrottle();
+        return movementThrottle == null || movementThrottle.shouldSend(this, teleported);
+    }
+
+    /**
+     * Sends the current position and rotation of this entity to the client.
+     */
+    public void sendMovePacket(GeyserSession session, boolean teleported) {
         MoveEntityAbsolutePacket moveEntityPacket = new MoveEntityAbsolutePacket();
         moveEntityPacket.setRuntimeEntityId(geyserId);
         moveEntityPacket.setPosition(position);
         moveEntityPacket.setRotation(getBedrockRotation());
-        moveEntityPacket.setOnGround(isOnGround);
+        moveEntityPacket.setOnGround(onGround);
         moveEntityPacket.setTeleported(teleported);
 
         session.sendUpstreamPacket(moveEntityPacket);
@@ -197,6 +216,12 @@ public class Entity {
      */
     public void teleport(GeyserSession session, Vector3f position, float yaw, float pitch, boolean isOnGround) {
         moveAbsolute(session, position, yaw, pitch, isOnGround, false);
+
+        EntityMovementThrottle movementThrottle = session.getEntityCache().getMovementThrottle();
+        if (movementThrottle != null) {
+            // Teleports are never held back
+            movementThrottle.flush(this);
+        }
     }
 
     /**
@@ -66,7 +66,7 @@ public class ItemEntity extends ThrowableEntity {
 
     @Override
     public void tick(GeyserSession session) {
-        if (isInWater(session)) {
+        if (!valid || isInWater(session)) {
             return;
         }
         if (!onGround || (motion.getX() * motion.getX() + motion.getZ() * motion.getZ()) > 0.00001) {
@@ -117,7 +117,9 @@ public class ItemEntity extends ThrowableEntity {
         if (entityMetadata.getId() == 8) {
             item = ItemTranslator.translateToBedrock(session, (ItemStack) entityMetadata.getValue());
             despawnEntity(session);
-            spawnEntity(session);
+            if (!session.getEntityCache().isCulled(this)) {
+                spawnEntity(session);
+            }
         }
 
         super.updateBedrockMetadata(entityMetadata, session);
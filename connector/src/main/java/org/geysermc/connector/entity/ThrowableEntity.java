@@ -60,6 +60,13 @@ public class ThrowableEntity extends Entity implements Tickable {
     }
 
     protected void moveAbsoluteImmediate(GeyserSession session, Vector3f position, Vector3f rotation, boolean isOnGround, boolean teleported) {
+        if (!valid) {
+            setPosition(position);
+            setRotation(rotation);
+            setOnGround(isOnGround);
+            return;
+        }
+
         MoveEntityDeltaPacket moveEntityDeltaPacket = new MoveEntityDeltaPacket();
         moveEntityDeltaPacket.setRuntimeEntityId(geyserId);
 
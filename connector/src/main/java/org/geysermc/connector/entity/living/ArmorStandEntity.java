@@ -83,6 +83,10 @@ public class ArmorStandEntity extends LivingEntity {
         this.session = session;
         this.rotation = Vector3f.from(rotation.getX(), rotation.getX(), rotation.getX());
         super.spawnEntity(session);
+        if (secondEntity != null) {
+            // We were despawned by entity culling; bring the name tag back too
+            secondEntity.spawnEntity(session);
+        }
     }
 
     @Override
@@ -330,7 +334,9 @@ public class ArmorStandEntity extends LivingEntity {
             // No bounding box as we don't want to interact with this entity
             secondEntity.getMetadata().put(EntityData.BOUNDING_BOX_WIDTH, 0.0f);
             secondEntity.getMetadata().put(EntityData.BOUNDING_BOX_HEIGHT, 0.0f);
-            secondEntity.spawnEntity(session);
+            if (valid) {
+                secondEntity.spawnEntity(session);
+            }
 
             // Reset scale of the proper armor stand
             this.metadata.put(EntityData.SCALE, isSmall ? 0.55f : 1f);
@@ -430,6 +436,9 @@ public class ArmorStandEntity extends LivingEntity {
      * Updates position without calling movement code.
      */
     private void updatePosition() {
+        if (!valid) {
+            return;
+        }
         MoveEntityAbsolutePacket moveEntityPacket = new MoveEntityAbsolutePacket();
         moveEntityPacket.setRuntimeEntityId(geyserId);
         moveEntityPacket.setPosition(position);
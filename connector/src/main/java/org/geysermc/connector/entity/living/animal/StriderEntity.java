@@ -62,8 +62,8 @@ public class StriderEntity extends AnimalEntity {
         // Needs to copy the parent state
         if (metadata.getFlags().getFlag(EntityFlag.RIDING)) {
             boolean parentShaking = false;
-            for (Entity ent : session.getEntityCache().getEntities().values()) {
-                if (ent.getPassengers().contains(entityId) && ent instanceof StriderEntity) {
+            for (StriderEntity ent : session.getEntityCache().getEntitiesByType(StriderEntity.class)) {
+                if (ent.getPassengers().contains(entityId)) {
                     parentShaking = ent.getMetadata().getFlags().getFlag(EntityFlag.SHAKING);
                     break;
                 }
@@ -37,6 +37,7 @@ import com.nukkitx.protocol.bedrock.data.command.CommandPermission;
 import com.nukkitx.protocol.bedrock.data.entity.EntityData;
 import com.nukkitx.protocol.bedrock.data.entity.EntityFlag;
 import com.nukkitx.protocol.bedrock.data.entity.EntityLinkData;
+import com.nukkitx.protocol.bedrock.data.skin.SerializedSkin;
 import com.nukkitx.protocol.bedrock.packet.AddPlayerPacket;
 import com.nukkitx.protocol.bedrock.packet.MovePlayerPacket;
 import com.nukkitx.protocol.bedrock.packet.SetEntityLinkPacket;
@@ -71,6 +72,11 @@ public class PlayerEntity extends LivingEntity {
      * Saves the parrot currently on the player's right shoulder; otherwise null
      */
     private ParrotEntity rightParrot;
+    /**
+     * The skin last sent for this player. Skins are shared between sessions through the {@link org.geysermc.connector.skin.SkinStore},
+     * which only holds them weakly, so this keeps the skin around for as long as the player is.
+     */
+    private SerializedSkin serializedSkin;
 
     public PlayerEntity(GameProfile gameProfile, long entityId, long geyserId, Vector3f position, Vector3f motion, Vector3f rotation) {
         super(entityId, geyserId, EntityType.PLAYER, position, motion, rotation);
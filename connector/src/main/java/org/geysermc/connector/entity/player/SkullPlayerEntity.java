@@ -27,7 +27,6 @@ package org.geysermc.connector.entity.player;
 
 import com.github.steveice10.mc.auth.data.GameProfile;
 import com.nukkitx.math.vector.Vector3f;
-import com.nukkitx.math.vector.Vector3i;
 import com.nukkitx.protocol.bedrock.data.PlayerPermission;
 import com.nukkitx.protocol.bedrock.data.command.CommandPermission;
 import com.nukkitx.protocol.bedrock.data.entity.EntityData;
@@ -88,9 +87,4 @@ public class SkullPlayerEntity extends PlayerEntity {
         valid = true;
         session.sendUpstreamPacket(addPlayerPacket);
     }
-
-    public void despawnEntity(GeyserSession session, Vector3i position) {
-        this.despawnEntity(session);
-        session.getSkullCache().remove(position, this);
-    }
 }
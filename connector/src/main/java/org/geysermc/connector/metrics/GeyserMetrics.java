@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.metrics;
+
+import com.google.common.cache.CacheStats;
+import lombok.Getter;
+import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.network.ConnectorServerEventHandler;
+import org.geysermc.connector.network.JoinAdmissionController;
+import org.geysermc.connector.network.session.AdaptiveCompression;
+import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.session.auth.LoginCryptoExecutor;
+import org.geysermc.connector.network.session.cache.EntityInterestManager;
+import org.geysermc.connector.network.session.cache.EntityMovementThrottle;
+import org.geysermc.connector.network.session.cache.SkinDeliveryScheduler;
+import org.geysermc.connector.ping.GeyserLegacyPingPassthrough;
+import org.geysermc.connector.ping.IGeyserPingPassthrough;
+import org.geysermc.connector.skin.SkinProvider;
+import org.geysermc.connector.skin.SkinStore;
+import org.geysermc.connector.utils.BiomeUtils;
+import org.geysermc.connector.utils.LoginEncryptionUtils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+/**
+ * The metrics Geyser keeps about itself, exported through {@code metrics-endpoint}. Not to be confused with
+ * {@link Metrics}, which sends anonymous usage statistics to bStats.
+ * <p>
+ * Anything on a hot path should check {@link #isEnabled()} before recording, so the only cost with the endpoint
+ * turned off is that check.
+ */
+@Getter
+public class GeyserMetrics {
+    private final MetricsRegistry registry = new MetricsRegistry();
+    private final boolean enabled;
+
+    private final Counter bedrockPacketsReceived;
+    private final Counter bedrockBytesReceived;
+    private final Counter bedrockPacketsSent;
+    private final Counter javaPacketsReceived;
+    private final Counter javaPacketsSent;
+
+    /**
+     * Time spent translating a single Java packet on the downstream event loop
+     */
+    private final Histogram javaTranslationTime;
+    /**
+     * Time spent converting and encoding one chunk column for Bedrock
+     */
+    private final Histogram chunkEncodeTime;
+
+    private final Counter skinDownloads;
+
+    public GeyserMetrics(GeyserConnector connector, boolean enabled) {
+        this.enabled = enabled;
+
+        registry.gauge("geyser_sessions", "Bedrock players that are currently connected", connector.getSessionRegistry()::size);
+
+        String packetsHelp = "Packets sent and received, by connection and direction";
+        this.bedrockPacketsReceived = registry.counter("geyser_packets_total", packetsHelp, "connection", "bedrock", "direction", "received");
+        this.bedrockPacketsSent = registry.counter("geyser_packets_total", packetsHelp, "connection", "bedrock", "direction", "sent");
+        this.javaPacketsReceived = registry.counter("geyser_packets_total", packetsHelp, "connection", "java", "direction", "received");
+        this.javaPacketsSent = registry.counter("geyser_packets_total", packetsHelp, "connection", "java", "direction", "sent");
+        this.bedrockBytesReceived = registry.counter("geyser_bedrock_received_bytes_total", "Compressed bytes received from Bedrock players");
+
+        this.javaTranslationTime = registry.timer("geyser_java_translation_seconds", "Time spent translating a Java packet");
+        this.chunkEncodeTime = registry.timer("geyser_chunk_encode_seconds", "Time spent converting and encoding a chunk column");
+
+        this.skinDownloads = registry.counter("geyser_skin_downloads_total", "Skin, cape and ears images downloaded");
+
+        // Queues
+        String queueHelp = "Tasks or players waiting in a queue";
+        registry.gauge("geyser_queue_size", queueHelp, () -> connector.getLoginCryptoExecutor().getQueueSize(), "queue", "login");
+        registry.gauge("geyser_queue_size", queueHelp, () -> connector.getJoinAdmissionController().getQueueSize(), "queue", "join");
+        ExecutorService generalThreadPool = connector.getGeneralThreadPool();
+        if (generalThreadPool instanceof ThreadPoolExecutor) {
+            registry.gauge("geyser_queue_size", queueHelp, () -> ((ThreadPoolExecutor) generalThreadPool).getQueue().size(), "queue", "general");
+        }
+
+        // Logins and joins
+        LoginCryptoExecutor.LoginStats loginStats = connector.getLoginCryptoExecutor().getStats();
+        registry.counter("geyser_logins_rejected_total", "Logins turned away because the login queue was full", () -> loginStats.getRejected().sum());
+        registry.timer("geyser_login_queue_seconds", "Time spent waiting for a login thread", loginStats::getQueueTime);
+        registry.timer("geyser_login_verify_seconds", "Time spent verifying a login", loginStats::getVerifyTime);
+
+        JoinAdmissionController admission = connector.getJoinAdmissionController();
+        registry.counter("geyser_joins_admitted_total", "Players let through the join queue", () -> admission.getAdmitted().sum());
+        registry.counter("geyser_joins_refused_total", "Players refused because the join queue was full", () -> admission.getRefused().sum());
+
+        // Pings; the event handler and ping passthrough are created after this
+        Supplier<ConnectorServerEventHandler.PingStats> pingStats = () -> connector.getServerEventHandler().getStats();
+        registry.counter("geyser_pings_total", "Server list pings received", () -> pingStats.get().getPings());
+        registry.counter("geyser_pings_rate_limited_total", "Server list pings not answered because of the rate limit", () -> pingStats.get().getRateLimitedPings());
+        registry.counter("geyser_pong_rebuilds_total", "Server list pings that could not use the cached pong", () -> pingStats.get().getPongRebuilds());
+        registry.counter("geyser_connections_refused_total", "Connection requests refused by the proxy whitelist or join queue", () -> pingStats.get().getRefusedConnections());
+
+        Supplier<GeyserLegacyPingPassthrough.PingPassthroughStats> passthroughStats = () -> {
+            IGeyserPingPassthrough pingPassthrough = connector.getBootstrap().getGeyserPingPassthrough();
+            return pingPassthrough instanceof GeyserLegacyPingPassthrough ? ((GeyserLegacyPingPassthrough) pingPassthrough).getStats() : null;
+        };
+        registry.counter("geyser_ping_passthrough_total", "Pings of the Java server for ping passthrough, by result",
+                () -> passthroughStats.get() == null ? 0 : passthroughStats.get().getSuccesses(), "result", "success");
+        registry.counter("geyser_ping_passthrough_total", "Pings of the Java server for ping passthrough, by result",
+                () -> passthroughStats.get() == null ? 0 : passthroughStats.get().getFailures(), "result", "failure");
+        registry.timer("geyser_ping_passthrough_seconds", "Time taken to ping the Java server for ping passthrough",
+                () -> passthroughStats.get() == null ? null : passthroughStats.get().getLatency());
+
+        // Adaptive compression
+        if (connector.getConfig().getBedrock().isAdaptiveCompression()) {
+            AdaptiveCompression.CompressionStats compressionStats = AdaptiveCompression.getStats();
+            for (int i = 0; i <= AdaptiveCompression.MAX_LEVEL; i++) {
+                int level = i;
+                String levelLabel = Integer.toString(level);
+                registry.gauge("geyser_compression_sessions", "Players using each compression level", () -> {
+                    int sessions = 0;
+                    for (GeyserSession session : connector.getPlayers()) {
+                        if (session.getAdaptiveCompression() != null && session.getAdaptiveCompression().getLevel() == level) {
+                            sessions++;
+                        }
+                    }
+                    return sessions;
+                }, "level", levelLabel);
+                registry.counter("geyser_compression_sample_bytes_total", "Size of the sampled chunks before and after compression",
+                        () -> compressionStats.getRawBytes(level), "level", levelLabel, "stage", "raw");
+                registry.counter("geyser_compression_sample_bytes_total", "Size of the sampled chunks before and after compression",
+                        () -> compressionStats.getCompressedBytes(level), "level", levelLabel, "stage", "compressed");
+                registry.counter("geyser_compression_sample_nanoseconds_total", "Time spent compressing the sampled chunks",
+                        () -> compressionStats.getCompressionNanos(level), "level", levelLabel);
+            }
+        }
+
+        // Entity culling
+        if (connector.getConfig().getEntityCullingDistance() > 0) {
+            EntityInterestManager.CullingStats cullingStats = EntityInterestManager.getStats();
+            registry.gauge("geyser_culled_entities", "Entities currently hidden from players because they are too far away", () -> {
+                int culled = 0;
+                for (GeyserSession session : connector.getPlayers()) {
+                    EntityInterestManager interestManager = session.getEntityCache().getInterestManager();
+                    if (interestManager != null) {
+                        culled += interestManager.getCulledCount();
+                    }
+                }
+                return culled;
+            });
+            registry.counter("geyser_entity_culling_total", "Entities hidden from or shown to players because of their distance",
+                    cullingStats::getCulled, "action", "hide");
+            registry.counter("geyser_entity_culling_total", "Entities hidden from or shown to players because of their distance",
+                    cullingStats::getShown, "action", "show");
+        }
+
+        // Entity movement throttling
+        if (connector.getConfig().getEntityMovementThrottling().isEnabled()) {
+            registry.counter("geyser_entity_moves_skipped_total", "Entity movement updates replaced by a newer one before being sent",
+                    EntityMovementThrottle::getTotalSkippedPackets);
+            registry.counter("geyser_entity_moves_saved_bytes_total", "Estimated bytes saved by skipping entity movement updates",
+                    EntityMovementThrottle::getTotalSavedBytes);
+        }
+
+        // Skin delivery
+        registry.gauge("geyser_pending_skin_bytes", "Size of the skins waiting to be sent to players", () -> {
+            long pendingBytes = 0;
+            for (GeyserSession session : connector.getPlayers()) {
+                pendingBytes += session.getSkinDeliveryScheduler().getPendingBytes();
+            }
+            return pendingBytes;
+        });
+        registry.gauge("geyser_pending_skins", "Skins waiting to be sent to players", () -> {
+            int pendingSkins = 0;
+            for (GeyserSession session : connector.getPlayers()) {
+                pendingSkins += session.getSkinDeliveryScheduler().getPendingSkins();
+            }
+            return pendingSkins;
+        });
+        registry.counter("geyser_skins_sent_total", "Player skins sent to players", SkinDeliveryScheduler::getTotalSentSkins);
+        registry.counter("geyser_skin_bytes_sent_total", "Size of the player skins sent to players", SkinDeliveryScheduler::getTotalSentBytes);
+
+        // Caches
+        registerCache("skins", SkinProvider::getSkinCacheStats);
+        registerCache("capes", SkinProvider::getCapeCacheStats);
+        registerCache("shared_skins", SkinStore::getCacheStats);
+        registry.gauge("geyser_shared_skins", "Distinct skins shared between all players", () -> SkinStore.getStats().getSkins());
+        registry.gauge("geyser_shared_skin_bytes", "Size of the images and geometry of all shared skins", () -> SkinStore.getStats().getBytes());
+        registerCache("biome_sections", BiomeUtils::getEncodedSectionCacheStats);
+        registerCache("verified_certificates", LoginEncryptionUtils::getVerifiedCertificateCacheStats);
+    }
+
+    private void registerCache(String cache, Supplier<CacheStats> stats) {
+        registry.counter("geyser_cache_hits_total", "Cache lookups that found an entry", () -> stats.get().hitCount(), "cache", cache);
+        registry.counter("geyser_cache_misses_total", "Cache lookups that found nothing", () -> stats.get().missCount(), "cache", cache);
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Holds named metrics and writes them out in the Prometheus text exposition format.
+ * <p>
+ * Registering is synchronized, but is only done on startup; updating a metric never takes a lock.
+ */
+public class MetricsRegistry {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final double NANOS_PER_SECOND = 1_000_000_000D;
+
+    private final Map<String, Family> families = new LinkedHashMap<>();
+
+    /**
+     * @param labels label names and values, alternating
+     */
+    public synchronized Counter counter(String name, String help, String... labels) {
+        Counter counter = new Counter();
+        counter(name, help, counter::get, labels);
+        return counter;
+    }
+
+    /**
+     * Registers a counter whose value is kept somewhere else.
+     */
+    public synchronized void counter(String name, String help, LongSupplier value, String... labels) {
+        family(name, help, "counter").add(formatLabels(labels), (builder, labelText) ->
+                builder.append(name).append(labelText).append(' ').append(value.getAsLong()).append('\n'));
+    }
+
+    public synchronized void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, "gauge").add(formatLabels(labels), (builder, labelText) ->
+                builder.append(name).append(labelText).append(' ').append(value.getAsDouble()).append('\n'));
+    }
+
+    /**
+     * Registers a histogram of durations. Values are recorded in nanoseconds, and are exported in seconds as
+     * a summary with a few quantiles.
+     */
+    public synchronized Histogram timer(String name, String help, String... labels) {
+        Histogram histogram = new Histogram();
+        timer(name, help, () -> histogram, labels);
+        return histogram;
+    }
+
+    /**
+     * Registers a histogram of durations that is kept somewhere else. Nothing is exported while the supplier
+     * returns null.
+     */
+    public synchronized void timer(String name, String help, Supplier<Histogram> value, String... labels) {
+        family(name, help, "summary").add(formatLabels(labels), (builder, labelText) -> {
+            Histogram histogram = value.get();
+            if (histogram == null) {
+                return;
+            }
+            for (double quantile : QUANTILES) {
+                builder.append(name).append(formatLabels(labels, "quantile", Double.toString(quantile))).append(' ')
+                        .append(histogram.getValueAtQuantile(quantile) / NANOS_PER_SECOND).append('\n');
+            }
+            builder.append(name).append("_sum").append(labelText).append(' ').append(histogram.getSum() / NANOS_PER_SECOND).append('\n');
+            builder.append(name).append("_count").append(labelText).append(' ').append(histogram.getCount()).append('\n');
+        });
+    }
+
+    /**
+     * @return all metrics in the Prometheus text exposition format, version 0.0.4
+     */
+    public String scrape() {
+        List<Family> families;
+        synchronized (this) {
+            families = new ArrayList<>(this.families.values());
+        }
+
+        StringBuilder builder = new StringBuilder(8192);
+        for (Family family : families) {
+            builder.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+            builder.append("# TYPE ").append(family.name).append(' ').append(family.type).append('\n');
+            for (Sample sample : family.samples) {
+                sample.writer.write(builder, sample.labels);
+            }
+        }
+        return builder.toString();
+    }
+
+    private Family family(String name, String help, String type) {
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException(name + " is already registered as a " + family.type);
+        }
+        return family;
+    }
+
+    private static String formatLabels(String[] labels, String... extra) {
+        if (labels.length % 2 != 0 || extra.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be given as name and value pairs");
+        }
+        if (labels.length == 0 && extra.length == 0) {
+            return "";
+        }
+
+        StringBuilder builder = new StringBuilder("{");
+        appendLabels(builder, labels);
+        if (labels.length != 0 && extra.length != 0) {
+            builder.append(',');
+        }
+        appendLabels(builder, extra);
+        return builder.append('}').toString();
+    }
+
+    private static void appendLabels(StringBuilder builder, String[] labels) {
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i != 0) {
+                builder.append(',');
+            }
+            builder.append(labels[i]).append("=\"")
+                    .append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                    .append('"');
+        }
+    }
+
+    private static final class Family {
+        private final String name;
+        private final String help;
+        private final String type;
+        private final List<Sample> samples = new ArrayList<>();
+
+        private Family(String name, String help, String type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+
+        private void add(String labels, SampleWriter writer) {
+            samples.add(new Sample(labels, writer));
+        }
+    }
+
+    private static final class Sample {
+        private final String labels;
+        private final SampleWriter writer;
+
+        private Sample(String labels, SampleWriter writer) {
+            this.labels = labels;
+            this.writer = writer;
+        }
+    }
+
+    @FunctionalInterface
+    private interface SampleWriter {
+        void write(StringBuilder builder, String labels);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.network;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collection;
+
+/**
+ * A set of CIDR ranges, stored as a binary trie over the address bits.
+ * <p>
+ * Unlike checking a list of {@link CIDRMatcher}s, a lookup costs at most one step per address bit (32 for IPv4,
+ * 128 for IPv6) regardless of how many ranges are in the set, which matters when every incoming packet of a
+ * connection flood has to be checked against it.
+ */
+public final class CIDRSet {
+    private final Node ipv4Root = new Node();
+    private final Node ipv6Root = new Node();
+    private boolean empty = true;
+
+    public CIDRSet(Collection<String> ranges) {
+        for (String range : ranges) {
+            add(range);
+        }
+    }
+
+    private void add(String range) {
+        String[] split = range.split("/", 2);
+
+        InetAddress address;
+        try {
+            address = InetAddress.getByName(split[0]);
+        } catch (UnknownHostException e) {
+            throw new RuntimeException(e);
+        }
+
+        byte[] bytes = address.getAddress();
+        int maxBits = bytes.length * 8;
+        int prefixLength = split.length == 2 ? Integer.parseInt(split[1].trim()) : maxBits;
+        if (prefixLength < 0 || prefixLength > maxBits) {
+            throw new IllegalArgumentException("Invalid prefix length in " + range);
+        }
+
+        Node node = address instanceof Inet4Address ? ipv4Root : ipv6Root;
+        for (int i = 0; i < prefixLength && !node.terminal; i++) {
+            int bit = bit(bytes, i);
+            if (node.children[bit] == null) {
+                node.children[bit] = new Node();
+            }
+            node = node.children[bit];
+        }
+        node.terminal = true;
+        // Anything below this node is already covered
+        node.children[0] = null;
+        node.children[1] = null;
+        empty = false;
+    }
+
+    /**
+     * @param address the address to check
+     * @return true if the address is inside any of the ranges of this set
+     */
+    public boolean contains(InetAddress address) {
+        byte[] bytes = address.getAddress();
+        Node node = address instanceof Inet4Address ? ipv4Root : ipv6Root;
+        int bits = bytes.length * 8;
+        for (int i = 0; i < bits; i++) {
+            if (node.terminal) {
+                return true;
+            }
+            node = node.children[bit(bytes, i)];
+            if (node == null) {
+                return false;
+            }
+        }
+        return node.terminal;
+    }
+
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    private static int bit(byte[] bytes, int index) {
+        return (bytes[index >>> 3] >>> (7 - (index & 7))) & 1;
+    }
+
+    private static final class Node {
+        private final Node[] children = new Node[2];
+        private boolean terminal;
+    }
+}
@@ -25,22 +25,33 @@
 
 package org.geysermc.connector.network;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.nukkitx.protocol.bedrock.BedrockPacket;
 import com.nukkitx.protocol.bedrock.BedrockPong;
 import com.nukkitx.protocol.bedrock.BedrockServerEventHandler;
 import com.nukkitx.protocol.bedrock.BedrockServerSession;
+import com.nukkitx.protocol.bedrock.handler.DefaultBatchHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.socket.DatagramPacket;
+import lombok.Getter;
 import org.geysermc.connector.GeyserConnector;
 import org.geysermc.connector.common.ping.GeyserPingInfo;
 import org.geysermc.connector.configuration.GeyserConfiguration;
+import org.geysermc.connector.metrics.GeyserMetrics;
 import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.session.SessionTrafficStats;
 import org.geysermc.connector.network.translators.chat.MessageTranslator;
 import org.geysermc.connector.ping.IGeyserPingPassthrough;
 import org.geysermc.connector.utils.LanguageUtils;
 
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
-import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 public class ConnectorServerEventHandler implements BedrockServerEventHandler {
     /*
@@ -55,34 +66,69 @@ public class ConnectorServerEventHandler implements BedrockServerEventHandler {
 
     private final GeyserConnector connector;
 
+    /**
+     * The last pong we sent, reused for as long as the information it was built from stays the same
+     */
+    private volatile CachedPong cachedPong;
+    /**
+     * Pings per address in the current second. Entries expire one second after being created, which resets the count.
+     * Null if pings are not rate limited.
+     */
+    private final Cache<InetAddress, AtomicInteger> pingsPerAddress;
+    private final int maxPingsPerAddress;
+
+    @Getter
+    private final PingStats stats = new PingStats();
+
     public ConnectorServerEventHandler(GeyserConnector connector) {
         this.connector = connector;
+        this.maxPingsPerAddress = connector.getConfig().getMaxPingsPerSecondPerAddress();
+        if (maxPingsPerAddress > 0) {
+            this.pingsPerAddress = CacheBuilder.newBuilder()
+                    .expireAfterWrite(1, TimeUnit.SECONDS)
+                    .maximumSize(65536)
+                    .build();
+        } else {
+            this.pingsPerAddress = null;
+        }
     }
 
     @Override
     public boolean onConnectionRequest(InetSocketAddress inetSocketAddress) {
-        List<String> allowedProxyIPs = connector.getConfig().getBedrock().getProxyProtocolWhitelistedIPs();
-        if (connector.getConfig().getBedrock().isEnableProxyProtocol() && !allowedProxyIPs.isEmpty()) {
-            boolean isWhitelistedIP = false;
-            for (CIDRMatcher matcher : connector.getConfig().getBedrock().getWhitelistedIPsMatchers()) {
-                if (matcher.matches(inetSocketAddress.getAddress())) {
-                    isWhitelistedIP = true;
-                    break;
-                }
-            }
-
-            if (!isWhitelistedIP) {
+        GeyserConfiguration.IBedrockConfiguration bedrockConfig = connector.getConfig().getBedrock();
+        if (bedrockConfig.isEnableProxyProtocol()) {
+            CIDRSet allowedProxyIPs = bedrockConfig.getWhitelistedIPsSet();
+            if (!allowedProxyIPs.isEmpty() && !allowedProxyIPs.contains(inetSocketAddress.getAddress())) {
+                stats.refusedConnections.increment();
                 return false;
             }
         }
 
+        if (!connector.getJoinAdmissionController().canAcceptConnection()) {
+            stats.refusedConnections.increment();
+            connector.getLogger().debug("Refusing connection from " + inetSocketAddress + " as the join queue is full");
+            return false;
+        }
+
         connector.getLogger().info(LanguageUtils.getLocaleStringLog("geyser.network.attempt_connect", inetSocketAddress));
         return true;
     }
 
     @Override
     public BedrockPong onQuery(InetSocketAddress inetSocketAddress) {
-        connector.getLogger().debug(LanguageUtils.getLocaleStringLog("geyser.network.pinged", inetSocketAddress));
+        stats.pings.increment();
+        if (pingsPerAddress != null) {
+            AtomicInteger pings = pingsPerAddress.asMap().computeIfAbsent(inetSocketAddress.getAddress(), address -> new AtomicInteger());
+            if (pings.incrementAndGet() > maxPingsPerAddress) {
+                // No pong is sent at all, so a flood from one address costs us as little as possible
+                stats.rateLimitedPings.increment();
+                return null;
+            }
+        }
+
+        if (connector.getLogger().isDebug()) {
+            connector.getLogger().debug(LanguageUtils.getLocaleStringLog("geyser.network.pinged", inetSocketAddress));
+        }
 
         GeyserConfiguration config = connector.getConfig();
 
@@ -91,7 +137,23 @@ public class ConnectorServerEventHandler implements BedrockServerEventHandler {
             IGeyserPingPassthrough pingPassthrough = connector.getBootstrap().getGeyserPingPassthrough();
             pingInfo = pingPassthrough.getPingInformation(inetSocketAddress);
         }
+        int playerCount = config.isPassthroughPlayerCounts() && pingInfo != null ? -1 : connector.getSessionRegistry().size();
+
+        CachedPong cachedPong = this.cachedPong;
+        if (cachedPong != null && cachedPong.playerCount == playerCount && Objects.equals(cachedPong.pingInfo, pingInfo)) {
+            return cachedPong.pong;
+        }
 
+        stats.pongRebuilds.increment();
+        BedrockPong pong = buildPong(config, pingInfo, playerCount);
+        this.cachedPong = new CachedPong(pingInfo, playerCount, pong);
+        return pong;
+    }
+
+    /**
+     * @param playerCount the amount of players to show, or -1 if the player counts are taken from the ping information
+     */
+    private BedrockPong buildPong(GeyserConfiguration config, GeyserPingInfo pingInfo, int playerCount) {
         BedrockPong pong = new BedrockPong();
         pong.setEdition("MCPE");
         pong.setGameType("Survival"); // Can only be Survival or Creative as of 1.16.210.59
@@ -112,11 +174,11 @@ public class ConnectorServerEventHandler implements BedrockServerEventHandler {
             pong.setSubMotd(config.getBedrock().getMotd2());
         }
 
-        if (config.isPassthroughPlayerCounts() && pingInfo != null) {
+        if (playerCount == -1) {
             pong.setPlayerCount(pingInfo.getPlayers().getOnline());
             pong.setMaximumPlayerCount(pingInfo.getPlayers().getMax());
         } else {
-            pong.setPlayerCount(connector.getPlayers().size());
+            pong.setPlayerCount(playerCount);
             pong.setMaximumPlayerCount(config.getMaxPlayers());
         }
 
@@ -160,7 +222,24 @@ public class ConnectorServerEventHandler implements BedrockServerEventHandler {
     public void onSessionCreation(BedrockServerSession bedrockServerSession) {
         bedrockServerSession.setLogging(true);
         bedrockServerSession.setCompressionLevel(connector.getConfig().getBedrock().getCompressionLevel());
-        bedrockServerSession.setPacketHandler(new UpstreamPacketHandler(connector, new GeyserSession(connector, bedrockServerSession)));
+        GeyserSession session = new GeyserSession(connector, bedrockServerSession);
+        bedrockServerSession.setPacketHandler(new UpstreamPacketHandler(connector, session));
+        GeyserMetrics metrics = connector.getGeyserMetrics();
+        SessionTrafficStats trafficStats = session.getTrafficStats();
+        if (metrics.isEnabled() || trafficStats != null) {
+            bedrockServerSession.setBatchHandler((bedrockSession, compressed, packets) -> {
+                if (metrics.isEnabled()) {
+                    metrics.getBedrockBytesReceived().add(compressed.readableBytes());
+                    metrics.getBedrockPacketsReceived().add(packets.size());
+                }
+                if (trafficStats != null) {
+                    for (BedrockPacket packet : packets) {
+                        trafficStats.recordBedrockPacket(SessionTrafficStats.Direction.BEDROCK_IN, packet, bedrockSession);
+                    }
+                }
+                DefaultBatchHandler.INSTANCE.handle(bedrockSession, compressed, packets);
+            });
+        }
         // Set the packet codec to default just in case we need to send disconnect packets.
         bedrockServerSession.setPacketCodec(BedrockProtocol.DEFAULT_BEDROCK_CODEC);
     }
@@ -169,4 +248,48 @@ public class ConnectorServerEventHandler implements BedrockServerEventHandler {
     public void onUnhandledDatagram(ChannelHandlerContext ctx, DatagramPacket packet) {
         new QueryPacketHandler(connector, packet.sender(), packet.content());
     }
+
+    private static final class CachedPong {
+        private final GeyserPingInfo pingInfo;
+        private final int playerCount;
+        private final BedrockPong pong;
+
+        private CachedPong(GeyserPingInfo pingInfo, int playerCount, BedrockPong pong) {
+            this.pingInfo = pingInfo;
+            this.playerCount = playerCount;
+            this.pong = pong;
+        }
+    }
+
+    public static class PingStats {
+        private final LongAdder pings = new LongAdder();
+        private final LongAdder rateLimitedPings = new LongAdder();
+        private final LongAdder pongRebuilds = new LongAdder();
+        private final LongAdder refusedConnections = new LongAdder();
+
+        public long getPings() {
+            return pings.sum();
+        }
+
+        /**
+         * @return how many pings were not answered because their address went over the ping rate limit
+         */
+        public long getRateLimitedPings() {
+            return rateLimitedPings.sum();
+        }
+
+        /**
+         * @return how many pings could not use the cached pong, as the MOTD or player counts had changed
+         */
+        public long getPongRebuilds() {
+            return pongRebuilds.sum();
+        }
+
+        /**
+         * @return how many connection requests were refused by the proxy whitelist or the join queue
+         */
+        public long getRefusedConnections() {
+            return refusedConnections.sum();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.network;
+
+import com.nukkitx.protocol.bedrock.packet.SetTitlePacket;
+import lombok.Getter;
+import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.configuration.GeyserConfiguration;
+import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.utils.CpuUtils;
+
+import java.util.Iterator;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits how quickly Bedrock players can start connecting to the Java server.
+ * <p>
+ * After a backend restart, every player reconnects at once, and each join costs a downstream connection, recipe and
+ * command translation and a flood of chunks. Joins are released from a queue at a configurable rate, which is
+ * lowered while the Geyser process is using a lot of CPU. Queued players are shown their position in the queue.
+ */
+public class JoinAdmissionController {
+    private static final long TICK_MILLIS = 50;
+    private static final long POSITION_UPDATE_NANOS = TimeUnit.SECONDS.toNanos(1);
+    /**
+     * The factor the join rate is multiplied with while CPU usage is above the threshold
+     */
+    private static final double OVERLOADED_RATE_FACTOR = 0.25;
+
+    private final GeyserConnector connector;
+    private final double joinsPerSecond;
+    private final double cpuThreshold;
+    private final int maxQueueSize;
+
+    private final LinkedBlockingQueue<QueuedJoin> queue = new LinkedBlockingQueue<>();
+    private ScheduledFuture<?> drainFuture;
+
+    // Only accessed from the drain task
+    private double tokens;
+    private long lastDrain;
+    private long lastPositionUpdate;
+
+    @Getter
+    private final LongAdder admitted = new LongAdder();
+    @Getter
+    private final LongAdder refused = new LongAdder();
+    @Getter
+    private volatile boolean throttled;
+
+    public JoinAdmissionController(GeyserConnector connector) {
+        this.connector = connector;
+        GeyserConfiguration.IJoinAdmissionConfiguration config = connector.getConfig().getJoinAdmission();
+        this.joinsPerSecond = config.getJoinsPerSecond();
+        this.cpuThreshold = config.getCpuThreshold() / 100D;
+        this.maxQueueSize = config.getMaxQueueSize();
+        this.tokens = joinsPerSecond;
+    }
+
+    public boolean isEnabled() {
+        return joinsPerSecond > 0;
+    }
+
+    public void start() {
+        if (isEnabled()) {
+            lastDrain = System.nanoTime();
+            drainFuture = connector.getGeneralThreadPool().scheduleAtFixedRate(this::drain, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void shutdown() {
+        if (drainFuture != null) {
+            drainFuture.cancel(false);
+        }
+        queue.clear();
+    }
+
+    /**
+     * @return false if the queue is full and new Bedrock connections should be turned away
+     */
+    public boolean canAcceptConnection() {
+        if (isEnabled() && maxQueueSize > 0 && queue.size() >= maxQueueSize) {
+            refused.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Starts the join right away if the queue is disabled, or queues it until it is this session's turn. A session
+     * that is already queued keeps its place.
+     *
+     * @param session the session that wants to join
+     * @param join connects the session to the Java server
+     */
+    public void admit(GeyserSession session, Runnable join) {
+        if (!isEnabled()) {
+            admitted.increment();
+            startJoin(session, join);
+            return;
+        }
+        if (session.getJoinQueued().compareAndSet(false, true)) {
+            queue.add(new QueuedJoin(session, join));
+        }
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private void drain() {
+        try {
+            long now = System.nanoTime();
+            double rate = joinsPerSecond;
+            double cpuLoad = CpuUtils.getProcessCpuLoad();
+            throttled = cpuThreshold > 0 && cpuLoad >= cpuThreshold;
+            if (throttled) {
+                rate *= OVERLOADED_RATE_FACTOR;
+            }
+
+            // Allow a burst of up to one second worth of joins
+            tokens = Math.min(Math.max(1, joinsPerSecond), tokens + (now - lastDrain) / 1_000_000_000D * rate);
+            lastDrain = now;
+
+            QueuedJoin next;
+            while (tokens >= 1 && (next = queue.poll()) != null) {
+                next.session.getJoinQueued().set(false);
+                if (next.session.isClosed()) {
+                    continue;
+                }
+                tokens--;
+                admitted.increment();
+                startJoin(next.session, next.join);
+            }
+
+            if (now - lastPositionUpdate >= POSITION_UPDATE_NANOS) {
+                lastPositionUpdate = now;
+                sendQueuePositions();
+            }
+        } catch (Throwable t) {
+            connector.getLogger().error("Error while processing the join queue", t);
+        }
+    }
+
+    /**
+     * Connecting blocks until the Java server answers, so joins are run on the general thread pool instead of holding
+     * up the queue.
+     */
+    private void startJoin(GeyserSession session, Runnable join) {
+        connector.getGeneralThreadPool().execute(() -> {
+            try {
+                join.run();
+            } catch (Throwable t) {
+                connector.getLogger().error("Error while admitting " + session.getName(), t);
+            }
+        });
+    }
+
+    private void sendQueuePositions() {
+        int size = queue.size();
+        int position = 0;
+        Iterator<QueuedJoin> it = queue.iterator();
+        while (it.hasNext()) {
+            QueuedJoin queuedJoin = it.next();
+            if (queuedJoin.session.isClosed()) {
+                it.remove();
+                continue;
+            }
+            position++;
+
+            SetTitlePacket titlePacket = new SetTitlePacket();
+            titlePacket.setType(SetTitlePacket.Type.ACTIONBAR);
+            titlePacket.setText("You are in position " + position + " of " + size + " in the queue");
+            titlePacket.setFadeInTime(0);
+            titlePacket.setFadeOutTime(0);
+            titlePacket.setStayTime(30);
+            titlePacket.setXuid("");
+            titlePacket.setPlatformOnlineId("");
+            queuedJoin.session.sendUpstreamPacket(titlePacket);
+        }
+    }
+
+    private static final class QueuedJoin {
+        private final GeyserSession session;
+        private final Runnable join;
+
+        private QueuedJoin(GeyserSession session, Runnable join) {
+            this.session = session;
+            this.join = join;
+        }
+    }
+}
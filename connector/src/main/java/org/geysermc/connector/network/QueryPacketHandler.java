@@ -158,7 +158,7 @@ public class QueryPacketHandler {
             currentPlayerCount = String.valueOf(pingInfo.getPlayers().getOnline());
             maxPlayerCount = String.valueOf(pingInfo.getPlayers().getMax());
         } else {
-            currentPlayerCount = String.valueOf(connector.getPlayers().size());
+            currentPlayerCount = String.valueOf(connector.getSessionRegistry().size());
             maxPlayerCount = String.valueOf(connector.getConfig().getMaxPlayers());
         }
 
@@ -74,8 +74,33 @@ public class UpstreamPacketHandler extends LoggingPacketHandler {
         session.setBlockMappings(BlockRegistries.BLOCKS.forVersion(loginPacket.getProtocolVersion()));
         session.setItemMappings(Registries.ITEMS.forVersion(loginPacket.getProtocolVersion()));
 
-        LoginEncryptionUtils.encryptPlayerConnection(connector, session, loginPacket);
+        // Chain verification and the encryption handshake are too expensive to run on the network thread, but the
+        // rest of the login goes back to it so encryption and outgoing packets stay in order
+        connector.getLoginCryptoExecutor().submit(session, () -> LoginEncryptionUtils.encryptPlayerConnection(connector, session, loginPacket))
+                .whenCompleteAsync((verifiedLogin, throwable) -> {
+                    if (throwable != null) {
+                        connector.getLogger().error("Unable to complete login", throwable);
+                        if (!session.isClosed()) {
+                            session.disconnect("disconnectionScreen.internalError.cantConnect");
+                        }
+                        return;
+                    }
+                    if (session.isClosed()) {
+                        return;
+                    }
+                    if (verifiedLogin == null) {
+                        // We were not admitted to the login pool
+                        session.disconnect("disconnectionScreen.serverFull");
+                        return;
+                    }
+                    if (verifiedLogin.complete(session)) {
+                        sendResourcePacksInfo();
+                    }
+                }, session.getUpstream().getSession().getEventLoop());
+        return true;
+    }
 
+    private void sendResourcePacksInfo() {
         PlayStatusPacket playStatus = new PlayStatusPacket();
         playStatus.setStatus(PlayStatusPacket.Status.LOGIN_SUCCESS);
         session.sendUpstreamPacket(playStatus);
@@ -89,7 +114,6 @@ public class UpstreamPacketHandler extends LoggingPacketHandler {
         }
         resourcePacksInfo.setForcedToAccept(GeyserConnector.getInstance().getConfig().isForceResourcePacks());
         session.sendUpstreamPacket(resourcePacksInfo);
-        return true;
     }
 
     @Override
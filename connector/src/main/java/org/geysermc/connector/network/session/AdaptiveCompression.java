@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.network.session;
+
+import com.nukkitx.protocol.bedrock.BedrockPacket;
+import com.nukkitx.protocol.bedrock.packet.LevelChunkPacket;
+import lombok.Getter;
+import org.geysermc.connector.configuration.GeyserConfiguration;
+import org.geysermc.connector.utils.CpuUtils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+
+/**
+ * Picks the compression level of a Bedrock session based on its latency, how much data it is being sent and the CPU
+ * usage of Geyser, instead of using the same level for everyone.
+ * <ul>
+ *     <li>Players that are only sent a trickle of small packets get no compression, as there's little to save.</li>
+ *     <li>Players on a local network get the cheapest level, since bandwidth is rarely their problem.</li>
+ *     <li>Players with high latency, or that are loading chunks, get the configured level.</li>
+ *     <li>Everyone gets the cheapest level while Geyser's CPU usage is high.</li>
+ * </ul>
+ * The protocol library compresses whole batches with a level set on the session, so the level is re-evaluated once
+ * a second rather than per batch. The exception is a chunk sent while compression is off, which raises the level
+ * straight away.
+ */
+public class AdaptiveCompression {
+    private static final int UPDATE_INTERVAL_TICKS = 20;
+    private static final long LAN_LATENCY_MILLIS = 20;
+    private static final long HIGH_LATENCY_MILLIS = 150;
+    /**
+     * Above this many bytes per second a player is most likely loading chunks
+     */
+    private static final long HIGH_VOLUME_BYTES = 64 * 1024;
+    private static final double HIGH_CPU_LOAD = 0.85;
+    /**
+     * A rough average size of anything that isn't a chunk, which are measured exactly
+     */
+    private static final int SMALL_PACKET_BYTES = 24;
+    /**
+     * Compress one in this many chunks a second time, to measure what each level costs and saves
+     */
+    private static final int SAMPLE_INTERVAL = 64;
+
+    public static final int MAX_LEVEL = 9;
+
+    @Getter
+    private static final CompressionStats stats = new CompressionStats();
+
+    private final GeyserSession session;
+    private final int maxLevel;
+    private final int smallVolumeThreshold;
+
+    private final LongAdder sentBytes = new LongAdder();
+    private int ticks = 0;
+    @Getter
+    private volatile int level;
+
+    public AdaptiveCompression(GeyserSession session, GeyserConfiguration.IBedrockConfiguration config) {
+        this.session = session;
+        this.maxLevel = Math.max(0, config.getCompressionLevel());
+        this.smallVolumeThreshold = config.getAdaptiveCompressionThreshold();
+        this.level = maxLevel;
+    }
+
+    public void onPacketSent(BedrockPacket packet) {
+        if (packet instanceof LevelChunkPacket) {
+            byte[] data = ((LevelChunkPacket) packet).getData();
+            sentBytes.add(data.length);
+            if (stats.chunks.incrementAndGet() % SAMPLE_INTERVAL == 0) {
+                stats.sample(level, data);
+            }
+            if (level == Deflater.NO_COMPRESSION) {
+                // Don't wait for the next update to compress chunks, they're most of what a player is sent
+                setLevel(chooseLevel(session.getUpstream().getSession().getLatency(), HIGH_VOLUME_BYTES, CpuUtils.getProcessCpuLoad()));
+            }
+        } else {
+            sentBytes.add(SMALL_PACKET_BYTES);
+        }
+    }
+
+    /**
+     * Called every tick by the session.
+     */
+    public void tick() {
+        if (++ticks < UPDATE_INTERVAL_TICKS) {
+            return;
+        }
+        ticks = 0;
+
+        long bytesPerSecond = sentBytes.sumThenReset() * 20 / UPDATE_INTERVAL_TICKS;
+        int level = chooseLevel(session.getUpstream().getSession().getLatency(), bytesPerSecond, CpuUtils.getProcessCpuLoad());
+        setLevel(level);
+    }
+
+    private synchronized void setLevel(int level) {
+        if (level != this.level) {
+            this.level = level;
+            session.getUpstream().getSession().setCompressionLevel(level);
+        }
+    }
+
+    int chooseLevel(long latencyMillis, long bytesPerSecond, double cpuLoad) {
+        if (bytesPerSecond < smallVolumeThreshold) {
+            return Deflater.NO_COMPRESSION;
+        }
+        if (cpuLoad >= HIGH_CPU_LOAD) {
+            return Math.min(maxLevel, Deflater.BEST_SPEED);
+        }
+        if (latencyMillis < LAN_LATENCY_MILLIS) {
+            return Math.min(maxLevel, Deflater.BEST_SPEED);
+        }
+        if (latencyMillis >= HIGH_LATENCY_MILLIS || bytesPerSecond >= HIGH_VOLUME_BYTES) {
+            return maxLevel;
+        }
+        return Math.max(Math.min(maxLevel, Deflater.BEST_SPEED), (maxLevel + 1) / 2);
+    }
+
+    /**
+     * What the compression levels cost in CPU time and save in bytes, measured on a sample of chunks.
+     */
+    public static class CompressionStats {
+        private final AtomicLong chunks = new AtomicLong();
+        private final LongAdder[] rawBytes = new LongAdder[MAX_LEVEL + 1];
+        private final LongAdder[] compressedBytes = new LongAdder[MAX_LEVEL + 1];
+        private final LongAdder[] compressionNanos = new LongAdder[MAX_LEVEL + 1];
+
+        private CompressionStats() {
+            for (int i = 0; i <= MAX_LEVEL; i++) {
+                rawBytes[i] = new LongAdder();
+                compressedBytes[i] = new LongAdder();
+                compressionNanos[i] = new LongAdder();
+            }
+        }
+
+        private void sample(int level, byte[] data) {
+            byte[] output = new byte[1024];
+            Deflater deflater = new Deflater(level);
+            try {
+                long start = System.nanoTime();
+                deflater.setInput(data);
+                deflater.finish();
+                while (!deflater.finished()) {
+                    deflater.deflate(output);
+                }
+                compressionNanos[level].add(System.nanoTime() - start);
+                rawBytes[level].add(data.length);
+                compressedBytes[level].add(deflater.getBytesWritten());
+            } finally {
+                deflater.end();
+            }
+        }
+
+        public long getRawBytes(int level) {
+            return rawBytes[level].sum();
+        }
+
+        public long getCompressedBytes(int level) {
+            return compressedBytes[level].sum();
+        }
+
+        public long getCompressionNanos(int level) {
+            return compressionNanos[level].sum();
+        }
+    }
+}
@@ -64,7 +64,6 @@ import it.unimi.dsi.fastutil.ints.IntList;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
-import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectIterator;
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import lombok.AccessLevel;
@@ -75,14 +74,15 @@ import org.geysermc.connector.GeyserConnector;
 import org.geysermc.connector.command.CommandSender;
 import org.geysermc.connector.common.AuthType;
 import org.geysermc.connector.configuration.EmoteOffhandWorkaroundOption;
+import org.geysermc.connector.configuration.GeyserConfiguration;
 import org.geysermc.connector.entity.Entity;
 import org.geysermc.connector.entity.ItemFrameEntity;
 import org.geysermc.connector.entity.Tickable;
 import org.geysermc.connector.entity.attribute.GeyserAttributeType;
 import org.geysermc.connector.entity.player.SessionPlayerEntity;
-import org.geysermc.connector.entity.player.SkullPlayerEntity;
 import org.geysermc.connector.inventory.Inventory;
 import org.geysermc.connector.inventory.PlayerInventory;
+import org.geysermc.connector.metrics.GeyserMetrics;
 import org.geysermc.connector.network.session.auth.AuthData;
 import org.geysermc.connector.network.session.auth.BedrockClientData;
 import org.geysermc.connector.network.session.cache.*;
@@ -106,6 +106,7 @@ import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @Getter
@@ -185,21 +186,22 @@ public class GeyserSession implements CommandSender {
     @Setter
     private ItemMappings itemMappings;
 
-    private final Map<Vector3i, SkullPlayerEntity> skullCache = new ConcurrentHashMap<>();
+    private final SkullCache skullCache;
+    private final SkinDeliveryScheduler skinDeliveryScheduler;
     private final Long2ObjectMap<ClientboundMapItemDataPacket> storedMaps = Long2ObjectMaps.synchronize(new Long2ObjectOpenHashMap<>());
 
     /**
-     * A map of Vector3i positions to Java entities.
+     * Item frames by their block position.
      * Used for translating Bedrock block actions to Java entity actions.
      */
-    private final Map<Vector3i, ItemFrameEntity> itemFrameCache = new Object2ObjectOpenHashMap<>();
+    private final BlockPositionIndex<ItemFrameEntity> itemFrameCache = new BlockPositionIndex<>();
 
     /**
-     * Stores a list of all lectern locations and their block entity tags.
+     * Stores the positions of all lecterns that have a book.
      * See {@link org.geysermc.connector.network.translators.world.WorldManager#getLecternDataAt(GeyserSession, int, int, int, boolean)}
      * for more information.
      */
-    private final Set<Vector3i> lecternCache = new ObjectOpenHashSet<>();
+    private final BlockPositionSet lecternCache = new BlockPositionSet();
 
     @Setter
     private boolean droppingLecternBook;
@@ -428,6 +430,21 @@ public class GeyserSession implements CommandSender {
 
     private final Set<UUID> emotes;
 
+    /**
+     * Packet counts of this session, or null if {@code track-session-traffic} is disabled.
+     */
+    private final SessionTrafficStats trafficStats;
+
+    /**
+     * Picks the compression level of this session, or null if {@code adaptive-compression} is disabled.
+     */
+    private final AdaptiveCompression adaptiveCompression;
+
+    /**
+     * Whether this session is waiting in the join queue, so logging in again doesn't queue it twice.
+     */
+    private final AtomicBoolean joinQueued = new AtomicBoolean();
+
     /**
      * The thread that will run every 50 milliseconds - one Minecraft tick.
      */
@@ -438,11 +455,17 @@ public class GeyserSession implements CommandSender {
     public GeyserSession(GeyserConnector connector, BedrockServerSession bedrockServerSession) {
         this.connector = connector;
         this.upstream = new UpstreamSession(bedrockServerSession);
+        this.trafficStats = connector.getConfig().isTrackSessionTraffic() ? new SessionTrafficStats() : null;
+        GeyserConfiguration.IBedrockConfiguration bedrockConfig = connector.getConfig().getBedrock();
+        this.adaptiveCompression = bedrockConfig.isAdaptiveCompression() && bedrockConfig.getCompressionLevel() > 0
+                ? new AdaptiveCompression(this, bedrockConfig) : null;
 
         this.advancementsCache = new AdvancementsCache(this);
         this.bookEditCache = new BookEditCache(this);
         this.chunkCache = new ChunkCache(this);
         this.entityCache = new EntityCache(this);
+        this.skullCache = new SkullCache(this);
+        this.skinDeliveryScheduler = new SkinDeliveryScheduler(this, connector.getConfig().getSkinUploadRate());
         this.effectCache = new EntityEffectCache();
         this.formCache = new FormCache(this);
         this.preferencesCache = new PreferencesCache(this);
@@ -659,9 +682,16 @@ public class GeyserSession implements CommandSender {
     }
 
     /**
-     * After getting whatever credentials needed, we attempt to join the Java server.
+     * After getting whatever credentials needed, we wait for our turn to join the Java server.
      */
     private void connectDownstream() {
+        connector.getJoinAdmissionController().admit(this, this::connectDownstreamNow);
+    }
+
+    /**
+     * Attempt to join the Java server.
+     */
+    private void connectDownstreamNow() {
         boolean floodgate = this.remoteAuthType == AuthType.FLOODGATE;
 
         // Start ticking
@@ -761,17 +791,18 @@ public class GeyserSession implements CommandSender {
                 }
                 playerEntity.setUuid(uuid);
                 playerEntity.setUsername(protocol.getProfile().getName());
+                connector.getSessionRegistry().reindex(GeyserSession.this);
 
                 String locale = clientData.getLanguageCode();
 
                 // Let the user know there locale may take some time to download
                 // as it has to be extracted from a JAR
-                if (locale.equalsIgnoreCase("en_us") && !LocaleUtils.LOCALE_MAPPINGS.containsKey("en_us")) {
+                if (locale.equalsIgnoreCase("en_us") && !LocaleUtils.isLocaleLoaded("en_us")) {
                     // This should probably be left hardcoded as it will only show for en_us clients
                     sendMessage("Loading your locale (en_us); if this isn't already downloaded, this may take some time");
                 }
 
-                // Download and load the language for the player
+                // Download and load the language for the player in the background; this is a no-op if it is already loaded
                 LocaleUtils.downloadAndLoadLocale(locale);
             }
 
@@ -795,6 +826,7 @@ public class GeyserSession implements CommandSender {
                         GameProfile profile = ((LoginSuccessPacket) event.getPacket()).getProfile();
                         playerEntity.setUsername(profile.getName());
                         playerEntity.setUuid(profile.getId());
+                        connector.getSessionRegistry().reindex(GeyserSession.this);
 
                         // Check if they are not using a linked account
                         if (remoteAuthType == AuthType.OFFLINE || playerEntity.getUuid().getMostSignificantBits() == 0) {
@@ -808,7 +840,19 @@ public class GeyserSession implements CommandSender {
                         }
                     }
 
-                    PacketTranslatorRegistry.JAVA_TRANSLATOR.translate(event.getPacket().getClass(), event.getPacket(), GeyserSession.this);
+                    if (trafficStats != null) {
+                        trafficStats.recordJavaPacket(SessionTrafficStats.Direction.JAVA_IN, event.getPacket());
+                    }
+
+                    GeyserMetrics metrics = connector.getGeyserMetrics();
+                    if (metrics.isEnabled()) {
+                        long start = System.nanoTime();
+                        PacketTranslatorRegistry.JAVA_TRANSLATOR.translate(event.getPacket().getClass(), event.getPacket(), GeyserSession.this);
+                        metrics.getJavaTranslationTime().record(System.nanoTime() - start);
+                        metrics.getJavaPacketsReceived().increment();
+                    } else {
+                        PacketTranslatorRegistry.JAVA_TRANSLATOR.translate(event.getPacket().getClass(), event.getPacket(), GeyserSession.this);
+                    }
                 }
             }
 
@@ -835,7 +879,7 @@ public class GeyserSession implements CommandSender {
                 downstream.disconnect(reason);
             }
             if (upstream != null && !upstream.isClosed()) {
-                connector.getPlayers().remove(this);
+                connector.removePlayer(this);
                 upstream.disconnect(reason);
             }
         }
@@ -878,6 +922,20 @@ public class GeyserSession implements CommandSender {
         for (Tickable entity : entityCache.getTickableEntities()) {
             entity.tick(this);
         }
+
+        if (entityCache.getInterestManager() != null) {
+            entityCache.getInterestManager().tick();
+        }
+        if (entityCache.getMovementThrottle() != null) {
+            entityCache.getMovementThrottle().tick();
+        }
+
+        skullCache.tick();
+        skinDeliveryScheduler.tick();
+
+        if (adaptiveCompression != null) {
+            adaptiveCompression.tick();
+        }
     }
 
     public void setAuthenticationData(AuthData authData) {
@@ -1197,7 +1255,18 @@ public class GeyserSession implements CommandSender {
      * @param packet the bedrock packet from the NukkitX protocol lib
      */
     public void sendUpstreamPacket(BedrockPacket packet) {
+        if (trafficStats != null) {
+            // Measure before the event loop starts encoding the packet; packets aren't safe to encode concurrently
+            trafficStats.recordBedrockPacket(SessionTrafficStats.Direction.BEDROCK_OUT, packet, upstream.getSession());
+        }
+        if (adaptiveCompression != null) {
+            // Before sending, so a chunk can raise the compression level of the batch it goes out in
+            adaptiveCompression.onPacketSent(packet);
+        }
         upstream.sendPacket(packet);
+        if (connector.getGeyserMetrics().isEnabled()) {
+            connector.getGeyserMetrics().getBedrockPacketsSent().increment();
+        }
     }
 
     /**
@@ -1206,7 +1275,18 @@ public class GeyserSession implements CommandSender {
      * @param packet the bedrock packet from the NukkitX protocol lib
      */
     public void sendUpstreamPacketImmediately(BedrockPacket packet) {
+        if (trafficStats != null) {
+            // Measure before the event loop starts encoding the packet; packets aren't safe to encode concurrently
+            trafficStats.recordBedrockPacket(SessionTrafficStats.Direction.BEDROCK_OUT, packet, upstream.getSession());
+        }
+        if (adaptiveCompression != null) {
+            // Before sending, so a chunk can raise the compression level of the batch it goes out in
+            adaptiveCompression.onPacketSent(packet);
+        }
         upstream.sendPacketImmediately(packet);
+        if (connector.getGeyserMetrics().isEnabled()) {
+            connector.getGeyserMetrics().getBedrockPacketsSent().increment();
+        }
     }
 
     /**
@@ -1216,7 +1296,13 @@ public class GeyserSession implements CommandSender {
      */
     public void sendDownstreamPacket(Packet packet) {
         if (downstream != null && (protocol.getSubProtocol().equals(SubProtocol.GAME) || packet.getClass() == LoginPluginResponsePacket.class)) {
+            if (trafficStats != null) {
+                trafficStats.recordJavaPacket(SessionTrafficStats.Direction.JAVA_OUT, packet);
+            }
             downstream.send(packet);
+            if (connector.getGeyserMetrics().isEnabled()) {
+                connector.getGeyserMetrics().getJavaPacketsSent().increment();
+            }
         } else {
             connector.getLogger().debug("Tried to send downstream packet " + packet.getClass().getSimpleName() + " before connected to the server");
         }
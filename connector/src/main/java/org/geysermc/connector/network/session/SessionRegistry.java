@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.network.session;
+
+import org.geysermc.connector.network.session.auth.AuthData;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of every connected {@link GeyserSession}, indexed by Java UUID, Bedrock UUID, XUID and Java username.
+ * <p>
+ * Lookups and iteration never lock. Sessions are added and removed under a lock, since each change has to update
+ * every index together. Iteration works on an immutable snapshot, which is rebuilt lazily after a change.
+ */
+public class SessionRegistry {
+    private final Map<GeyserSession, Identity> sessions = new ConcurrentHashMap<>();
+
+    private final Map<UUID, GeyserSession> byJavaUuid = new ConcurrentHashMap<>();
+    private final Map<UUID, GeyserSession> byBedrockUuid = new ConcurrentHashMap<>();
+    private final Map<String, GeyserSession> byXuid = new ConcurrentHashMap<>();
+    private final Map<String, GeyserSession> byName = new ConcurrentHashMap<>();
+
+    private volatile List<GeyserSession> snapshot = Collections.emptyList();
+
+    public synchronized void add(GeyserSession session) {
+        if (sessions.containsKey(session)) {
+            reindex(session);
+            return;
+        }
+        Identity identity = new Identity(session);
+        sessions.put(session, identity);
+        index(identity, session);
+        snapshot = null;
+    }
+
+    public synchronized void remove(GeyserSession session) {
+        Identity identity = sessions.remove(session);
+        if (identity != null) {
+            unindex(identity, session);
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Updates the indexes of a session after its Java UUID or username changed, for example once the Java server
+     * confirms the profile of the player. Does nothing if the session is not registered.
+     */
+    public synchronized void reindex(GeyserSession session) {
+        Identity old = sessions.get(session);
+        if (old == null) {
+            return;
+        }
+        Identity identity = new Identity(session);
+        if (!identity.equals(old)) {
+            unindex(old, session);
+            sessions.put(session, identity);
+            index(identity, session);
+        }
+    }
+
+    public synchronized void clear() {
+        sessions.clear();
+        byJavaUuid.clear();
+        byBedrockUuid.clear();
+        byXuid.clear();
+        byName.clear();
+        snapshot = Collections.emptyList();
+    }
+
+    public GeyserSession getByJavaUuid(UUID uuid) {
+        return uuid == null ? null : byJavaUuid.get(uuid);
+    }
+
+    public GeyserSession getByBedrockUuid(UUID uuid) {
+        return uuid == null ? null : byBedrockUuid.get(uuid);
+    }
+
+    public GeyserSession getByXuid(String xuid) {
+        return xuid == null ? null : byXuid.get(xuid);
+    }
+
+    /**
+     * @param name the Java username of the player, in any case
+     */
+    public GeyserSession getByName(String name) {
+        return name == null ? null : byName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * @return an immutable snapshot of all sessions, safe to iterate while sessions join and leave
+     */
+    public List<GeyserSession> getSessions() {
+        List<GeyserSession> snapshot = this.snapshot;
+        if (snapshot == null) {
+            synchronized (this) {
+                snapshot = this.snapshot;
+                if (snapshot == null) {
+                    snapshot = Collections.unmodifiableList(new ArrayList<>(sessions.keySet()));
+                    this.snapshot = snapshot;
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    private void index(Identity identity, GeyserSession session) {
+        if (identity.javaUuid != null) {
+            byJavaUuid.put(identity.javaUuid, session);
+        }
+        if (identity.bedrockUuid != null) {
+            byBedrockUuid.put(identity.bedrockUuid, session);
+        }
+        if (identity.xuid != null) {
+            byXuid.put(identity.xuid, session);
+        }
+        if (identity.name != null) {
+            byName.put(identity.name, session);
+        }
+    }
+
+    private void unindex(Identity identity, GeyserSession session) {
+        // Only remove entries still pointing at this session, in case another session has since taken the key
+        if (identity.javaUuid != null) {
+            byJavaUuid.remove(identity.javaUuid, session);
+        }
+        if (identity.bedrockUuid != null) {
+            byBedrockUuid.remove(identity.bedrockUuid, session);
+        }
+        if (identity.xuid != null) {
+            byXuid.remove(identity.xuid, session);
+        }
+        if (identity.name != null) {
+            byName.remove(identity.name, session);
+        }
+    }
+
+    /**
+     * The keys a session was indexed under, so they can be removed again after they change on the session itself
+     */
+    private static final class Identity {
+        private final UUID javaUuid;
+        private final UUID bedrockUuid;
+        private final String xuid;
+        private final String name;
+
+        private Identity(GeyserSession session) {
+            this.javaUuid = session.getPlayerEntity() != null ? session.getPlayerEntity().getUuid() : null;
+            String name = session.getPlayerEntity() != null ? session.getPlayerEntity().getUsername() : null;
+            this.name = name != null ? name.toLowerCase(Locale.ROOT) : null;
+
+            AuthData authData = session.getAuthData();
+            this.bedrockUuid = authData != null ? authData.getUUID() : null;
+            this.xuid = authData != null ? authData.getXboxUUID() : null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Identity)) return false;
+            Identity identity = (Identity) o;
+            return Objects.equals(javaUuid, identity.javaUuid) && Objects.equals(bedrockUuid, identity.bedrockUuid)
+                    && Objects.equals(xuid, identity.xuid) && Objects.equals(name, identity.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(javaUuid, bedrockUuid, xuid, name);
+        }
+    }
+}
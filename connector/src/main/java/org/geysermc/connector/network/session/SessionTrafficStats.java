@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.network.session;
+
+import com.github.steveice10.packetlib.packet.Packet;
+import com.github.steveice10.packetlib.tcp.io.ByteBufNetOutput;
+import com.nukkitx.protocol.bedrock.BedrockPacket;
+import com.nukkitx.protocol.bedrock.BedrockSession;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the packets of one session by direction and packet class, along with an estimate of their size.
+ * <p>
+ * Encoding every packet a second time just to measure it would cost as much as sending it, so only the first and
+ * then every {@value #SAMPLE_INTERVAL}th packet of each class is measured, and the average is used for the rest.
+ * Sizes are uncompressed and exclude framing.
+ */
+public class SessionTrafficStats {
+    private static final int SAMPLE_INTERVAL = 16;
+    /**
+     * Rates are averaged over roughly a minute
+     */
+    private static final double RATE_WINDOW_SECONDS = 60;
+
+    private final Map<Direction, Map<Class<?>, PacketTraffic>> traffic = new EnumMap<>(Direction.class);
+
+    public SessionTrafficStats() {
+        for (Direction direction : Direction.values()) {
+            traffic.put(direction, new ConcurrentHashMap<>());
+        }
+    }
+
+    public void recordBedrockPacket(Direction direction, BedrockPacket packet, BedrockSession session) {
+        PacketTraffic packetTraffic = get(direction, packet.getClass());
+        if (packetTraffic.increment()) {
+            ByteBuf buffer = ByteBufAllocator.DEFAULT.ioBuffer();
+            try {
+                session.getPacketCodec().tryEncode(buffer, packet, session);
+                packetTraffic.sample(buffer.readableBytes());
+            } catch (Exception ignored) {
+                // Measuring is best-effort; the packet itself is unaffected
+            } finally {
+                buffer.release();
+            }
+        }
+    }
+
+    public void recordJavaPacket(Direction direction, Packet packet) {
+        PacketTraffic packetTraffic = get(direction, packet.getClass());
+        if (packetTraffic.increment()) {
+            ByteBuf buffer = ByteBufAllocator.DEFAULT.ioBuffer();
+            try {
+                packet.write(new ByteBufNetOutput(buffer));
+                packetTraffic.sample(buffer.readableBytes());
+            } catch (Exception ignored) {
+                // Measuring is best-effort; the packet itself is unaffected
+            } finally {
+                buffer.release();
+            }
+        }
+    }
+
+    private PacketTraffic get(Direction direction, Class<?> packetClass) {
+        return traffic.get(direction).computeIfAbsent(packetClass, PacketTraffic::new);
+    }
+
+    /**
+     * Updates the packet and byte rates of every packet class.
+     *
+     * @param elapsedNanos the time since the rates were last updated
+     */
+    public void updateRates(long elapsedNanos) {
+        double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        if (seconds <= 0) {
+            return;
+        }
+        double alpha = 1 - Math.exp(-seconds / RATE_WINDOW_SECONDS);
+        for (Map<Class<?>, PacketTraffic> packets : traffic.values()) {
+            for (PacketTraffic packetTraffic : packets.values()) {
+                packetTraffic.updateRates(seconds, alpha);
+            }
+        }
+    }
+
+    /**
+     * @return the counts of every packet class seen in the given direction. Live view; do not modify.
+     */
+    public Map<Class<?>, PacketTraffic> getTraffic(Direction direction) {
+        return Collections.unmodifiableMap(traffic.get(direction));
+    }
+
+    public double getPacketsPerSecond() {
+        double rate = 0;
+        for (Map<Class<?>, PacketTraffic> packets : traffic.values()) {
+            for (PacketTraffic packetTraffic : packets.values()) {
+                rate += packetTraffic.packetsPerSecond;
+            }
+        }
+        return rate;
+    }
+
+    public double getBytesPerSecond() {
+        double rate = 0;
+        for (Map<Class<?>, PacketTraffic> packets : traffic.values()) {
+            for (PacketTraffic packetTraffic : packets.values()) {
+                rate += packetTraffic.bytesPerSecond;
+            }
+        }
+        return rate;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Direction {
+        BEDROCK_IN("from Bedrock"),
+        BEDROCK_OUT("to Bedrock"),
+        JAVA_IN("from Java"),
+        JAVA_OUT("to Java");
+
+        private final String displayName;
+    }
+
+    public static class PacketTraffic {
+        @Getter
+        private final Class<?> packetClass;
+        private final AtomicLong packets = new AtomicLong();
+        private final LongAdder sampledBytes = new LongAdder();
+        private final LongAdder samples = new LongAdder();
+
+        // Only written by the rate update task
+        private long lastPackets;
+        private long lastBytes;
+        @Getter
+        private volatile double packetsPerSecond;
+        @Getter
+        private volatile double bytesPerSecond;
+
+        private PacketTraffic(Class<?> packetClass) {
+            this.packetClass = packetClass;
+        }
+
+        /**
+         * @return true if this packet should be measured
+         */
+        private boolean increment() {
+            return packets.incrementAndGet() % SAMPLE_INTERVAL == 1;
+        }
+
+        private void sample(int bytes) {
+            sampledBytes.add(bytes);
+            samples.increment();
+        }
+
+        private void updateRates(double seconds, double alpha) {
+            long packets = getPackets();
+            long bytes = getEstimatedBytes();
+            packetsPerSecond += alpha * ((packets - lastPackets) / seconds - packetsPerSecond);
+            bytesPerSecond += alpha * ((bytes - lastBytes) / seconds - bytesPerSecond);
+            lastPackets = packets;
+            lastBytes = bytes;
+        }
+
+        public long getPackets() {
+            return packets.get();
+        }
+
+        /**
+         * @return the amount of packets times their average measured size
+         */
+        public long getEstimatedBytes() {
+            long samples = this.samples.sum();
+            return samples == 0 ? 0 : (long) (getPackets() * (sampledBytes.sum() / (double) samples));
+        }
+    }
+}
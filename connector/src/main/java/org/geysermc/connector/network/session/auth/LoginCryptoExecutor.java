@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.network.session.auth;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.Getter;
+import org.geysermc.connector.configuration.GeyserConfiguration;
+import org.geysermc.connector.metrics.Histogram;
+import org.geysermc.connector.network.session.GeyserSession;
+
+import java.net.InetAddress;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs the CPU-heavy part of a Bedrock login (certificate chain verification, client data verification and the key
+ * agreement for encryption) away from the RakNet event loop.
+ * <p>
+ * The pool is bounded in both threads and queue size, and each remote address can only have a limited amount
+ * of logins in flight at once, so a single host cannot starve everyone else during a join storm.
+ */
+public class LoginCryptoExecutor {
+    private final ThreadPoolExecutor executor;
+    private final int maxPendingPerAddress;
+    private final Map<InetAddress, AtomicInteger> pendingPerAddress = new ConcurrentHashMap<>();
+
+    @Getter
+    private final LoginStats stats = new LoginStats();
+
+    public LoginCryptoExecutor(GeyserConfiguration config) {
+        int threads = config.getLoginThreads();
+        if (threads <= 0) {
+            threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        }
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, config.getLoginQueueSize())),
+                new ThreadFactoryBuilder().setNameFormat("Geyser Login Thread #%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.maxPendingPerAddress = config.getMaxPendingLoginsPerAddress();
+    }
+
+    /**
+     * Schedules login work for the given session.
+     *
+     * @param session the session that is logging in
+     * @param task the verification work
+     * @return a future completing with the result of the task, or with null if the login was not admitted or the
+     *         session closed while it was queued. The future is completed on a login thread.
+     */
+    public <T> CompletableFuture<T> submit(GeyserSession session, Supplier<T> task) {
+        InetAddress address = session.getUpstream().getSession().getRealAddress().getAddress();
+        AtomicInteger pending = pendingPerAddress.computeIfAbsent(address, k -> new AtomicInteger());
+        if (pending.incrementAndGet() > maxPendingPerAddress && maxPendingPerAddress > 0) {
+            release(address, pending);
+            stats.rejected.increment();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long startedAt = System.nanoTime();
+                stats.queueTime.record(startedAt - queuedAt);
+                try {
+                    if (session.isClosed()) {
+                        return null;
+                    }
+                    return task.get();
+                } finally {
+                    stats.verifyTime.record(System.nanoTime() - startedAt);
+                    release(address, pending);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            release(address, pending);
+            stats.rejected.increment();
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private void release(InetAddress address, AtomicInteger pending) {
+        if (pending.decrementAndGet() <= 0) {
+            pendingPerAddress.remove(address, pending);
+        }
+    }
+
+    /**
+     * @return the amount of logins waiting for a free login thread
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        pendingPerAddress.clear();
+    }
+
+    @Getter
+    public static class LoginStats {
+        private final LongAdder rejected = new LongAdder();
+        /**
+         * Time spent between receiving the login packet and a login thread picking it up, in nanoseconds
+         */
+        private final Histogram queueTime = new Histogram();
+        /**
+         * Time spent verifying the login and starting encryption, in nanoseconds
+         */
+        private final Histogram verifyTime = new Histogram();
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.network.session.cache;
+
+import com.nukkitx.math.vector.Vector3i;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.geysermc.connector.utils.MathUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Stores things that are bound to a block position, like item frames and skulls, grouped by chunk.
+ * Positions are packed into longs, so lookups don't need a {@link Vector3i}, and everything in a chunk can be
+ * dropped at once when it unloads.
+ * <p>
+ * Access is synchronized, as some values are added from other threads (e.g. skulls once their profile is loaded).
+ *
+ * @param <T> the type of the stored values
+ */
+public class BlockPositionIndex<T> {
+    private final Long2ObjectMap<Long2ObjectMap<T>> chunks = new Long2ObjectOpenHashMap<>();
+    private int size = 0;
+
+    public synchronized T get(int x, int y, int z) {
+        Long2ObjectMap<T> chunk = chunks.get(MathUtils.chunkPositionToLong(x >> 4, z >> 4));
+        return chunk == null ? null : chunk.get(MathUtils.blockPositionToLong(x, y, z));
+    }
+
+    public T get(Vector3i position) {
+        return get(position.getX(), position.getY(), position.getZ());
+    }
+
+    public boolean contains(Vector3i position) {
+        return get(position) != null;
+    }
+
+    /**
+     * @return the value that was previously at this position, or null
+     */
+    public synchronized T put(Vector3i position, T value) {
+        int x = position.getX();
+        int z = position.getZ();
+        Long2ObjectMap<T> chunk = chunks.computeIfAbsent(MathUtils.chunkPositionToLong(x >> 4, z >> 4), key -> new Long2ObjectOpenHashMap<>());
+        T previous = chunk.put(MathUtils.blockPositionToLong(x, position.getY(), z), value);
+        if (previous == null) {
+            size++;
+        }
+        return previous;
+    }
+
+    /**
+     * @return the value that was at this position, or null
+     */
+    public synchronized T remove(Vector3i position) {
+        return removeValue(position, null);
+    }
+
+    /**
+     * Removes the value at this position, but only if it is the given value.
+     *
+     * @return true if the value was removed
+     */
+    public synchronized boolean remove(Vector3i position, T value) {
+        return value != null && removeValue(position, value) == value;
+    }
+
+    private T removeValue(Vector3i position, T expected) {
+        long chunkKey = MathUtils.chunkPositionToLong(position.getX() >> 4, position.getZ() >> 4);
+        Long2ObjectMap<T> chunk = chunks.get(chunkKey);
+        if (chunk == null) {
+            return null;
+        }
+        long key = MathUtils.blockPositionToLong(position.getX(), position.getY(), position.getZ());
+        T value = chunk.get(key);
+        if (value == null || (expected != null && value != expected)) {
+            return null;
+        }
+        chunk.remove(key);
+        size--;
+        if (chunk.isEmpty()) {
+            chunks.remove(chunkKey);
+        }
+        return value;
+    }
+
+    /**
+     * Removes everything in a chunk.
+     *
+     * @return the removed values
+     */
+    public synchronized Collection<T> removeChunk(int chunkX, int chunkZ) {
+        Long2ObjectMap<T> chunk = chunks.remove(MathUtils.chunkPositionToLong(chunkX, chunkZ));
+        if (chunk == null) {
+            return Collections.emptyList();
+        }
+        size -= chunk.size();
+        return chunk.values();
+    }
+
+    /**
+     * Runs the action for every value. Values must not be added or removed from within the action.
+     */
+    public synchronized void forEach(Consumer<T> action) {
+        for (Long2ObjectMap<T> chunk : chunks.values()) {
+            chunk.values().forEach(action);
+        }
+    }
+
+    /**
+     * @return a copy of all values
+     */
+    public synchronized List<T> values() {
+        List<T> values = new ArrayList<>(size);
+        forEach(values::add);
+        return values;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized void clear() {
+        chunks.clear();
+        size = 0;
+    }
+}
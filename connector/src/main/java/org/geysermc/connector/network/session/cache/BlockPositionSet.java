@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.network.session.cache;
+
+import com.nukkitx.math.vector.Vector3i;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import org.geysermc.connector.utils.MathUtils;
+
+/**
+ * A set of block positions, like the lecterns that have a book, grouped by chunk.
+ * This is the {@link BlockPositionIndex} for positions that don't have a value of their own.
+ * <p>
+ * Access is synchronized, as positions may be added and removed from different threads.
+ */
+public class BlockPositionSet {
+    private final Long2ObjectMap<LongSet> chunks = new Long2ObjectOpenHashMap<>();
+    private int size = 0;
+
+    public synchronized boolean contains(Vector3i position) {
+        LongSet chunk = chunks.get(MathUtils.chunkPositionToLong(position.getX() >> 4, position.getZ() >> 4));
+        return chunk != null && chunk.contains(MathUtils.blockPositionToLong(position.getX(), position.getY(), position.getZ()));
+    }
+
+    /**
+     * @return true if the position wasn't in the set yet
+     */
+    public synchronized boolean add(Vector3i position) {
+        int x = position.getX();
+        int z = position.getZ();
+        LongSet chunk = chunks.computeIfAbsent(MathUtils.chunkPositionToLong(x >> 4, z >> 4), key -> new LongOpenHashSet());
+        if (chunk.add(MathUtils.blockPositionToLong(x, position.getY(), z))) {
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the position was in the set
+     */
+    public synchronized boolean remove(Vector3i position) {
+        long chunkKey = MathUtils.chunkPositionToLong(position.getX() >> 4, position.getZ() >> 4);
+        LongSet chunk = chunks.get(chunkKey);
+        if (chunk == null || !chunk.remove(MathUtils.blockPositionToLong(position.getX(), position.getY(), position.getZ()))) {
+            return false;
+        }
+        size--;
+        if (chunk.isEmpty()) {
+            chunks.remove(chunkKey);
+        }
+        return true;
+    }
+
+    /**
+     * Removes every position in a chunk.
+     */
+    public synchronized void removeChunk(int chunkX, int chunkZ) {
+        LongSet chunk = chunks.remove(MathUtils.chunkPositionToLong(chunkX, chunkZ));
+        if (chunk != null) {
+            size -= chunk.size();
+        }
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized void clear() {
+        chunks.clear();
+        size = 0;
+    }
+}
@@ -127,6 +127,29 @@ public class ChunkCache {
         return BlockStateValues.JAVA_AIR_ID;
     }
 
+    /**
+     * Unlike {@link #getBlockAt(int, int, int)}, this tells apart air from a block the cache knows nothing about.
+     *
+     * @return the cached block state at this position, or -1 if chunks are not cached or this chunk is not loaded
+     */
+    public int getCachedBlockAt(int x, int y, int z) {
+        if (!cache) {
+            return -1;
+        }
+
+        GeyserColumn column = this.getChunk(x >> 4, z >> 4);
+        if (column == null || y < minY || ((y - minY) >> 4) > column.getChunks().length - 1) {
+            return -1;
+        }
+
+        Chunk chunk = column.getChunks()[(y - minY) >> 4];
+        if (chunk != null) {
+            return chunk.get(x & 0xF, y & 0xF, z & 0xF);
+        }
+
+        return BlockStateValues.JAVA_AIR_ID;
+    }
+
     public void removeChunk(int chunkX, int chunkZ) {
         if (!cache) {
             return;
@@ -26,70 +26,141 @@
 package org.geysermc.connector.network.session.cache;
 
 import it.unimi.dsi.fastutil.longs.*;
+import it.unimi.dsi.fastutil.objects.ObjectLinkedOpenHashSet;
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import lombok.Getter;
+import org.geysermc.connector.configuration.GeyserConfiguration;
 import org.geysermc.connector.entity.Tickable;
 import org.geysermc.connector.entity.Entity;
 import org.geysermc.connector.entity.player.PlayerEntity;
 import org.geysermc.connector.network.session.GeyserSession;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
 
 /**
  * Each session has its own EntityCache in the occasion that an entity packet is sent specifically
  * for that player (e.g. seeing vanished players from /vanish)
+ * <p>
+ * Entities are mostly added and removed by the downstream thread, but players are also spawned from the upstream
+ * thread, and everything is looked up from everywhere. The primitive entity maps are guarded by one
+ * {@link StampedLock}; lookups take its read lock, so they don't block each other. Tickables are published as an
+ * immutable array, and players and boss bars are kept in concurrent maps.
  */
 public class EntityCache {
+    private static final Tickable[] NO_TICKABLES = new Tickable[0];
+
     private final GeyserSession session;
 
-    @Getter
-    private Long2ObjectMap<Entity> entities = Long2ObjectMaps.synchronize(new Long2ObjectOpenHashMap<>());
+    private final StampedLock lock = new StampedLock();
+    private final Long2ObjectMap<Entity> entitiesByJavaId = new Long2ObjectOpenHashMap<>();
+    private final Long2ObjectMap<Entity> entitiesByGeyserId = new Long2ObjectOpenHashMap<>();
+    /**
+     * The same entities, by their class. Used to find all entities of a type without checking every entity.
+     */
+    private final Map<Class<?>, Long2ObjectMap<Entity>> entitiesByClass = new HashMap<>();
+    /**
+     * All entities that must be ticked.
+     */
+    private final ObjectLinkedOpenHashSet<Tickable> tickableEntities = new ObjectLinkedOpenHashSet<>();
     /**
-     * A list of all entities that must be ticked.
+     * A copy of {@link #tickableEntities} that can be iterated without locking; rebuilt after it changes.
      */
-    private final List<Tickable> tickableEntities = Collections.synchronizedList(new ArrayList<>());
-    private Long2LongMap entityIdTranslations = Long2LongMaps.synchronize(new Long2LongOpenHashMap());
-    private Map<UUID, PlayerEntity> playerEntities = Collections.synchronizedMap(new HashMap<>());
-    private Map<UUID, BossBar> bossBars = Collections.synchronizedMap(new HashMap<>());
+    private volatile Tickable[] tickableSnapshot = NO_TICKABLES;
+
+    private final Map<UUID, PlayerEntity> playerEntities = new ConcurrentHashMap<>();
+    private final Map<UUID, BossBar> bossBars = new ConcurrentHashMap<>();
     private final Long2LongMap cachedPlayerEntityLinks = Long2LongMaps.synchronize(new Long2LongOpenHashMap());
 
     @Getter
     private final AtomicLong nextEntityId = new AtomicLong(2L);
 
+    /**
+     * Hides far away entities from the client. Null if entity culling is disabled.
+     */
+    @Getter
+    private final EntityInterestManager interestManager;
+    /**
+     * Sends far away entity movement less often. Null if movement throttling is disabled.
+     */
+    @Getter
+    private final EntityMovementThrottle movementThrottle;
+
     public EntityCache(GeyserSession session) {
         this.session = session;
         cachedPlayerEntityLinks.defaultReturnValue(-1L);
+
+        int cullingDistance = session.getConnector().getConfig().getEntityCullingDistance();
+        this.interestManager = cullingDistance > 0 ? new EntityInterestManager(session, this, cullingDistance) : null;
+        GeyserConfiguration.IEntityMovementThrottlingConfiguration throttlingConfig = session.getConnector().getConfig().getEntityMovementThrottling();
+        this.movementThrottle = throttlingConfig.isEnabled() ? new EntityMovementThrottle(session, throttlingConfig) : null;
     }
 
     public void spawnEntity(Entity entity) {
         if (cacheEntity(entity)) {
-            entity.spawnEntity(session);
+            if (interestManager == null || !interestManager.cullOnSpawn(entity)) {
+                entity.spawnEntity(session);
+            }
 
             if (entity instanceof Tickable) {
                 // Start ticking it
-                tickableEntities.add((Tickable) entity);
+                long stamp = lock.writeLock();
+                try {
+                    if (tickableEntities.add((Tickable) entity)) {
+                        tickableSnapshot = null;
+                    }
+                } finally {
+                    lock.unlockWrite(stamp);
+                }
             }
         }
     }
 
     public boolean cacheEntity(Entity entity) {
-        // Check to see if the entity exists, otherwise we can end up with duplicated mobs
-        if (!entityIdTranslations.containsKey(entity.getEntityId())) {
-            entityIdTranslations.put(entity.getEntityId(), entity.getGeyserId());
-            entities.put(entity.getGeyserId(), entity);
+        long stamp = lock.writeLock();
+        try {
+            // Check to see if the entity exists, otherwise we can end up with duplicated mobs
+            if (entitiesByJavaId.containsKey(entity.getEntityId())) {
+                return false;
+            }
+            entitiesByJavaId.put(entity.getEntityId(), entity);
+            entitiesByGeyserId.put(entity.getGeyserId(), entity);
+            entitiesByClass.computeIfAbsent(entity.getClass(), type -> new Long2ObjectOpenHashMap<>()).put(entity.getGeyserId(), entity);
             return true;
+        } finally {
+            lock.unlockWrite(stamp);
         }
-        return false;
     }
 
     public boolean removeEntity(Entity entity, boolean force) {
-        if (entity != null && entity.isValid() && (force || entity.despawnEntity(session))) {
-            long geyserId = entityIdTranslations.remove(entity.getEntityId());
-            entities.remove(geyserId);
+        if (entity != null && (entity.isValid() || isCulled(entity)) && (force || entity.despawnEntity(session))) {
+            long stamp = lock.writeLock();
+            try {
+                // Only remove the mapping if it still belongs to this entity
+                if (entitiesByJavaId.get(entity.getEntityId()) == entity) {
+                    entitiesByJavaId.remove(entity.getEntityId());
+                }
+                entitiesByGeyserId.remove(entity.getGeyserId());
+                Long2ObjectMap<Entity> entitiesOfClass = entitiesByClass.get(entity.getClass());
+                if (entitiesOfClass != null) {
+                    entitiesOfClass.remove(entity.getGeyserId());
+                }
 
-            if (entity instanceof Tickable) {
-                tickableEntities.remove(entity);
+                if (entity instanceof Tickable && tickableEntities.remove(entity)) {
+                    tickableSnapshot = null;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+
+            if (interestManager != null) {
+                interestManager.remove(entity);
+            }
+            if (movementThrottle != null) {
+                movementThrottle.remove(entity);
             }
             return true;
         }
@@ -97,29 +168,81 @@ public class EntityCache {
     }
 
     public void removeAllEntities() {
-        List<Entity> entities = new ArrayList<>(session.getEntityCache().getEntities().values());
+        List<Entity> entities;
+        long stamp = lock.readLock();
+        try {
+            entities = new ArrayList<>(entitiesByGeyserId.values());
+        } finally {
+            lock.unlockRead(stamp);
+        }
         for (Entity entity : entities) {
-            session.getEntityCache().removeEntity(entity, false);
+            removeEntity(entity, false);
         }
 
         // As a precaution
         cachedPlayerEntityLinks.clear();
     }
 
+    /**
+     * @return true if the entity is cached, but currently not spawned on the client because it is too far away
+     */
+    public boolean isCulled(Entity entity) {
+        return interestManager != null && interestManager.isCulled(entity);
+    }
+
     public Entity getEntityByGeyserId(long geyserId) {
-        return entities.get(geyserId);
+        return get(entitiesByGeyserId, geyserId);
     }
 
     public Entity getEntityByJavaId(long javaId) {
-        return entities.get(entityIdTranslations.get(javaId));
+        return get(entitiesByJavaId, javaId);
+    }
+
+    private Entity get(Long2ObjectMap<Entity> entities, long id) {
+        // An optimistic read isn't safe here: probing the open hash map while it's rehashed can loop forever
+        long stamp = lock.readLock();
+        try {
+            return entities.get(id);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Runs the action for every cached entity. Entities must not be added or removed from within the action.
+     */
+    public void forEachEntity(Consumer<Entity> action) {
+        long stamp = lock.readLock();
+        try {
+            for (Entity entity : entitiesByGeyserId.values()) {
+                action.accept(entity);
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
     }
 
     public <T extends Entity> Set<T> getEntitiesByType(Class<T> entityType) {
         Set<T> entitiesOfType = new ObjectOpenHashSet<>();
-        for (Entity entity : (entityType == PlayerEntity.class ? playerEntities : entities).values()) {
-            if (entity.is(entityType)) {
-                entitiesOfType.add(entity.as(entityType));
+        if (entityType == PlayerEntity.class) {
+            // Also includes players that have not been spawned
+            for (PlayerEntity entity : playerEntities.values()) {
+                entitiesOfType.add(entityType.cast(entity));
+            }
+            return entitiesOfType;
+        }
+
+        long stamp = lock.readLock();
+        try {
+            for (Map.Entry<Class<?>, Long2ObjectMap<Entity>> entry : entitiesByClass.entrySet()) {
+                if (entityType.isAssignableFrom(entry.getKey())) {
+                    for (Entity entity : entry.getValue().values()) {
+                        entitiesOfType.add(entityType.cast(entity));
+                    }
+                }
             }
+        } finally {
+            lock.unlockRead(stamp);
         }
         return entitiesOfType;
     }
@@ -157,10 +280,18 @@ public class EntityCache {
     }
 
     public void clear() {
-        entities = null;
-        entityIdTranslations = null;
-        playerEntities = null;
-        bossBars = null;
+        long stamp = lock.writeLock();
+        try {
+            entitiesByJavaId.clear();
+            entitiesByGeyserId.clear();
+            entitiesByClass.clear();
+            tickableEntities.clear();
+            tickableSnapshot = NO_TICKABLES;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        playerEntities.clear();
+        bossBars.clear();
     }
 
     public long getCachedPlayerEntityLink(long playerId) {
@@ -171,7 +302,22 @@ public class EntityCache {
         cachedPlayerEntityLinks.put(playerId, linkedEntityId);
     }
 
-    public List<Tickable> getTickableEntities() {
-        return tickableEntities;
+    /**
+     * @return all entities that must be ticked. The array must not be modified, and can be iterated without
+     * locking or allocating while entities are added and removed.
+     */
+    public Tickable[] getTickableEntities() {
+        Tickable[] tickables = tickableSnapshot;
+        if (tickables == null) {
+            long stamp = lock.readLock();
+            try {
+                // Writers are locked out until we're done, so this can't overwrite a newer change
+                tickables = tickableEntities.toArray(new Tickable[0]);
+                tickableSnapshot = tickables;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return tickables;
     }
 }
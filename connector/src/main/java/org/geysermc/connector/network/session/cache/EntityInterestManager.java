@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.network.session.cache;
+
+import com.nukkitx.math.vector.Vector3f;
+import com.nukkitx.protocol.bedrock.data.entity.EntityData;
+import com.nukkitx.protocol.bedrock.data.entity.EntityFlag;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import lombok.Getter;
+import org.geysermc.connector.entity.Entity;
+import org.geysermc.connector.entity.ExpOrbEntity;
+import org.geysermc.connector.entity.ItemEntity;
+import org.geysermc.connector.entity.LivingEntity;
+import org.geysermc.connector.entity.Tickable;
+import org.geysermc.connector.entity.living.merchant.VillagerEntity;
+import org.geysermc.connector.entity.player.PlayerEntity;
+import org.geysermc.connector.network.session.GeyserSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hides entities that are far away from the Bedrock player. They stay in the {@link EntityCache} and keep their
+ * state up to date, but the Bedrock client only learns about them once the player comes within the culling distance.
+ * <p>
+ * Only entities that can be removed and added again without losing anything are culled: mobs, dropped items,
+ * experience orbs and armor stands that are not riding, ridden or leashed.
+ */
+public class EntityInterestManager {
+    /**
+     * How often the distances to all entities are checked
+     */
+    private static final int UPDATE_INTERVAL_TICKS = 10;
+    /**
+     * How much further than the culling distance an entity has to be before it is hidden again, so entities
+     * on the edge don't keep popping in and out.
+     */
+    private static final int HYSTERESIS = 8;
+
+    @Getter
+    private static final CullingStats stats = new CullingStats();
+
+    private final GeyserSession session;
+    private final EntityCache entityCache;
+    private final double showDistanceSquared;
+    private final double hideDistanceSquared;
+
+    /**
+     * The Geyser IDs of all entities that are cached but not spawned on the client
+     */
+    private final LongSet culledEntities = new LongOpenHashSet();
+    private int ticks = 0;
+
+    public EntityInterestManager(GeyserSession session, EntityCache entityCache, int distance) {
+        this.session = session;
+        this.entityCache = entityCache;
+        this.showDistanceSquared = (double) distance * distance;
+        this.hideDistanceSquared = (double) (distance + HYSTERESIS) * (distance + HYSTERESIS);
+    }
+
+    /**
+     * Called when an entity is spawned by the Java server.
+     *
+     * @return true if the entity should not be spawned on the client for now
+     */
+    public boolean cullOnSpawn(Entity entity) {
+        if (isCullable(entity) && distanceSquared(entity) > showDistanceSquared) {
+            synchronized (culledEntities) {
+                culledEntities.add(entity.getGeyserId());
+            }
+            stats.culled.increment();
+            return true;
+        }
+        return false;
+    }
+
+    public boolean isCulled(Entity entity) {
+        synchronized (culledEntities) {
+            return culledEntities.contains(entity.getGeyserId());
+        }
+    }
+
+    /**
+     * Forgets about an entity that has been removed from the cache.
+     */
+    public void remove(Entity entity) {
+        synchronized (culledEntities) {
+            culledEntities.remove(entity.getGeyserId());
+        }
+    }
+
+    public int getCulledCount() {
+        synchronized (culledEntities) {
+            return culledEntities.size();
+        }
+    }
+
+    public void tick() {
+        if (++ticks < UPDATE_INTERVAL_TICKS) {
+            return;
+        }
+        ticks = 0;
+
+        List<Entity> toShow = new ArrayList<>();
+        List<Entity> toHide = new ArrayList<>();
+        synchronized (culledEntities) {
+            entityCache.forEachEntity(entity -> {
+                if (culledEntities.contains(entity.getGeyserId())) {
+                    // Also show entities that can no longer be culled, i.e. because something started riding them
+                    if (!isCullable(entity) || distanceSquared(entity) <= showDistanceSquared) {
+                        toShow.add(entity);
+                    }
+                } else if (entity.isValid() && isCullable(entity) && distanceSquared(entity) > hideDistanceSquared) {
+                    toHide.add(entity);
+                }
+            });
+        }
+
+        for (Entity entity : toHide) {
+            if (entity.despawnEntity(session)) {
+                synchronized (culledEntities) {
+                    culledEntities.add(entity.getGeyserId());
+                }
+                stats.culled.increment();
+            }
+        }
+        for (Entity entity : toShow) {
+            synchronized (culledEntities) {
+                culledEntities.remove(entity.getGeyserId());
+            }
+            show(entity);
+            stats.shown.increment();
+        }
+    }
+
+    private void show(Entity entity) {
+        entity.spawnEntity(session);
+        if (entity instanceof LivingEntity) {
+            // Equipment updates are dropped while an entity isn't spawned
+            LivingEntity livingEntity = (LivingEntity) entity;
+            livingEntity.updateArmor(session);
+            livingEntity.updateMainHand(session);
+            livingEntity.updateOffHand(session);
+        }
+    }
+
+    private boolean isCullable(Entity entity) {
+        if (entity instanceof PlayerEntity || entity instanceof VillagerEntity) {
+            // Villagers send their own movement packets for sleeping
+            return false;
+        }
+        if (entity instanceof Tickable && !(entity instanceof ItemEntity)) {
+            // Projectiles, squids and the ender dragon are simulated by us and may rely on being spawned
+            return false;
+        }
+        if (!(entity instanceof LivingEntity || entity instanceof ItemEntity || entity instanceof ExpOrbEntity)) {
+            // Boats, minecarts, paintings, item frames etc. are either part of the world or ridden
+            return false;
+        }
+        return entity.getPassengers().isEmpty() && !entity.getMetadata().getFlags().getFlag(EntityFlag.RIDING)
+                && entity.getMetadata().getLong(EntityData.LEASH_HOLDER_EID) == -1L;
+    }
+
+    private double distanceSquared(Entity entity) {
+        Vector3f playerPosition = session.getPlayerEntity().getPosition();
+        Vector3f position = entity.getPosition();
+        double x = position.getX() - playerPosition.getX();
+        double y = position.getY() - playerPosition.getY();
+        double z = position.getZ() - playerPosition.getZ();
+        return x * x + y * y + z * z;
+    }
+
+    /**
+     * How many entities have been hidden from and shown to Bedrock players because of their distance.
+     */
+    public static class CullingStats {
+        private final LongAdder culled = new LongAdder();
+        private final LongAdder shown = new LongAdder();
+
+        private CullingStats() {
+        }
+
+        public long getCulled() {
+            return culled.sum();
+        }
+
+        public long getShown() {
+            return shown.sum();
+        }
+    }
+}
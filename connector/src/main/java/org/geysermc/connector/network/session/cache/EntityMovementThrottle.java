@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.network.session.cache;
+
+import com.nukkitx.math.vector.Vector3f;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import org.geysermc.connector.configuration.GeyserConfiguration;
+import org.geysermc.connector.entity.AbstractArrowEntity;
+import org.geysermc.connector.entity.Entity;
+import org.geysermc.connector.entity.FireworkEntity;
+import org.geysermc.connector.entity.ThrowableEntity;
+import org.geysermc.connector.entity.player.PlayerEntity;
+import org.geysermc.connector.entity.type.EntityType;
+import org.geysermc.connector.network.session.GeyserSession;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends the movement of far away entities less often. Entities within the full rate distance are updated on every
+ * move; the further away an entity is, the more ticks have to pass between two updates. Moves in between are not
+ * lost: the latest position is sent once the entity is due, and since the position is always absolute, the client
+ * simply interpolates to it.
+ */
+public class EntityMovementThrottle {
+    /**
+     * Roughly what a skipped MoveEntityAbsolutePacket would have cost before compression: the packet ID, flags,
+     * three floats for the position and three bytes for the rotation. The runtime ID is added on top.
+     */
+    private static final int MOVE_PACKET_BASE_SIZE = 17;
+
+    private static final LongAdder totalSkippedPackets = new LongAdder();
+    private static final LongAdder totalSavedBytes = new LongAdder();
+
+    private final GeyserSession session;
+    private final int maxInterval;
+    /**
+     * The full rate distance of every entity type, by ordinal; -1 if that type is never throttled
+     */
+    private final int[] fullRateDistances = new int[EntityType.values().length];
+
+    /**
+     * The tick every entity last had its movement sent at
+     */
+    private final Long2IntMap lastSentTicks = new Long2IntOpenHashMap();
+    /**
+     * Entities that have moved since their last movement update was sent
+     */
+    private final Long2ObjectMap<Entity> pendingEntities = new Long2ObjectLinkedOpenHashMap<>();
+    private int currentTick = 0;
+
+    private long skippedPackets = 0;
+    private long savedBytes = 0;
+
+    public EntityMovementThrottle(GeyserSession session, GeyserConfiguration.IEntityMovementThrottlingConfiguration config) {
+        this.session = session;
+        this.maxInterval = Math.max(1, config.getMaxInterval());
+
+        Arrays.fill(fullRateDistances, Math.max(1, config.getFullRateDistance()));
+        if (config.getEntityTypes() != null) {
+            for (Map.Entry<String, Integer> entry : config.getEntityTypes().entrySet()) {
+                try {
+                    int distance = entry.getValue();
+                    fullRateDistances[EntityType.valueOf(entry.getKey().toUpperCase(Locale.ROOT)).ordinal()] = distance < 0 ? -1 : Math.max(1, distance);
+                } catch (IllegalArgumentException e) {
+                    session.getConnector().getLogger().debug("Unknown entity type in entity-movement-throttling: " + entry.getKey());
+                }
+            }
+        }
+
+        // Entities that have never been sent are always due
+        lastSentTicks.defaultReturnValue(-maxInterval);
+    }
+
+    /**
+     * Decides whether a movement update of this entity can be sent right away. If not, the entity is remembered
+     * and its latest position is sent by {@link #tick()} once it is due.
+     *
+     * @param teleported whether the move is a teleport, which is never held back
+     * @return true if the movement should be sent now
+     */
+    public synchronized boolean shouldSend(Entity entity, boolean teleported) {
+        long geyserId = entity.getGeyserId();
+        int interval = teleported ? 1 : getInterval(entity);
+        if (currentTick - lastSentTicks.get(geyserId) >= interval) {
+            pendingEntities.remove(geyserId);
+            if (interval > 1) {
+                lastSentTicks.put(geyserId, currentTick);
+            }
+            return true;
+        }
+
+        if (pendingEntities.put(geyserId, entity) != null) {
+            // This replaces an update that was never sent
+            recordSkipped(geyserId);
+        }
+        return false;
+    }
+
+    /**
+     * Sends the movement of the entity now if it is being held back. Used for teleports, which may not arrive
+     * with the teleported flag.
+     */
+    public void flush(Entity entity) {
+        synchronized (this) {
+            if (pendingEntities.remove(entity.getGeyserId()) == null) {
+                return;
+            }
+            lastSentTicks.put(entity.getGeyserId(), currentTick);
+        }
+        entity.sendMovePacket(session, false);
+    }
+
+    /**
+     * Forgets about an entity that has been removed from the cache.
+     */
+    public synchronized void remove(Entity entity) {
+        pendingEntities.remove(entity.getGeyserId());
+        lastSentTicks.remove(entity.getGeyserId());
+    }
+
+    public void tick() {
+        Entity[] due;
+        synchronized (this) {
+            currentTick++;
+            if (pendingEntities.isEmpty()) {
+                return;
+            }
+
+            int dueCount = 0;
+            due = new Entity[pendingEntities.size()];
+            ObjectIterator<Long2ObjectMap.Entry<Entity>> iterator = Long2ObjectMaps.fastIterator(pendingEntities);
+            while (iterator.hasNext()) {
+                Entity entity = iterator.next().getValue();
+                if (currentTick - lastSentTicks.get(entity.getGeyserId()) >= getInterval(entity)) {
+                    iterator.remove();
+                    lastSentTicks.put(entity.getGeyserId(), currentTick);
+                    due[dueCount++] = entity;
+                }
+            }
+            if (dueCount == 0) {
+                return;
+            }
+            due = Arrays.copyOf(due, dueCount);
+        }
+
+        for (Entity entity : due) {
+            if (entity.isValid()) {
+                entity.sendMovePacket(session, false);
+            }
+        }
+    }
+
+    private int getInterval(Entity entity) {
+        if (entity instanceof PlayerEntity || entity instanceof ThrowableEntity || entity instanceof AbstractArrowEntity
+                || entity instanceof FireworkEntity || !entity.getPassengers().isEmpty()) {
+            // Players and projectiles need to be accurate, and the player may be riding this entity
+            return 1;
+        }
+        int fullRateDistance = fullRateDistances[entity.getEntityType().ordinal()];
+        if (fullRateDistance == -1) {
+            return 1;
+        }
+
+        Vector3f playerPosition = session.getPlayerEntity().getPosition();
+        double distance = entity.getPosition().distance(playerPosition);
+        if (distance <= fullRateDistance) {
+            return 1;
+        }
+        // Double the interval for every full rate distance further away
+        int doublings = Math.min(30, (int) (distance / fullRateDistance));
+        return Math.min(maxInterval, 1 << doublings);
+    }
+
+    private void recordSkipped(long geyserId) {
+        int bytes = MOVE_PACKET_BASE_SIZE + varLongSize(geyserId);
+        skippedPackets++;
+        savedBytes += bytes;
+        totalSkippedPackets.increment();
+        totalSavedBytes.add(bytes);
+    }
+
+    private static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * @return how many movement updates have not been sent to this player because a newer one replaced them
+     */
+    public synchronized long getSkippedPackets() {
+        return skippedPackets;
+    }
+
+    /**
+     * @return an estimate of the bytes not sent to this player because of skipped movement updates
+     */
+    public synchronized long getSavedBytes() {
+        return savedBytes;
+    }
+
+    public static long getTotalSkippedPackets() {
+        return totalSkippedPackets.sum();
+    }
+
+    public static long getTotalSavedBytes() {
+        return totalSavedBytes.sum();
+    }
+}
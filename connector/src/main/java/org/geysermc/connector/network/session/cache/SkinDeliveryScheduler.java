@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.network.session.cache;
+
+import com.nukkitx.math.vector.Vector3f;
+import com.nukkitx.protocol.bedrock.data.skin.SerializedSkin;
+import com.nukkitx.protocol.bedrock.packet.PlayerListPacket;
+import org.geysermc.connector.entity.player.PlayerEntity;
+import org.geysermc.connector.network.session.GeyserSession;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits how many bytes of player skins are sent to a Bedrock player per second.
+ * <p>
+ * A player list entry carrying a skin is tens of kilobytes, and a client joining a busy server would otherwise get
+ * all of them at once, at the same time as its first chunks. Instead, players are added to the list with a default
+ * skin, and their real skin entries are queued here and sent a few at a time, players that are spawned and close by
+ * first.
+ */
+public class SkinDeliveryScheduler {
+    private static final LongAdder totalSentSkins = new LongAdder();
+    private static final LongAdder totalSentBytes = new LongAdder();
+
+    private final GeyserSession session;
+    /**
+     * How many skin bytes may be sent per second; 0 or less if skins are sent right away
+     */
+    private final int bytesPerSecond;
+
+    /**
+     * Skin entries waiting to be sent, by player UUID. A newer entry for the same player replaces the queued one.
+     */
+    private final Map<UUID, PendingSkin> pendingSkins = new LinkedHashMap<>();
+    private long pendingBytes = 0;
+    /**
+     * How many bytes may still be sent. Sending a skin may take it below zero, which is then paid back over the
+     * next ticks, so skins larger than one tick's allowance still go out.
+     */
+    private long allowance;
+
+    public SkinDeliveryScheduler(GeyserSession session, int kilobytesPerSecond) {
+        this.session = session;
+        this.bytesPerSecond = kilobytesPerSecond * 1024;
+        this.allowance = bytesPerSecond;
+    }
+
+    /**
+     * @return true if skins are held back instead of being sent right away
+     */
+    public boolean isRateLimited() {
+        return bytesPerSecond > 0;
+    }
+
+    /**
+     * Sends the player list entry carrying this player's skin, or queues it until there is room for it.
+     * The local player's own skin is never held back.
+     */
+    public void submit(PlayerEntity entity, PlayerListPacket.Entry entry) {
+        if (!isRateLimited() || entity == session.getPlayerEntity()) {
+            send(entity, entry);
+            return;
+        }
+
+        PendingSkin pendingSkin = new PendingSkin(entity, entry);
+        synchronized (this) {
+            PendingSkin previous = pendingSkins.put(entity.getUuid(), pendingSkin);
+            if (previous != null) {
+                pendingBytes -= previous.size;
+            }
+            pendingBytes += pendingSkin.size;
+        }
+    }
+
+    /**
+     * Drops the queued skin of a player that is no longer known to this session.
+     */
+    public synchronized void remove(UUID uuid) {
+        PendingSkin previous = pendingSkins.remove(uuid);
+        if (previous != null) {
+            pendingBytes -= previous.size;
+        }
+    }
+
+    public void tick() {
+        if (!isRateLimited()) {
+            return;
+        }
+
+        List<PendingSkin> due;
+        synchronized (this) {
+            allowance = Math.min(bytesPerSecond, allowance + bytesPerSecond / 20);
+            if (pendingSkins.isEmpty() || allowance <= 0 || !session.getUpstream().isInitialized()) {
+                return;
+            }
+
+            Vector3f playerPosition = session.getPlayerEntity().getPosition();
+            List<PendingSkin> candidates = new ArrayList<>(pendingSkins.values());
+            for (PendingSkin pendingSkin : candidates) {
+                pendingSkin.priority = getPriority(pendingSkin.entity, playerPosition);
+            }
+            // Stable, so players that aren't spawned keep the order they were queued in
+            candidates.sort(Comparator.comparingDouble(pendingSkin -> pendingSkin.priority));
+
+            due = new ArrayList<>();
+            for (PendingSkin pendingSkin : candidates) {
+                if (allowance <= 0) {
+                    break;
+                }
+                pendingSkins.remove(pendingSkin.entity.getUuid());
+                pendingBytes -= pendingSkin.size;
+                allowance -= pendingSkin.size;
+                due.add(pendingSkin);
+            }
+        }
+
+        for (PendingSkin pendingSkin : due) {
+            send(pendingSkin.entity, pendingSkin.entry);
+        }
+    }
+
+    /**
+     * @return the squared distance to a spawned player, or {@link Double#MAX_VALUE} if the player is only in the
+     *         player list
+     */
+    private double getPriority(PlayerEntity entity, Vector3f playerPosition) {
+        if (session.getEntityCache().getEntityByGeyserId(entity.getGeyserId()) != entity) {
+            return Double.MAX_VALUE;
+        }
+        return entity.getPosition().distanceSquared(playerPosition);
+    }
+
+    private void send(PlayerEntity entity, PlayerListPacket.Entry entry) {
+        if (session.isClosed()) {
+            return;
+        }
+
+        PlayerListPacket playerAddPacket = new PlayerListPacket();
+        playerAddPacket.setAction(PlayerListPacket.Action.ADD);
+        playerAddPacket.getEntries().add(entry);
+        session.sendUpstreamPacket(playerAddPacket);
+
+        if (!entity.isPlayerList()) {
+            PlayerListPacket playerRemovePacket = new PlayerListPacket();
+            playerRemovePacket.setAction(PlayerListPacket.Action.REMOVE);
+            playerRemovePacket.getEntries().add(entry);
+            session.sendUpstreamPacket(playerRemovePacket);
+        }
+
+        totalSentSkins.increment();
+        totalSentBytes.add(getSize(entry.getSkin()));
+    }
+
+    /**
+     * @return how many skins are waiting to be sent to this player
+     */
+    public synchronized int getPendingSkins() {
+        return pendingSkins.size();
+    }
+
+    /**
+     * @return the size of the skins waiting to be sent to this player
+     */
+    public synchronized long getPendingBytes() {
+        return pendingBytes;
+    }
+
+    public static long getTotalSentSkins() {
+        return totalSentSkins.sum();
+    }
+
+    public static long getTotalSentBytes() {
+        return totalSentBytes.sum();
+    }
+
+    private static int getSize(SerializedSkin skin) {
+        return skin.getSkinData().getImage().length + skin.getCapeData().getImage().length + skin.getGeometryData().length();
+    }
+
+    private static class PendingSkin {
+        private final PlayerEntity entity;
+        private final PlayerListPacket.Entry entry;
+        private final int size;
+        private double priority;
+
+        private PendingSkin(PlayerEntity entity, PlayerListPacket.Entry entry) {
+            this.entity = entity;
+            this.entry = entry;
+            this.size = getSize(entry.getSkin());
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.network.session.cache;
+
+import com.github.steveice10.mc.auth.data.GameProfile;
+import com.nukkitx.math.vector.Vector3f;
+import com.nukkitx.math.vector.Vector3i;
+import com.nukkitx.protocol.bedrock.data.entity.EntityFlag;
+import lombok.Getter;
+import org.geysermc.connector.entity.player.SkullPlayerEntity;
+import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.skin.SkullSkinManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps track of all custom skulls in loaded chunks, but only shows the ones closest to the player.
+ * <p>
+ * Custom skulls are shown using a fake player entity each, which is expensive for the client if there are a lot of
+ * them. Instead of spawning an entity for every skull as soon as its chunk loads, the nearest skulls within the render
+ * distance are picked every few ticks, and entities are spawned and removed as the player moves.
+ */
+public class SkullCache {
+    private static final int UPDATE_INTERVAL_TICKS = 10;
+    /**
+     * How far the player has to move before the visible skulls are picked again
+     */
+    private static final double UPDATE_MOVE_DISTANCE_SQUARED = 2 * 2;
+    /**
+     * How many skull entities may be spawned in one update, so walking into a decorated area doesn't spawn
+     * everything at once
+     */
+    private static final int MAX_SPAWNS_PER_UPDATE = 16;
+
+    private final GeyserSession session;
+    private final int maxVisibleSkulls;
+    private final double renderDistanceSquared;
+
+    private final BlockPositionIndex<Skull> skulls = new BlockPositionIndex<>();
+    private final List<Skull> visibleSkulls = new ArrayList<>();
+
+    private Vector3f lastUpdatePosition = null;
+    /**
+     * Whether skulls were added or removed since the last update, or the last update didn't spawn everything
+     */
+    private boolean dirty = false;
+    private int ticks = 0;
+
+    public SkullCache(GeyserSession session) {
+        this.session = session;
+        int maxVisibleSkulls = session.getConnector().getConfig().getMaxVisibleCustomSkulls();
+        this.maxVisibleSkulls = maxVisibleSkulls <= 0 ? Integer.MAX_VALUE : maxVisibleSkulls;
+        int renderDistance = session.getConnector().getConfig().getCustomSkullRenderDistance();
+        this.renderDistanceSquared = (double) renderDistance * renderDistance;
+    }
+
+    /**
+     * Adds a custom skull, replacing any skull that was at the same position before. It is shown on the next
+     * update if it is close enough.
+     */
+    public synchronized void putSkull(Vector3i position, GameProfile profile, int blockState, Vector3f entityPosition, Vector3f rotation) {
+        Skull previous = skulls.put(position, new Skull(position, profile, blockState, entityPosition, rotation));
+        if (previous != null) {
+            despawn(previous);
+        }
+        dirty = true;
+    }
+
+    public synchronized void removeSkull(Vector3i position) {
+        Skull skull = skulls.remove(position);
+        if (skull != null) {
+            despawn(skull);
+            dirty = true;
+        }
+    }
+
+    public synchronized void removeChunk(int chunkX, int chunkZ) {
+        for (Skull skull : skulls.removeChunk(chunkX, chunkZ)) {
+            despawn(skull);
+            dirty = true;
+        }
+    }
+
+    /**
+     * @return the skull at the given position, or null
+     */
+    public synchronized Skull getSkull(Vector3i position) {
+        return skulls.get(position);
+    }
+
+    public synchronized boolean isEmpty() {
+        return skulls.isEmpty();
+    }
+
+    /**
+     * Forgets about all skulls without despawning them, as the client already removed them when changing dimension.
+     */
+    public synchronized void clear() {
+        skulls.clear();
+        visibleSkulls.clear();
+        lastUpdatePosition = null;
+    }
+
+    public void tick() {
+        if (++ticks < UPDATE_INTERVAL_TICKS) {
+            return;
+        }
+        ticks = 0;
+        updateVisibleSkulls(false);
+    }
+
+    /**
+     * Picks the skulls that should be visible and spawns or removes their entities.
+     *
+     * @param force whether to update even if the player didn't move and no skulls changed
+     */
+    public synchronized void updateVisibleSkulls(boolean force) {
+        if (!session.getUpstream().isInitialized()) {
+            return;
+        }
+        Vector3f playerPosition = session.getPlayerEntity().getPosition();
+        if (!force && !dirty && lastUpdatePosition != null && lastUpdatePosition.distanceSquared(playerPosition) < UPDATE_MOVE_DISTANCE_SQUARED) {
+            return;
+        }
+        lastUpdatePosition = playerPosition;
+        dirty = false;
+
+        List<Skull> inRange = new ArrayList<>();
+        skulls.forEach(skull -> {
+            skull.distanceSquared = skull.entityPosition.distanceSquared(playerPosition);
+            if (skull.distanceSquared <= renderDistanceSquared) {
+                inRange.add(skull);
+            }
+        });
+        if (inRange.size() > maxVisibleSkulls) {
+            inRange.sort(Comparator.comparingDouble(skull -> skull.distanceSquared));
+            // Skulls that are not in the list anymore are despawned below
+            inRange.subList(maxVisibleSkulls, inRange.size()).clear();
+        }
+
+        for (Skull skull : visibleSkulls) {
+            skull.visible = false;
+        }
+        for (Skull skull : inRange) {
+            skull.visible = true;
+        }
+        for (Skull skull : visibleSkulls) {
+            if (!skull.visible) {
+                despawn(skull);
+            }
+        }
+        visibleSkulls.clear();
+
+        int spawned = 0;
+        for (Skull skull : inRange) {
+            if (skull.entity != null && skull.entity.isValid()) {
+                visibleSkulls.add(skull);
+            } else if (spawned < MAX_SPAWNS_PER_UPDATE) {
+                spawn(skull);
+                visibleSkulls.add(skull);
+                spawned++;
+            } else {
+                // Spawn the rest next time
+                skull.visible = false;
+                dirty = true;
+            }
+        }
+    }
+
+    private void spawn(Skull skull) {
+        if (skull.entity == null) {
+            skull.entity = new SkullPlayerEntity(skull.profile, session.getEntityCache().getNextEntityId().incrementAndGet(),
+                    skull.entityPosition, skull.rotation);
+            skull.entity.setBlockState(skull.blockState);
+        }
+        SkullPlayerEntity entity = skull.entity;
+        // Stay invisible until the skin is there
+        entity.getMetadata().getFlags().setFlag(EntityFlag.INVISIBLE, true);
+        entity.spawnEntity(session);
+
+        SkullSkinManager.requestAndHandleSkin(entity, session, (skin -> session.getConnector().getGeneralThreadPool().schedule(() -> {
+            // Delay to minimize split-second "player" pop-in
+            if (entity.isValid()) {
+                entity.getMetadata().getFlags().setFlag(EntityFlag.INVISIBLE, false);
+                entity.updateBedrockMetadata(session);
+            }
+        }, 250, TimeUnit.MILLISECONDS)));
+    }
+
+    private void despawn(Skull skull) {
+        if (skull.entity != null) {
+            skull.entity.despawnEntity(session);
+        }
+        if (skull.visible) {
+            skull.visible = false;
+            visibleSkulls.remove(skull);
+        }
+    }
+
+    /**
+     * A custom skull in a loaded chunk, and its entity if it has been shown.
+     */
+    @Getter
+    public static class Skull {
+        private final Vector3i position;
+        private final GameProfile profile;
+        private final int blockState;
+        private final Vector3f entityPosition;
+        private final Vector3f rotation;
+
+        private SkullPlayerEntity entity;
+        private boolean visible;
+        private double distanceSquared;
+
+        private Skull(Vector3i position, GameProfile profile, int blockState, Vector3f entityPosition, Vector3f rotation) {
+            this.position = position;
+            this.profile = profile;
+            this.blockState = blockState;
+            this.entityPosition = entityPosition;
+            this.rotation = rotation;
+        }
+    }
+}
@@ -34,6 +34,7 @@ import org.geysermc.common.PlatformType;
 import org.geysermc.connector.GeyserConnector;
 import org.geysermc.connector.network.session.GeyserSession;
 import org.geysermc.connector.utils.FileUtils;
+import org.geysermc.connector.utils.GeneratedClassIndex;
 import org.geysermc.connector.utils.LanguageUtils;
 
 import java.util.IdentityHashMap;
@@ -48,7 +49,10 @@ public class PacketTranslatorRegistry<T> {
     private static final ObjectArrayList<Class<?>> IGNORED_PACKETS = new ObjectArrayList<>();
 
     static {
-        for (Class<?> clazz : FileUtils.getGeneratedClassesForAnnotation(Translator.class)) {
+        GeneratedClassIndex index = FileUtils.getGeneratedClassIndex(Translator.class);
+        Class<?>[] classes = index.getClasses();
+        for (int i = 0; i < classes.length; i++) {
+            Class<?> clazz = classes[i];
             Class<?> packet = clazz.getAnnotation(Translator.class).packet();
 
             GeyserConnector.getInstance().getLogger().debug("Found annotated translator: " + clazz.getCanonicalName() + " : " + packet.getSimpleName());
@@ -56,18 +60,18 @@ public class PacketTranslatorRegistry<T> {
             try {
                 if (Packet.class.isAssignableFrom(packet)) {
                     Class<? extends Packet> targetPacket = (Class<? extends Packet>) packet;
-                    PacketTranslator<? extends Packet> translator = (PacketTranslator<? extends Packet>) clazz.newInstance();
+                    PacketTranslator<? extends Packet> translator = (PacketTranslator<? extends Packet>) index.create(i);
 
                     JAVA_TRANSLATOR.translators.put(targetPacket, translator);
                 } else if (BedrockPacket.class.isAssignableFrom(packet)) {
                     Class<? extends BedrockPacket> targetPacket = (Class<? extends BedrockPacket>) packet;
-                    PacketTranslator<? extends BedrockPacket> translator = (PacketTranslator<? extends BedrockPacket>) clazz.newInstance();
+                    PacketTranslator<? extends BedrockPacket> translator = (PacketTranslator<? extends BedrockPacket>) index.create(i);
 
                     BEDROCK_TRANSLATOR.translators.put(targetPacket, translator);
                 } else {
                     GeyserConnector.getInstance().getLogger().error("Class " + clazz.getCanonicalName() + " is annotated as a translator but has an invalid target packet.");
                 }
-            } catch (InstantiationException | IllegalAccessException e) {
+            } catch (IllegalArgumentException e) {
                 GeyserConnector.getInstance().getLogger().error("Could not instantiate annotated translator " + clazz.getCanonicalName());
             }
         }
@@ -68,6 +68,11 @@ public class CollisionManager {
     @Setter
     private boolean onScaffolding;
 
+    /**
+     * Reused between movements to hold the block states around the player
+     */
+    private int[] collidableBlockStates = new int[0];
+
     /**
      * Additional space where blocks are checked, which is helpful for fixing NoCheatPlus's Passable check.
      * This check doesn't allow players right up against the block, so they must be pushed slightly away.
@@ -174,6 +179,23 @@ public class CollisionManager {
     public List<Vector3i> getCollidableBlocks(BoundingBox box) {
         List<Vector3i> blocks = new ArrayList<>();
 
+        int[] bounds = getCollisionBounds(box);
+        for (int y = bounds[1]; y <= bounds[4]; y++) {
+            for (int x = bounds[0]; x <= bounds[3]; x++) {
+                for (int z = bounds[2]; z <= bounds[5]; z++) {
+                    blocks.add(Vector3i.from(x, y, z));
+                }
+            }
+        }
+
+        return blocks;
+    }
+
+    /**
+     * @return the block coordinates that could collide with the bounding box, as
+     * {minX, minY, minZ, maxX, maxY, maxZ}, all inclusive
+     */
+    private static int[] getCollisionBounds(BoundingBox box) {
         Vector3d position = Vector3d.from(box.getMiddleX(),
                 box.getMiddleY() - (box.getSizeY() / 2),
                 box.getMiddleZ());
@@ -190,15 +212,7 @@ public class CollisionManager {
         int minCollisionZ = (int) Math.floor(position.getZ() - ((box.getSizeZ() / 2) + COLLISION_TOLERANCE));
         int maxCollisionZ = (int) Math.floor(position.getZ() + (box.getSizeZ() / 2) + COLLISION_TOLERANCE);
 
-        for (int y = minCollisionY; y < maxCollisionY + 1; y++) {
-            for (int x = minCollisionX; x < maxCollisionX + 1; x++) {
-                for (int z = minCollisionZ; z < maxCollisionZ + 1; z++) {
-                    blocks.add(Vector3i.from(x, y, z));
-                }
-            }
-        }
-
-        return blocks;
+        return new int[] {minCollisionX, minCollisionY, minCollisionZ, maxCollisionX, maxCollisionY, maxCollisionZ};
     }
 
     public List<Vector3i> getPlayerCollidableBlocks() {
@@ -216,23 +230,34 @@ public class CollisionManager {
         touchingScaffolding = false;
         onScaffolding = false;
 
-        List<Vector3i> collidableBlocks = getPlayerCollidableBlocks();
+        // Fetch all blocks at once; the world manager can do this much faster than block by block
+        int[] bounds = getCollisionBounds(playerBoundingBox);
+        int sizeX = bounds[3] - bounds[0] + 1;
+        int sizeZ = bounds[5] - bounds[2] + 1;
+        int volume = (bounds[4] - bounds[1] + 1) * sizeX * sizeZ;
+        if (collidableBlockStates.length < volume) {
+            collidableBlockStates = new int[volume];
+        }
+        session.getConnector().getWorldManager().getBlocksIn(session, bounds[0], bounds[1], bounds[2],
+                bounds[3], bounds[4], bounds[5], collidableBlockStates);
 
         // Used when correction code needs to be run before the main correction
-        for (Vector3i blockPos : collidableBlocks) {
-            BlockCollision blockCollision = BlockUtils.getCollisionAt(
-                    session, blockPos.getX(), blockPos.getY(), blockPos.getZ()
-            );
+        for (int i = 0; i < volume; i++) {
+            int z = bounds[2] + i % sizeZ;
+            int x = bounds[0] + (i / sizeZ) % sizeX;
+            int y = bounds[1] + i / (sizeZ * sizeX);
+            BlockCollision blockCollision = BlockUtils.getCollision(collidableBlockStates[i], x, y, z);
             if (blockCollision != null) {
                 blockCollision.beforeCorrectPosition(playerBoundingBox);
             }
         }
 
         // Main correction code
-        for (Vector3i blockPos : collidableBlocks) {
-            BlockCollision blockCollision = BlockUtils.getCollisionAt(
-                    session, blockPos.getX(), blockPos.getY(), blockPos.getZ()
-            );
+        for (int i = 0; i < volume; i++) {
+            int z = bounds[2] + i % sizeZ;
+            int x = bounds[0] + (i / sizeZ) % sizeX;
+            int y = bounds[1] + i / (sizeZ * sizeX);
+            BlockCollision blockCollision = BlockUtils.getCollision(collidableBlockStates[i], x, y, z);
             if (blockCollision != null) {
                 if (!blockCollision.correctPosition(session, playerBoundingBox)) {
                     return false;
@@ -33,6 +33,7 @@ import com.nukkitx.protocol.bedrock.packet.PlayerListPacket;
 import org.geysermc.connector.GeyserConnector;
 import org.geysermc.connector.entity.player.PlayerEntity;
 import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.session.cache.SkinDeliveryScheduler;
 import org.geysermc.connector.network.translators.PacketTranslator;
 import org.geysermc.connector.network.translators.Translator;
 import org.geysermc.connector.skin.SkinManager;
@@ -88,7 +89,18 @@ public class JavaPlayerListEntryTranslator extends PacketTranslator<ServerPlayer
                         playerEntity.setValid(true);
                         PlayerListPacket.Entry playerListEntry = SkinManager.buildCachedEntry(session, playerEntity);
 
-                        translate.getEntries().add(playerListEntry);
+                        SkinDeliveryScheduler skinDeliveryScheduler = session.getSkinDeliveryScheduler();
+                        if (skinDeliveryScheduler.isRateLimited() && session.getUpstream().isInitialized()) {
+                            // List the player with a default skin now, and send the real one once there is room for it
+                            PlayerListPacket.Entry defaultEntry = SkinManager.buildDefaultEntry(session, playerEntity);
+                            translate.getEntries().add(defaultEntry);
+                            // Skins are shared, so the same instance means the player has the default skin anyway
+                            if (playerListEntry.getSkin() != defaultEntry.getSkin()) {
+                                skinDeliveryScheduler.submit(playerEntity, playerListEntry);
+                            }
+                        } else {
+                            translate.getEntries().add(playerListEntry);
+                        }
                     }
                     break;
                 case REMOVE_PLAYER:
@@ -98,6 +110,10 @@ public class JavaPlayerListEntryTranslator extends PacketTranslator<ServerPlayer
                         // Just remove the entity's player list status
                         // Don't despawn the entity - the Java server will also take care of that.
                         entity.setPlayerList(false);
+                        if (session.getEntityCache().getEntityByGeyserId(entity.getGeyserId()) != entity) {
+                            // Not spawned either, so its skin isn't needed anymore
+                            session.getSkinDeliveryScheduler().remove(entity.getUuid());
+                        }
                     }
                     if (entity == session.getPlayerEntity()) {
                         // If removing ourself we use our AuthData UUID
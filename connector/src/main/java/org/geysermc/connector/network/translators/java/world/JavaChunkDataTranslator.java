@@ -36,6 +36,7 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.ByteBufOutputStream;
 import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.metrics.GeyserMetrics;
 import org.geysermc.connector.network.session.GeyserSession;
 import org.geysermc.connector.network.translators.PacketTranslator;
 import org.geysermc.connector.network.translators.Translator;
@@ -65,6 +66,7 @@ public class JavaChunkDataTranslator extends PacketTranslator<ServerChunkDataPac
                 if (session.isClosed()) {
                     return;
                 }
+                long start = System.nanoTime();
                 ChunkUtils.ChunkData chunkData = ChunkUtils.translateToBedrock(session, column, yOffset);
                 ChunkSection[] sections = chunkData.getSections();
 
@@ -81,8 +83,14 @@ public class JavaChunkDataTranslator extends PacketTranslator<ServerChunkDataPac
                     ChunkSection section = sections[i];
                     size += (section != null ? section : session.getBlockMappings().getEmptyChunkSection()).estimateNetworkSize();
                 }
+                byte[][] biomes = null;
                 if (NEW_BIOME_WRITE) {
-                    size += ChunkUtils.EMPTY_CHUNK_DATA.length; // Consists only of biome data
+                    biomes = new byte[sectionCount][];
+                    for (int i = 0; i < sectionCount; i++) {
+                        biomes[i] = BiomeUtils.toNewBedrockBiome(column.getBiomeData(), i);
+                        size += biomes[i].length;
+                    }
+                    size += (32 - sectionCount) * ChunkUtils.EMPTY_BIOME_DATA.length;
                 } else {
                     size += 256; // Biomes pre-1.18
                 }
@@ -100,8 +108,8 @@ public class JavaChunkDataTranslator extends PacketTranslator<ServerChunkDataPac
                     }
 
                     if (NEW_BIOME_WRITE) {
-                        for (int i = 0; i < sectionCount; i++) {
-                            BiomeUtils.toNewBedrockBiome(column.getBiomeData(), i).writeToNetwork(byteBuf);
+                        for (byte[] biome : biomes) {
+                            byteBuf.writeBytes(biome);
                         }
 
                         // As of 1.17.10, Bedrock hardcodes to always read 32 biome sections
@@ -133,6 +141,11 @@ public class JavaChunkDataTranslator extends PacketTranslator<ServerChunkDataPac
                 levelChunkPacket.setChunkX(column.getX());
                 levelChunkPacket.setChunkZ(column.getZ());
                 levelChunkPacket.setData(payload);
+
+                GeyserMetrics metrics = session.getConnector().getGeyserMetrics();
+                if (metrics.isEnabled()) {
+                    metrics.getChunkEncodeTime().record(System.nanoTime() - start);
+                }
                 session.sendUpstreamPacket(levelChunkPacket);
             } catch (Exception ex) {
                 ex.printStackTrace();
@@ -26,13 +26,10 @@
 package org.geysermc.connector.network.translators.java.world;
 
 import com.github.steveice10.mc.protocol.packet.ingame.server.world.ServerUnloadChunkPacket;
-import com.nukkitx.math.vector.Vector3i;
 import org.geysermc.connector.network.session.GeyserSession;
 import org.geysermc.connector.network.translators.PacketTranslator;
 import org.geysermc.connector.network.translators.Translator;
 
-import java.util.Iterator;
-
 @Translator(packet = ServerUnloadChunkPacket.class)
 public class JavaUnloadChunkTranslator extends PacketTranslator<ServerUnloadChunkPacket> {
 
@@ -40,23 +37,10 @@ public class JavaUnloadChunkTranslator extends PacketTranslator<ServerUnloadChun
     public void translate(ServerUnloadChunkPacket packet, GeyserSession session) {
         session.getChunkCache().removeChunk(packet.getX(), packet.getZ());
 
-        //Checks if a skull is in an unloaded chunk then removes it
-        Iterator<Vector3i> iterator = session.getSkullCache().keySet().iterator();
-        while (iterator.hasNext()) {
-            Vector3i position = iterator.next();
-            if ((position.getX() >> 4) == packet.getX() && (position.getZ() >> 4) == packet.getZ()) {
-                session.getSkullCache().get(position).despawnEntity(session);
-                iterator.remove();
-            }
-        }
+        // Remove the skulls in the unloaded chunk
+        session.getSkullCache().removeChunk(packet.getX(), packet.getZ());
 
         // Do the same thing with lecterns
-        iterator = session.getLecternCache().iterator();
-        while (iterator.hasNext()) {
-            Vector3i position = iterator.next();
-            if ((position.getX() >> 4) == packet.getX() && (position.getZ() >> 4) == packet.getZ()) {
-                iterator.remove();
-            }
-        }
+        session.getLecternCache().removeChunk(packet.getX(), packet.getZ());
     }
 }
@@ -75,6 +75,34 @@ public abstract class WorldManager {
      */
     public abstract int getBlockAt(GeyserSession session, int x, int y, int z);
 
+    /**
+     * Gets the Java block states of every block in a region. This should be preferred over repeated calls to
+     * {@link #getBlockAt(GeyserSession, int, int, int)}, as implementations can resolve the world once and read
+     * whole chunks at a time.
+     * <p>
+     * Block states are written in y, then x, then z order: the block at (x, y, z) ends up at index
+     * {@code ((y - minY) * sizeX + (x - minX)) * sizeZ + (z - minZ)}, where the sizes include both bounds.
+     *
+     * @param session the session
+     * @param minX the lowest x coordinate, inclusive
+     * @param minY the lowest y coordinate, inclusive
+     * @param minZ the lowest z coordinate, inclusive
+     * @param maxX the highest x coordinate, inclusive
+     * @param maxY the highest y coordinate, inclusive
+     * @param maxZ the highest z coordinate, inclusive
+     * @param out the array to write block states to. Must be at least as large as the region.
+     */
+    public void getBlocksIn(GeyserSession session, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, int[] out) {
+        int index = 0;
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    out[index++] = getBlockAt(session, x, y, z);
+                }
+            }
+        }
+    }
+
     /**
      * Checks whether or not this world manager requires a separate chunk cache/has access to more block data than the chunk cache.
      * <p>
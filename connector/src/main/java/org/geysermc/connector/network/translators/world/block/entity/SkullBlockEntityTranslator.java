@@ -32,19 +32,15 @@ import com.github.steveice10.opennbt.tag.builtin.StringTag;
 import com.nukkitx.math.vector.Vector3f;
 import com.nukkitx.math.vector.Vector3i;
 import com.nukkitx.nbt.NbtMapBuilder;
-import com.nukkitx.protocol.bedrock.data.entity.EntityFlag;
-import org.geysermc.connector.entity.player.SkullPlayerEntity;
 import org.geysermc.connector.network.session.GeyserSession;
 import org.geysermc.connector.network.translators.world.block.BlockStateValues;
 import org.geysermc.connector.skin.SkinProvider;
-import org.geysermc.connector.skin.SkullSkinManager;
 
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
 
 @BlockEntity(name = "Skull")
 public class SkullBlockEntityTranslator extends BlockEntityTranslator implements RequiresBlockState {
@@ -123,7 +119,6 @@ public class SkullBlockEntityTranslator extends BlockEntityTranslator implements
         Vector3i blockPosition = Vector3i.from(posX, posY, posZ);
         Vector3f entityPosition = Vector3f.from(x, y, z);
         Vector3f entityRotation = Vector3f.from(rotation, 0, rotation);
-        long geyserId = session.getEntityCache().getNextEntityId().incrementAndGet();
 
         getProfile(tag).whenComplete((gameProfile, throwable) -> {
             if (gameProfile == null) {
@@ -131,28 +126,8 @@ public class SkullBlockEntityTranslator extends BlockEntityTranslator implements
                 return;
             }
 
-            SkullPlayerEntity existingSkull = session.getSkullCache().get(blockPosition);
-            if (existingSkull != null) {
-                // Ensure that two skulls can't spawn on the same point
-                existingSkull.despawnEntity(session, blockPosition);
-            }
-
-            SkullPlayerEntity player = new SkullPlayerEntity(gameProfile, geyserId, entityPosition, entityRotation);
-            player.setBlockState(blockState);
-
-            // Cache entity
-            session.getSkullCache().put(blockPosition, player);
-
-            // Only send to session if we are initialized, otherwise it will happen then.
-            if (session.getUpstream().isInitialized()) {
-                player.spawnEntity(session);
-
-                SkullSkinManager.requestAndHandleSkin(player, session, (skin -> session.getConnector().getGeneralThreadPool().schedule(() -> {
-                    // Delay to minimize split-second "player" pop-in
-                    player.getMetadata().getFlags().setFlag(EntityFlag.INVISIBLE, false);
-                    player.updateBedrockMetadata(session);
-                }, 250, TimeUnit.MILLISECONDS)));
-            }
+            // Replaces any skull on the same point; the skull cache decides when it is shown
+            session.getSkullCache().putSkull(blockPosition, gameProfile, blockState, entityPosition, entityRotation);
         });
     }
 }
@@ -25,31 +25,63 @@
 
 package org.geysermc.connector.ping;
 
-import com.fasterxml.jackson.core.JsonParseException;
-import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.github.steveice10.mc.protocol.MinecraftConstants;
-import com.nukkitx.nbt.util.VarInts;
-import org.geysermc.connector.common.ping.GeyserPingInfo;
+import com.nukkitx.network.util.EventLoops;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.*;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import lombok.Getter;
 import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.common.ping.GeyserPingInfo;
+import org.geysermc.connector.metrics.Histogram;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
-import java.io.IOException;
-import java.net.ConnectException;
 import java.net.InetSocketAddress;
-import java.net.Socket;
-import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Pings one or more Java servers with a non-blocking status client on Geyser's event loops.
+ * <p>
+ * The last successful response of each server is kept for {@code ping-passthrough-stale-time} seconds, so a server
+ * that misses a few pings doesn't make the Bedrock server list fall back to the default MOTD. Servers that don't
+ * answer are pinged less often until they come back.
+ */
 public class GeyserLegacyPingPassthrough implements IGeyserPingPassthrough, Runnable {
+    private static final int TIMEOUT_MILLIS = 5000;
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MINUTES.toNanos(1);
+
     private final GeyserConnector connector;
+    private final List<Target> targets;
+    private final long intervalNanos;
+    private final long staleNanos;
+
+    @Getter
+    private final PingPassthroughStats stats = new PingPassthroughStats();
+
+    private volatile GeyserPingInfo pingInfo;
 
     public GeyserLegacyPingPassthrough(GeyserConnector connector) {
         this.connector = connector;
-    }
+        // Ensure delay is not zero
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(Math.max(1, connector.getConfig().getPingPassthroughInterval()));
+        this.staleNanos = TimeUnit.SECONDS.toNanos(Math.max(0, connector.getConfig().getPingPassthroughStaleTime()));
 
-    private GeyserPingInfo pingInfo;
+        List<Target> targets = new ArrayList<>();
+        for (String target : connector.getConfig().getPingPassthroughTargets()) {
+            targets.add(Target.parse(target));
+        }
+        if (targets.isEmpty()) {
+            targets.add(new Target(connector.getConfig().getRemote().getAddress(), connector.getConfig().getRemote().getPort()));
+        }
+        this.targets = Collections.unmodifiableList(targets);
+    }
 
     /**
      * Start legacy ping passthrough thread
@@ -59,8 +91,7 @@ public class GeyserLegacyPingPassthrough implements IGeyserPingPassthrough, Runn
     public static IGeyserPingPassthrough init(GeyserConnector connector) {
         if (connector.getConfig().isPassthroughMotd() || connector.getConfig().isPassthroughPlayerCounts()) {
             GeyserLegacyPingPassthrough pingPassthrough = new GeyserLegacyPingPassthrough(connector);
-            // Ensure delay is not zero
-            int interval = (connector.getConfig().getPingPassthroughInterval() == 0) ? 1 : connector.getConfig().getPingPassthroughInterval();
+            long interval = TimeUnit.NANOSECONDS.toSeconds(pingPassthrough.intervalNanos);
             connector.getLogger().debug("Scheduling ping passthrough at an interval of " + interval + " second(s).");
             connector.getGeneralThreadPool().scheduleAtFixedRate(pingPassthrough, 1, interval, TimeUnit.SECONDS);
             return pingPassthrough;
@@ -75,54 +106,284 @@ public class GeyserLegacyPingPassthrough implements IGeyserPingPassthrough, Runn
 
     @Override
     public void run() {
+        long now = System.nanoTime();
+        for (Target target : targets) {
+            if (!target.inFlight && now - target.nextAttempt >= 0) {
+                ping(target);
+            }
+        }
+        // Drop responses that have gone stale, even if no ping finished since
+        updatePingInfo();
+    }
+
+    private void ping(Target target) {
+        target.inFlight = true;
+        long start = System.nanoTime();
+        try {
+            new Bootstrap()
+                    .group(EventLoops.commonGroup())
+                    .channel(EventLoops.getChannelType().getSocketChannel())
+                    .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, TIMEOUT_MILLIS)
+                    .handler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel channel) {
+                            channel.pipeline()
+                                    .addLast(new ReadTimeoutHandler(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS))
+                                    .addLast(new StatusResponseHandler(target, start));
+                        }
+                    })
+                    .connect(new InetSocketAddress(target.host, target.port))
+                    .addListener((ChannelFutureListener) future -> {
+                        if (future.isSuccess()) {
+                            future.channel().writeAndFlush(createStatusRequest(target, future.channel().alloc().buffer()));
+                        } else {
+                            onFailure(target, future.cause());
+                        }
+                    });
+        } catch (Exception e) {
+            onFailure(target, e);
+        }
+    }
+
+    private void onSuccess(Target target, String json, long start) {
+        GeyserPingInfo info;
         try {
-            Socket socket = new Socket();
-            String address = connector.getConfig().getRemote().getAddress();
-            int port = connector.getConfig().getRemote().getPort();
-            socket.connect(new InetSocketAddress(address, port), 5000);
-
-            ByteArrayOutputStream byteArrayStream = new ByteArrayOutputStream();
-            DataOutputStream handshake = new DataOutputStream(byteArrayStream);
-            handshake.write(0x0);
-            VarInts.writeUnsignedInt(handshake, MinecraftConstants.PROTOCOL_VERSION);
-            VarInts.writeUnsignedInt(handshake, address.length());
-            handshake.writeBytes(address);
-            handshake.writeShort(port);
-            VarInts.writeUnsignedInt(handshake, 1);
-
-            DataOutputStream dataOutputStream = new DataOutputStream(socket.getOutputStream());
-            VarInts.writeUnsignedInt(dataOutputStream, byteArrayStream.size());
-            dataOutputStream.write(byteArrayStream.toByteArray());
-            dataOutputStream.writeByte(0x01);
-            dataOutputStream.writeByte(0x00);
-
-            DataInputStream dataInputStream = new DataInputStream(socket.getInputStream());
-            VarInts.readUnsignedInt(dataInputStream);
-            VarInts.readUnsignedInt(dataInputStream);
-            int length = VarInts.readUnsignedInt(dataInputStream);
-            byte[] buffer = new byte[length];
-            dataInputStream.readFully(buffer);
-            dataOutputStream.writeByte(0x09);
-            dataOutputStream.writeByte(0x01);
-            dataOutputStream.writeLong(System.currentTimeMillis());
-
-            VarInts.readUnsignedInt(dataInputStream);
-            String json = new String(buffer);
-
-            this.pingInfo = GeyserConnector.JSON_MAPPER.readValue(json, GeyserPingInfo.class);
-
-            byteArrayStream.close();
-            handshake.close();
-            dataOutputStream.close();
-            dataInputStream.close();
-            socket.close();
-        } catch (SocketTimeoutException | ConnectException ex) {
-            this.pingInfo = null;
-            this.connector.getLogger().debug("Connection timeout for ping passthrough.");
-        } catch (JsonParseException | JsonMappingException ex) {
-            this.connector.getLogger().error("Failed to parse json when pinging server!", ex);
-        } catch (IOException e) {
-            e.printStackTrace();
+            info = GeyserConnector.JSON_MAPPER.readValue(json, GeyserPingInfo.class);
+        } catch (JsonProcessingException e) {
+            connector.getLogger().error("Failed to parse json when pinging server!", e);
+            onFailure(target, null);
+            return;
+        }
+
+        long now = System.nanoTime();
+        stats.successes.increment();
+        stats.latency.record(now - start);
+
+        target.pingInfo = info;
+        target.lastSuccess = now;
+        target.failures = 0;
+        target.nextAttempt = now;
+        target.inFlight = false;
+        updatePingInfo();
+    }
+
+    private void onFailure(Target target, Throwable cause) {
+        stats.failures.increment();
+        if (cause != null) {
+            connector.getLogger().debug("Could not ping " + target + " for ping passthrough: " + cause);
+        }
+
+        // Back off exponentially, starting at the normal interval, so an offline server isn't hammered
+        int failures = Math.min(target.failures + 1, 16);
+        target.failures = failures;
+        target.nextAttempt = System.nanoTime() + Math.min(intervalNanos << Math.min(failures - 1, 6), MAX_BACKOFF_NANOS);
+        target.inFlight = false;
+        updatePingInfo();
+    }
+
+    /**
+     * Combines the responses of all targets that are not stale. The MOTD and version come from the first target
+     * in the list, and the player counts are added together.
+     */
+    private synchronized void updatePingInfo() {
+        long now = System.nanoTime();
+        GeyserPingInfo first = null;
+        int online = 0;
+        int max = 0;
+        int responses = 0;
+        for (Target target : targets) {
+            GeyserPingInfo info = target.pingInfo;
+            if (info == null || now - target.lastSuccess > staleNanos) {
+                continue;
+            }
+            if (first == null) {
+                first = info;
+            }
+            if (info.getPlayers() != null) {
+                online += info.getPlayers().getOnline();
+                max += info.getPlayers().getMax();
+            }
+            responses++;
+        }
+
+        if (responses <= 1) {
+            this.pingInfo = first;
+        } else {
+            // A new object is only created if something changed, as the Bedrock pong is cached based on it
+            GeyserPingInfo aggregated = new GeyserPingInfo(first.getDescription(), new GeyserPingInfo.Players(max, online), first.getVersion());
+            if (!aggregated.equals(this.pingInfo)) {
+                this.pingInfo = aggregated;
+            }
+        }
+    }
+
+    private static ByteBuf createStatusRequest(Target target, ByteBuf buffer) {
+        byte[] host = target.host.getBytes(StandardCharsets.UTF_8);
+
+        // Handshake
+        writeVarInt(buffer, 1 + varIntSize(MinecraftConstants.PROTOCOL_VERSION) + varIntSize(host.length) + host.length + 2 + 1);
+        buffer.writeByte(0x00);
+        writeVarInt(buffer, MinecraftConstants.PROTOCOL_VERSION);
+        writeVarInt(buffer, host.length);
+        buffer.writeBytes(host);
+        buffer.writeShort(target.port);
+        writeVarInt(buffer, 1); // Next state: status
+
+        // Status request
+        buffer.writeByte(0x01);
+        buffer.writeByte(0x00);
+        return buffer;
+    }
+
+    private static void writeVarInt(ByteBuf buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer.writeByte(value);
+    }
+
+    private static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            size++;
+            value >>>= 7;
+        }
+        return size;
+    }
+
+    /**
+     * @return the VarInt at the reader index, or -1 if the buffer doesn't contain all of it yet
+     */
+    private static int readVarInt(ByteBuf buffer) {
+        int value = 0;
+        for (int i = 0; i < 5; i++) {
+            if (!buffer.isReadable()) {
+                return -1;
+            }
+            byte b = buffer.readByte();
+            value |= (b & 0x7F) << (i * 7);
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("VarInt is too big");
+    }
+
+    /**
+     * Waits for the status response packet and hands it to {@link #onSuccess(Target, String, long)}.
+     */
+    private class StatusResponseHandler extends ByteToMessageDecoder {
+        private final Target target;
+        private final long start;
+        private boolean done = false;
+
+        private StatusResponseHandler(Target target, long start) {
+            this.target = target;
+            this.start = start;
+        }
+
+        @Override
+        protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+            if (done) {
+                in.skipBytes(in.readableBytes());
+                return;
+            }
+
+            in.markReaderIndex();
+            int length = readVarInt(in);
+            if (length == -1 || in.readableBytes() < length) {
+                in.resetReaderIndex();
+                return;
+            }
+
+            ByteBuf packet = in.readSlice(length);
+            int packetId = readVarInt(packet);
+            int jsonLength = readVarInt(packet);
+            if (packetId != 0x00 || jsonLength < 0 || packet.readableBytes() < jsonLength) {
+                fail(ctx, new IllegalStateException("Unexpected status response"));
+                return;
+            }
+
+            String json = packet.readCharSequence(jsonLength, StandardCharsets.UTF_8).toString();
+            done = true;
+            ctx.close();
+            onSuccess(target, json, start);
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            super.channelInactive(ctx);
+            fail(ctx, new IllegalStateException("Connection closed before a status response was received"));
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            fail(ctx, cause);
+        }
+
+        private void fail(ChannelHandlerContext ctx, Throwable cause) {
+            if (!done) {
+                done = true;
+                ctx.close();
+                onFailure(target, cause);
+            }
+        }
+    }
+
+    private static class Target {
+        private final String host;
+        private final int port;
+
+        private volatile boolean inFlight = false;
+        private volatile long nextAttempt = System.nanoTime();
+        private volatile int failures = 0;
+        private volatile GeyserPingInfo pingInfo;
+        private volatile long lastSuccess;
+
+        private Target(String host, int port) {
+            this.host = host;
+            this.port = port;
+        }
+
+        /**
+         * @param target an address such as {@code 127.0.0.1}, {@code play.example.com:25566} or {@code [::1]:25565}
+         */
+        private static Target parse(String target) {
+            target = target.trim();
+            int portIndex = target.lastIndexOf(':');
+            if (target.startsWith("[")) {
+                int end = target.indexOf(']');
+                String host = target.substring(1, end);
+                return new Target(host, portIndex > end ? Integer.parseInt(target.substring(portIndex + 1)) : 25565);
+            }
+            if (portIndex != -1 && target.indexOf(':') == portIndex) {
+                return new Target(target.substring(0, portIndex), Integer.parseInt(target.substring(portIndex + 1)));
+            }
+            return new Target(target, 25565);
+        }
+
+        @Override
+        public String toString() {
+            return host + ":" + port;
+        }
+    }
+
+    public static class PingPassthroughStats {
+        private final LongAdder successes = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        /**
+         * Time between starting to connect and receiving the status response, in nanoseconds
+         */
+        @Getter
+        private final Histogram latency = new Histogram();
+
+        public long getSuccesses() {
+            return successes.sum();
+        }
+
+        public long getFailures() {
+            return failures.sum();
         }
     }
 }
@@ -27,6 +27,7 @@ package org.geysermc.connector.registry.loader;
 
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import org.geysermc.connector.utils.FileUtils;
+import org.geysermc.connector.utils.GeneratedClassIndex;
 
 import java.lang.annotation.Annotation;
 import java.util.Map;
@@ -64,10 +65,12 @@ public class AnnotatedRegistryLoader<R, A extends Annotation, V> implements Regi
     @Override
     public Map<R, V> load(String input) {
         Map<R, V> entries = new Object2ObjectOpenHashMap<>();
-        for (Class<?> clazz : FileUtils.getGeneratedClassesForAnnotation(input)) {
+        GeneratedClassIndex index = FileUtils.getGeneratedClassIndex(input);
+        Class<?>[] classes = index.getClasses();
+        for (int i = 0; i < classes.length; i++) {
             try {
-                entries.put(this.mapper.apply(clazz.getAnnotation(this.annotation)), (V) clazz.newInstance());
-            } catch (InstantiationException | IllegalAccessException ex) {
+                entries.put(this.mapper.apply(classes[i].getAnnotation(this.annotation)), (V) index.create(i));
+            } catch (IllegalArgumentException ex) {
                 ex.printStackTrace();
             }
         }
@@ -40,10 +40,10 @@ import org.geysermc.connector.network.translators.collision.translators.OtherCol
 import org.geysermc.connector.network.translators.collision.translators.SolidCollision;
 import org.geysermc.connector.registry.BlockRegistries;
 import org.geysermc.connector.utils.FileUtils;
+import org.geysermc.connector.utils.GeneratedClassIndex;
 import org.geysermc.connector.utils.Object2IntBiMap;
 
 import java.io.InputStream;
-import java.lang.reflect.InvocationTargetException;
 import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.regex.Pattern;
@@ -57,12 +57,15 @@ public class CollisionRegistryLoader extends MultiResourceRegistryLoader<String,
     public Map<Integer, BlockCollision> load(Pair<String, String> input) {
         Int2ObjectMap<BlockCollision> collisions = new Int2ObjectOpenHashMap<>();
 
+        GeneratedClassIndex index = FileUtils.getGeneratedClassIndex(CollisionRemapper.class);
+        Class<?>[] classes = index.getClasses();
         Map<Class<?>, CollisionInfo> annotationMap = new IdentityHashMap<>();
-        for (Class<?> clazz : FileUtils.getGeneratedClassesForAnnotation(CollisionRemapper.class.getName())) {
+        for (int i = 0; i < classes.length; i++) {
+            Class<?> clazz = classes[i];
             GeyserConnector.getInstance().getLogger().debug("Found annotated collision translator: " + clazz.getCanonicalName());
 
             CollisionRemapper collisionRemapper = clazz.getAnnotation(CollisionRemapper.class);
-            annotationMap.put(clazz, new CollisionInfo(collisionRemapper, Pattern.compile(collisionRemapper.regex()), Pattern.compile(collisionRemapper.paramRegex())));
+            annotationMap.put(clazz, new CollisionInfo(collisionRemapper, Pattern.compile(collisionRemapper.regex()), Pattern.compile(collisionRemapper.paramRegex()), i));
         }
 
         // Load collision mappings file
@@ -80,7 +83,7 @@ public class CollisionRegistryLoader extends MultiResourceRegistryLoader<String,
         // Map of classes that don't change based on parameters that have already been created
         Map<Class<?>, BlockCollision> instantiatedCollision = new IdentityHashMap<>();
         for (Object2IntMap.Entry<String> entry : javaIdBlockMap.object2IntEntrySet()) {
-            BlockCollision newCollision = instantiateCollision(entry.getKey(), entry.getIntValue(), annotationMap, instantiatedCollision, collisionList);
+            BlockCollision newCollision = instantiateCollision(entry.getKey(), entry.getIntValue(), index, annotationMap, instantiatedCollision, collisionList);
             if (newCollision != null) {
                 instantiatedCollision.put(newCollision.getClass(), newCollision);
             }
@@ -89,7 +92,7 @@ public class CollisionRegistryLoader extends MultiResourceRegistryLoader<String,
         return collisions;
     }
 
-    private BlockCollision instantiateCollision(String blockID, int numericBlockID, Map<Class<?>, CollisionInfo> annotationMap, Map<Class<?>, BlockCollision> instantiatedCollision, ArrayNode collisionList) {
+    private BlockCollision instantiateCollision(String blockID, int numericBlockID, GeneratedClassIndex index, Map<Class<?>, CollisionInfo> annotationMap, Map<Class<?>, BlockCollision> instantiatedCollision, ArrayNode collisionList) {
         String[] blockIdParts = blockID.split("\\[");
         String blockName = blockIdParts[0].replace("minecraft:", "");
         String params = "";
@@ -118,9 +121,9 @@ public class CollisionRegistryLoader extends MultiResourceRegistryLoader<String,
                     if (annotation.passDefaultBoxes()) {
                         // Create an OtherCollision instance and get the bounding boxes
                         BoundingBox[] defaultBoxes = new OtherCollision((ArrayNode) collisionList.get(collisionIndex)).getBoundingBoxes();
-                        collision = (BlockCollision) type.getDeclaredConstructor(String.class, BoundingBox[].class).newInstance(params, defaultBoxes);
+                        collision = (BlockCollision) index.create(collisionInfo.index, params, defaultBoxes);
                     } else {
-                        collision = (BlockCollision) type.getDeclaredConstructor(String.class).newInstance(params);
+                        collision = (BlockCollision) index.create(collisionInfo.index, params);
                     }
 
                     // If there's an existing instance equal to this one, use that instead
@@ -131,7 +134,7 @@ public class CollisionRegistryLoader extends MultiResourceRegistryLoader<String,
                         }
                     }
                     return collision;
-                } catch (IllegalAccessException | InstantiationException | NoSuchMethodException | InvocationTargetException e) {
+                } catch (IllegalArgumentException e) {
                     e.printStackTrace();
                     return null;
                 }
@@ -176,5 +179,9 @@ public class CollisionRegistryLoader extends MultiResourceRegistryLoader<String,
         private final CollisionRemapper collisionRemapper;
         private final Pattern pattern;
         private final Pattern paramsPattern;
+        /**
+         * The position of the collision class in the generated class index
+         */
+        private final int index;
     }
 }
\ No newline at end of file
@@ -32,6 +32,8 @@ import com.nukkitx.protocol.bedrock.v440.Bedrock_v440;
 import com.nukkitx.protocol.bedrock.v448.Bedrock_v448;
 import it.unimi.dsi.fastutil.ints.Int2IntMap;
 import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2LongMap;
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
@@ -43,10 +45,9 @@ import org.geysermc.connector.registry.BlockRegistries;
 import org.geysermc.connector.registry.type.BlockMapping;
 import org.geysermc.connector.registry.type.BlockMappings;
 import org.geysermc.connector.utils.BlockUtils;
-import org.geysermc.connector.utils.FileUtils;
 
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
-import java.io.InputStream;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
@@ -95,6 +96,12 @@ public class BlockRegistryPopulator {
      * Stores the raw blocks JSON until it is no longer needed.
      */
     private static JsonNode BLOCKS_JSON;
+    private static long BLOCKS_JSON_CHECKSUM;
+
+    /**
+     * The fingerprint of the inputs of each palette's block mappings, used to key snapshots that depend on them
+     */
+    private static final Int2LongMap MAPPINGS_FINGERPRINTS = new Int2LongOpenHashMap();
 
     public static void populate() {
         registerJavaBlocks();
@@ -103,31 +110,50 @@ public class BlockRegistryPopulator {
         BLOCKS_JSON = null;
     }
 
+    /**
+     * @param protocolVersion the protocol version of the block palette
+     * @return a fingerprint of everything the block mappings of this palette were built from
+     */
+    static long getMappingsFingerprint(int protocolVersion) {
+        return MAPPINGS_FINGERPRINTS.get(protocolVersion);
+    }
+
     private static void registerBedrockBlocks() {
         for (Map.Entry<String, BiFunction<String, NbtMapBuilder, String>> palette : STATE_MAPPER.entrySet()) {
-            InputStream stream = FileUtils.getResource(String.format("bedrock/block_palette.%s.nbt", palette.getKey()));
+            byte[] paletteBytes = MappingsSnapshot.readResource(String.format("bedrock/block_palette.%s.nbt", palette.getKey()));
             NbtList<NbtMap> blocksTag;
-            try (NBTInputStream nbtInputStream = new NBTInputStream(new DataInputStream(new GZIPInputStream(stream)))) {
+            try (NBTInputStream nbtInputStream = new NBTInputStream(new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(paletteBytes))))) {
                 NbtMap blockPalette = (NbtMap) nbtInputStream.readTag();
                 blocksTag = (NbtList<NbtMap>) blockPalette.getList("blocks", NbtType.COMPOUND);
             } catch (Exception e) {
                 throw new AssertionError("Unable to get blocks from runtime block states", e);
             }
             Map<String, NbtMap> javaIdentifierToBedrockTag = new Object2ObjectOpenHashMap<>(blocksTag.size());
+            int stateVersion = blocksTag.get(0).getInt("version");
+
+            // Matching every Java state against the palette is the slowest part of startup, so reuse the
+            // result from the last start if nothing it depends on has changed
+            int protocolVersion = PALETTE_VERSIONS.getInt(palette.getKey());
+            String snapshotName = "blocks." + palette.getKey();
+            long fingerprint = MappingsSnapshot.fingerprint(snapshotName + ";" + GeyserConnector.getInstance().getConfig().isExtendedWorldHeight(),
+                    BLOCKS_JSON_CHECKSUM, MappingsSnapshot.checksum(paletteBytes));
+            MAPPINGS_FINGERPRINTS.put(protocolVersion, fingerprint);
+            int[] javaToBedrockSnapshot = readBlocksSnapshot(snapshotName, fingerprint, blocksTag.size());
+
             // New since 1.16.100 - find the block runtime ID by the order given to us in the block palette,
             // as we no longer send a block palette
-            Object2IntMap<NbtMap> blockStateOrderedMap = new Object2IntOpenHashMap<>(blocksTag.size());
-
-            int stateVersion = -1;
-            for (int i = 0; i < blocksTag.size(); i++) {
-                NbtMap tag = blocksTag.get(i);
-                if (blockStateOrderedMap.containsKey(tag)) {
-                    throw new AssertionError("Duplicate block states in Bedrock palette: " + tag);
-                }
-                blockStateOrderedMap.put(tag, i);
-                if (stateVersion == -1) {
-                    stateVersion = tag.getInt("version");
+            Object2IntMap<NbtMap> blockStateOrderedMap = null;
+            int[] javaToBedrockRuntimeIds = javaToBedrockSnapshot;
+            if (javaToBedrockSnapshot == null) {
+                blockStateOrderedMap = new Object2IntOpenHashMap<>(blocksTag.size());
+                for (int i = 0; i < blocksTag.size(); i++) {
+                    NbtMap tag = blocksTag.get(i);
+                    if (blockStateOrderedMap.containsKey(tag)) {
+                        throw new AssertionError("Duplicate block states in Bedrock palette: " + tag);
+                    }
+                    blockStateOrderedMap.put(tag, i);
                 }
+                javaToBedrockRuntimeIds = new int[BLOCKS_JSON.size()];
             }
             int airRuntimeId = -1;
             int commandBlockRuntimeId = -1;
@@ -149,10 +175,19 @@ public class BlockRegistryPopulator {
                 Map.Entry<String, JsonNode> entry = blocksIterator.next();
                 String javaId = entry.getKey();
 
-                NbtMap blockTag = buildBedrockState(entry.getValue(), stateVersion, stateMapper);
-                int bedrockRuntimeId = blockStateOrderedMap.getOrDefault(blockTag, -1);
-                if (bedrockRuntimeId == -1) {
-                    throw new RuntimeException("Unable to find " + javaId + " Bedrock runtime ID! Built compound tag: \n" + blockTag);
+                NbtMap blockTag;
+                int bedrockRuntimeId;
+                if (blockStateOrderedMap == null) {
+                    // The built state always equals the palette entry it was matched to
+                    bedrockRuntimeId = javaToBedrockRuntimeIds[javaRuntimeId];
+                    blockTag = blocksTag.get(bedrockRuntimeId);
+                } else {
+                    blockTag = buildBedrockState(entry.getValue(), stateVersion, stateMapper);
+                    bedrockRuntimeId = blockStateOrderedMap.getOrDefault(blockTag, -1);
+                    if (bedrockRuntimeId == -1) {
+                        throw new RuntimeException("Unable to find " + javaId + " Bedrock runtime ID! Built compound tag: \n" + blockTag);
+                    }
+                    javaToBedrockRuntimeIds[javaRuntimeId] = bedrockRuntimeId;
                 }
 
                 switch (javaId) {
@@ -207,16 +242,21 @@ public class BlockRegistryPopulator {
             }
             builder.bedrockAirId(airRuntimeId);
 
+            if (javaToBedrockSnapshot == null) {
+                MappingsSnapshot.write(snapshotName, fingerprint, javaToBedrockRuntimeIds);
+            }
+
             // Loop around again to find all item frame runtime IDs
-            for (Object2IntMap.Entry<NbtMap> entry : blockStateOrderedMap.object2IntEntrySet()) {
-                String name = entry.getKey().getString("name");
+            for (int i = 0; i < blocksTag.size(); i++) {
+                NbtMap tag = blocksTag.get(i);
+                String name = tag.getString("name");
                 if (name.equals("minecraft:frame") || name.equals("minecraft:glow_frame")) {
-                    itemFrames.put(entry.getKey(), entry.getIntValue());
+                    itemFrames.put(tag, i);
                 }
             }
             builder.bedrockBlockStates(blocksTag);
 
-            BlockRegistries.BLOCKS.register(PALETTE_VERSIONS.getInt(palette.getKey()), builder.blockStateVersion(stateVersion)
+            BlockRegistries.BLOCKS.register(protocolVersion, builder.blockStateVersion(stateVersion)
                     .emptyChunkSection(new ChunkSection(new BlockStorage[]{new BlockStorage(airRuntimeId)}))
                     .javaToBedrockBlockMap(javaToBedrockBlockMap)
                     .bedrockToJavaBlockMap(bedrockToJavaBlockMap)
@@ -227,12 +267,29 @@ public class BlockRegistryPopulator {
         }
     }
 
+    /**
+     * @return the Bedrock runtime ID of every Java block state from the snapshot, or null if it is missing, stale or invalid
+     */
+    private static int[] readBlocksSnapshot(String snapshotName, long fingerprint, int paletteSize) {
+        int[][] snapshot = MappingsSnapshot.read(snapshotName, fingerprint);
+        if (snapshot == null || snapshot.length != 1 || snapshot[0].length != BLOCKS_JSON.size()) {
+            return null;
+        }
+        for (int bedrockRuntimeId : snapshot[0]) {
+            if (bedrockRuntimeId < 0 || bedrockRuntimeId >= paletteSize) {
+                return null;
+            }
+        }
+        return snapshot[0];
+    }
+
     private static void registerJavaBlocks() {
-        InputStream stream = FileUtils.getResource("mappings/blocks.json");
+        byte[] blocksBytes = MappingsSnapshot.readResource("mappings/blocks.json");
+        BLOCKS_JSON_CHECKSUM = MappingsSnapshot.checksum(blocksBytes);
 
         JsonNode blocksJson;
         try {
-            blocksJson = GeyserConnector.JSON_MAPPER.readTree(stream);
+            blocksJson = GeyserConnector.JSON_MAPPER.readTree(blocksBytes);
         } catch (Exception e) {
             throw new AssertionError("Unable to load Java block mappings", e);
         }
@@ -49,11 +49,9 @@ import org.geysermc.connector.network.translators.item.StoredItemMappings;
 import org.geysermc.connector.registry.BlockRegistries;
 import org.geysermc.connector.registry.Registries;
 import org.geysermc.connector.registry.type.*;
-import org.geysermc.connector.utils.FileUtils;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.*;
 
 /**
@@ -104,20 +102,21 @@ public class ItemRegistryPopulator {
 
     public static void populate() {
         // Load item mappings from Java Edition to Bedrock Edition
-        InputStream stream = FileUtils.getResource("mappings/items.json");
+        byte[] itemsBytes = MappingsSnapshot.readResource("mappings/items.json");
+        long itemsChecksum = MappingsSnapshot.checksum(itemsBytes);
 
         TypeReference<Map<String, GeyserMappingItem>> mappingItemsType = new TypeReference<Map<String, GeyserMappingItem>>() { };
 
         Map<String, GeyserMappingItem> items;
         try {
-            items = GeyserConnector.JSON_MAPPER.readValue(stream, mappingItemsType);
+            items = GeyserConnector.JSON_MAPPER.readValue(itemsBytes, mappingItemsType);
         } catch (Exception e) {
             throw new AssertionError("Unable to load Java runtime item IDs", e);
         }
 
         /* Load item palette */
         for (Map.Entry<String, PaletteVersion> palette : PALETTE_VERSIONS.entrySet()) {
-            stream = FileUtils.getResource(String.format("bedrock/runtime_item_states.%s.json", palette.getKey()));
+            byte[] paletteBytes = MappingsSnapshot.readResource(String.format("bedrock/runtime_item_states.%s.json", palette.getKey()));
 
             TypeReference<List<PaletteItem>> paletteEntriesType = new TypeReference<List<PaletteItem>>() { };
 
@@ -129,7 +128,7 @@ public class ItemRegistryPopulator {
 
             List<PaletteItem> itemEntries;
             try {
-                itemEntries = GeyserConnector.JSON_MAPPER.readValue(stream, paletteEntriesType);
+                itemEntries = GeyserConnector.JSON_MAPPER.readValue(paletteBytes, paletteEntriesType);
             } catch (Exception e) {
                 throw new AssertionError("Unable to load Bedrock runtime item IDs", e);
             }
@@ -146,11 +145,11 @@ public class ItemRegistryPopulator {
 
             // Load creative items
             // We load this before item mappings to get overridden block runtime ID mappings
-            stream = FileUtils.getResource(String.format("bedrock/creative_items.%s.json", palette.getKey()));
+            byte[] creativeItemsBytes = MappingsSnapshot.readResource(String.format("bedrock/creative_items.%s.json", palette.getKey()));
 
             JsonNode creativeItemEntries;
             try {
-                creativeItemEntries = GeyserConnector.JSON_MAPPER.readTree(stream).get("items");
+                creativeItemEntries = GeyserConnector.JSON_MAPPER.readTree(creativeItemsBytes).get("items");
             } catch (Exception e) {
                 throw new AssertionError("Unable to load creative items", e);
             }
@@ -231,6 +230,15 @@ public class ItemRegistryPopulator {
 
             BlockMappings blockMappings = BlockRegistries.BLOCKS.forVersion(palette.getValue().getProtocolVersion());
 
+            // Finding the block runtime ID of block items means searching through the block palette, so reuse the
+            // results from the last start if nothing they depend on has changed
+            String snapshotName = "items." + palette.getKey();
+            long fingerprint = MappingsSnapshot.fingerprint(snapshotName + ";" + GeyserConnector.getInstance().getConfig().isAddNonBedrockItems(),
+                    itemsChecksum, MappingsSnapshot.checksum(paletteBytes), MappingsSnapshot.checksum(creativeItemsBytes),
+                    BlockRegistryPopulator.getMappingsFingerprint(palette.getValue().getProtocolVersion()));
+            int[][] snapshot = readItemsSnapshot(snapshotName, fingerprint, items.size(), creativeItems.size());
+            int[] itemBlockRuntimeIds = snapshot != null ? snapshot[0] : new int[items.size()];
+
             int itemIndex = 0;
             int javaFurnaceMinecartId = 0;
             boolean usingFurnaceMinecart = GeyserConnector.getInstance().getConfig().isAddNonBedrockItems();
@@ -275,7 +283,9 @@ public class ItemRegistryPopulator {
 
                 int bedrockBlockId = -1;
                 Integer firstBlockRuntimeId = entry.getValue().getFirstBlockRuntimeId();
-                if (firstBlockRuntimeId != null) {
+                if (snapshot != null) {
+                    bedrockBlockId = itemBlockRuntimeIds[itemIndex];
+                } else if (firstBlockRuntimeId != null) {
                     int blockIdOverride = bedrockBlockIdOverrides.getOrDefault(bedrockIdentifier, -1);
                     if (blockIdOverride != -1) {
                         // Straight from BDS is our best chance of getting an item that doesn't run into issues
@@ -388,6 +398,10 @@ public class ItemRegistryPopulator {
                     }
                 }
 
+                if (snapshot == null) {
+                    itemBlockRuntimeIds[itemIndex] = bedrockBlockId;
+                }
+
                 ItemMapping.ItemMappingBuilder mappingBuilder = ItemMapping.builder()
                         .javaIdentifier(entry.getKey())
                         .javaId(itemIndex)
@@ -442,6 +456,23 @@ public class ItemRegistryPopulator {
                 itemIndex++;
             }
 
+            if (snapshot != null) {
+                // Restore the block runtime IDs that were corrected for creative items
+                int[] creativeBlockRuntimeIds = snapshot[1];
+                for (int i = 0; i < creativeBlockRuntimeIds.length; i++) {
+                    ItemData itemData = creativeItems.get(i);
+                    if (itemData.getBlockRuntimeId() != creativeBlockRuntimeIds[i]) {
+                        creativeItems.set(i, itemData.toBuilder().blockRuntimeId(creativeBlockRuntimeIds[i]).build());
+                    }
+                }
+            } else {
+                int[] creativeBlockRuntimeIds = new int[creativeItems.size()];
+                for (int i = 0; i < creativeBlockRuntimeIds.length; i++) {
+                    creativeBlockRuntimeIds[i] = creativeItems.get(i).getBlockRuntimeId();
+                }
+                MappingsSnapshot.write(snapshotName, fingerprint, itemBlockRuntimeIds, creativeBlockRuntimeIds);
+            }
+
             itemNames.add("minecraft:furnace_minecart");
 
             int lodestoneCompassId = entries.get("minecraft:lodestone_compass").getId();
@@ -531,4 +562,16 @@ public class ItemRegistryPopulator {
             Registries.ITEMS.register(palette.getValue().getProtocolVersion(), itemMappings);
         }
     }
+
+    /**
+     * @return the block runtime IDs of every Java item and of every creative item from the snapshot, or null
+     * if it is missing, stale or does not fit the current mappings
+     */
+    private static int[][] readItemsSnapshot(String snapshotName, long fingerprint, int itemCount, int creativeItemCount) {
+        int[][] snapshot = MappingsSnapshot.read(snapshotName, fingerprint);
+        if (snapshot == null || snapshot.length != 2 || snapshot[0].length != itemCount || snapshot[1].length != creativeItemCount) {
+            return null;
+        }
+        return snapshot;
+    }
 }
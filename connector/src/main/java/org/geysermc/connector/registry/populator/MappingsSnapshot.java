@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.registry.populator;
+
+import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.utils.FileUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+/**
+ * Stores the results of the slow parts of registry population - matching every Java block state and item against
+ * the Bedrock palettes - in small binary files in the cache folder, so the next start can skip the matching.
+ * <p>
+ * Each snapshot is keyed by a fingerprint of the resources and settings it was built from. A missing, stale or
+ * unreadable snapshot is ignored and the populator falls back to building the mappings from scratch.
+ */
+final class MappingsSnapshot {
+    private static final int MAGIC = 0x47534D53; // GSMS
+    private static final int FORMAT_VERSION = 1;
+
+    private MappingsSnapshot() {
+    }
+
+    /**
+     * Reads a bundled resource fully, so it can be both checksummed and parsed.
+     */
+    static byte[] readResource(String resource) {
+        try (InputStream stream = FileUtils.getResource(resource)) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(stream.available(), 8192));
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        } catch (IOException e) {
+            throw new AssertionError("Unable to read resource " + resource, e);
+        }
+    }
+
+    static long checksum(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return crc.getValue();
+    }
+
+    /**
+     * @param salt anything besides the resources that changes the outcome, such as config options
+     * @param inputChecksums the checksums of every resource the snapshot is built from
+     * @return a fingerprint identifying a snapshot built from exactly these inputs
+     */
+    static long fingerprint(String salt, long... inputChecksums) {
+        CRC32 crc = new CRC32();
+        crc.update((FORMAT_VERSION + ";" + GeyserConnector.VERSION + ";" + GeyserConnector.GIT_VERSION + ";" + salt).getBytes(StandardCharsets.UTF_8));
+        ByteBuffer buffer = ByteBuffer.allocate(inputChecksums.length * Long.BYTES);
+        for (long checksum : inputChecksums) {
+            buffer.putLong(checksum);
+        }
+        crc.update(buffer.array());
+        return crc.getValue();
+    }
+
+    /**
+     * @return the arrays stored in the snapshot, or null if the snapshot does not exist or does not match the fingerprint
+     */
+    static int[][] read(String name, long fingerprint) {
+        Path path = getPath(name);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION || buffer.getLong() != fingerprint) {
+                GeyserConnector.getInstance().getLogger().debug("Mappings snapshot " + name + " is stale; rebuilding");
+                return null;
+            }
+
+            // Each array takes at least the four bytes of its own length
+            int[][] arrays = new int[readLength(buffer, Integer.BYTES)][];
+            for (int i = 0; i < arrays.length; i++) {
+                arrays[i] = new int[readLength(buffer, Integer.BYTES)];
+                buffer.asIntBuffer().get(arrays[i]);
+                buffer.position(buffer.position() + arrays[i].length * Integer.BYTES);
+            }
+            return arrays;
+        } catch (Exception e) {
+            // Truncated or otherwise damaged; it will be overwritten once the mappings are rebuilt
+            GeyserConnector.getInstance().getLogger().debug("Unable to read mappings snapshot " + name + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads a length and checks that the rest of the snapshot is big enough to hold that many elements, so a damaged
+     * length can't make us allocate more than the file could possibly contain.
+     */
+    private static int readLength(ByteBuffer buffer, int elementBytes) throws IOException {
+        int length = buffer.getInt();
+        if (length < 0 || (long) length * elementBytes > buffer.remaining()) {
+            throw new IOException("Invalid length " + length + " with " + buffer.remaining() + " bytes remaining");
+        }
+        return length;
+    }
+
+    static void write(String name, long fingerprint, int[]... arrays) {
+        Path path = getPath(name);
+        try {
+            Files.createDirectories(path.getParent());
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream output = new DataOutputStream(bytes)) {
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                output.writeLong(fingerprint);
+                output.writeInt(arrays.length);
+                for (int[] array : arrays) {
+                    output.writeInt(array.length);
+                    for (int value : array) {
+                        output.writeInt(value);
+                    }
+                }
+            }
+
+            // Write to a temporary file first so a crash can never leave a half-written snapshot behind
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            Files.write(temp, bytes.toByteArray());
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            GeyserConnector.getInstance().getLogger().debug("Unable to write mappings snapshot " + name + ": " + e);
+        }
+    }
+
+    private static Path getPath(String name) {
+        return GeyserConnector.getInstance().getBootstrap().getConfigFolder().resolve("cache").resolve("mappings").resolve(name + ".bin");
+    }
+}
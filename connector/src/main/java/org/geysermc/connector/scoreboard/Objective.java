@@ -26,8 +26,10 @@
 package org.geysermc.connector.scoreboard;
 
 import com.github.steveice10.mc.protocol.data.game.scoreboard.ScoreboardPosition;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.Setter;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -38,7 +40,6 @@ public final class Objective {
     private final long id;
     private boolean active = true;
 
-    @Setter
     private UpdateType updateType = UpdateType.ADD;
 
     private String objectiveName;
@@ -48,6 +49,19 @@ public final class Objective {
     private int type = 0; // 0 = integer, 1 = heart
 
     private Map<String, Score> scores = new ConcurrentHashMap<>();
+    /**
+     * Scores that changed since the last update, by ID. Guarded by the scoreboard.
+     */
+    @Getter(AccessLevel.NONE)
+    final Long2ObjectMap<Score> changedScores = new Long2ObjectOpenHashMap<>();
+
+    /**
+     * The display name and type the client currently shows this objective with; null if it hasn't been displayed yet
+     */
+    @Getter(AccessLevel.NONE)
+    private String displayedName;
+    @Getter(AccessLevel.NONE)
+    private int displayedType;
 
     private Objective(Scoreboard scoreboard) {
         this.id = scoreboard.getNextId().getAndIncrement();
@@ -105,6 +119,7 @@ public final class Objective {
                     .setTeam(scoreboard.getTeamFor(id))
                     .setUpdateType(UpdateType.ADD);
             scores.put(id, scoreObject);
+            scoreboard.markChanged(this, scoreObject);
         }
     }
 
@@ -113,6 +128,7 @@ public final class Objective {
         if (stored != null) {
             stored.setScore(score)
                     .setUpdateType(UpdateType.UPDATE);
+            scoreboard.markChanged(this, stored);
             return;
         }
         registerScore(id, score);
@@ -122,6 +138,7 @@ public final class Objective {
         Score stored = scores.get(id);
         if (stored != null) {
             stored.setUpdateType(UpdateType.REMOVE);
+            scoreboard.markChanged(this, stored);
         }
     }
 
@@ -137,6 +154,7 @@ public final class Objective {
         if (updateType == UpdateType.NOTHING) {
             updateType = UpdateType.UPDATE;
         }
+        scoreboard.markChanged(this);
         return this;
     }
 
@@ -145,6 +163,7 @@ public final class Objective {
         if (updateType == UpdateType.NOTHING) {
             updateType = UpdateType.UPDATE;
         }
+        scoreboard.markChanged(this);
         return this;
     }
 
@@ -153,10 +172,34 @@ public final class Objective {
             active = true;
             this.displaySlot = correctDisplaySlot(displaySlot);
             displaySlotName = translateDisplaySlot(displaySlot);
+            scoreboard.markChanged(this);
+        }
+    }
+
+    public void setUpdateType(UpdateType updateType) {
+        this.updateType = updateType;
+        if (updateType != UpdateType.NOTHING) {
+            scoreboard.markChanged(this);
         }
     }
 
+    /**
+     * @return true if the display name or type differ from what the client shows
+     */
+    public boolean hasDisplayChanged() {
+        return displayedName == null || !displayedName.equals(displayName) || displayedType != type;
+    }
+
+    /**
+     * Called once the client has been sent the current display name and type
+     */
+    public void markDisplayed() {
+        displayedName = displayName;
+        displayedType = type;
+    }
+
     public void removed() {
         scores = null;
+        changedScores.clear();
     }
 }
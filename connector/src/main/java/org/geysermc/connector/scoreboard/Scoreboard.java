@@ -30,6 +30,10 @@ import com.nukkitx.protocol.bedrock.data.ScoreInfo;
 import com.nukkitx.protocol.bedrock.packet.RemoveObjectivePacket;
 import com.nukkitx.protocol.bedrock.packet.SetDisplayObjectivePacket;
 import com.nukkitx.protocol.bedrock.packet.SetScorePacket;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.geysermc.connector.GeyserConnector;
 import org.geysermc.connector.GeyserLogger;
@@ -51,8 +55,21 @@ public final class Scoreboard {
     private final Map<String, Objective> objectives = new ConcurrentHashMap<>();
     private final Map<String, Team> teams = new HashMap<>();
 
-    private int lastAddScoreCount = 0;
-    private int lastRemoveScoreCount = 0;
+    /**
+     * Objectives with changes that haven't been sent yet, by ID. The changed scores are kept by the objective.
+     */
+    @Getter(AccessLevel.NONE)
+    private final Long2ObjectMap<Objective> changedObjectives = new Long2ObjectLinkedOpenHashMap<>();
+    /**
+     * Teams that have changed since the last update
+     */
+    @Getter(AccessLevel.NONE)
+    private final Set<Team> changedTeams = new ObjectOpenHashSet<>();
+    /**
+     * Score names whose team, or the prefix and suffix of whose team, have changed since the last update
+     */
+    @Getter(AccessLevel.NONE)
+    private final Set<String> changedEntries = new ObjectOpenHashSet<>();
 
     public Scoreboard(GeyserSession session) {
         this.session = session;
@@ -82,6 +99,7 @@ public final class Scoreboard {
 
         objective = new Objective(this, objectiveId, displaySlot, "unknown", 0);
         objectives.put(objectiveId, objective);
+        markChanged(objective);
         removeOldObjectives(objective);
         return objective;
     }
@@ -131,55 +149,92 @@ public final class Scoreboard {
         }
     }
 
-    public void onUpdate() {
-        List<ScoreInfo> addScores = new ArrayList<>(getLastAddScoreCount());
-        List<ScoreInfo> removeScores = new ArrayList<>(getLastRemoveScoreCount());
-        List<Objective> removedObjectives = new ArrayList<>();
+    /**
+     * Sends everything that changed since the last update to the client. Only objectives and scores that were marked
+     * as changed are looked at, and an objective is only re-added when its display name or type changed.
+     */
+    public synchronized void onUpdate() {
+        if (changedEntries.isEmpty() && changedObjectives.isEmpty() && changedTeams.isEmpty()) {
+            return;
+        }
+
+        // A team change affects how the scores of its entries are displayed in every objective
+        if (!changedEntries.isEmpty()) {
+            for (Objective objective : objectives.values()) {
+                // hearts can't hold teams
+                if (!objective.isActive() || objective.getType() == 1) {
+                    continue;
+                }
+                for (String entry : changedEntries) {
+                    Score score = objective.getScores().get(entry);
+                    if (score != null) {
+                        markChanged(objective, score);
+                    }
+                }
+            }
+            changedEntries.clear();
+        }
 
-        for (Objective objective : objectives.values()) {
+        List<ScoreInfo> addScores = null;
+        List<ScoreInfo> removeScores = null;
+        List<Objective> removedObjectives = null;
+
+        for (Objective objective : changedObjectives.values()) {
+            Long2ObjectMap<Score> changedScores = objective.changedScores;
             if (!objective.isActive()) {
+                // All scores are sent once the objective is displayed
                 logger.debug("Ignoring non-active Scoreboard Objective '" + objective.getObjectiveName() + '\'');
+                changedScores.clear();
                 continue;
             }
 
             // hearts can't hold teams, so we treat them differently
             if (objective.getType() == 1) {
-                for (Score score : objective.getScores().values()) {
-                    boolean update = score.shouldUpdate();
-
-                    if (update) {
-                        score.update(objective.getObjectiveName());
+                boolean objectiveAdd = objective.getUpdateType() == ADD;
+                for (Score score : objectiveAdd ? objective.getScores().values() : changedScores.values()) {
+                    if (!changedScores.containsKey(score.getId()) && !score.shouldUpdate()) {
+                        continue;
                     }
+                    score.update(objective.getObjectiveName());
 
-                    if (score.getUpdateType() != REMOVE && update) {
-                        addScores.add(score.getCachedInfo());
+                    if (score.getUpdateType() != REMOVE) {
+                        addScores = add(addScores, score.getCachedInfo());
                     }
-                    if (score.getUpdateType() != ADD && update) {
-                        removeScores.add(score.getCachedInfo());
+                    if (score.getUpdateType() != ADD) {
+                        removeScores = add(removeScores, score.getCachedInfo());
                     }
                 }
+                changedScores.clear();
+                if (objectiveAdd) {
+                    objective.setUpdateType(NOTHING);
+                }
                 continue;
             }
 
-            boolean objectiveUpdate = objective.getUpdateType() == UPDATE;
             boolean objectiveAdd = objective.getUpdateType() == ADD;
             boolean objectiveRemove = objective.getUpdateType() == REMOVE;
+            // Bedrock can only change the display of an objective by adding it again, which also drops all its scores
+            boolean objectiveUpdate = objective.getUpdateType() == UPDATE && objective.hasDisplayChanged();
 
-            for (Score score : objective.getScores().values()) {
+            Collection<Score> scores = objectiveAdd || objectiveRemove || objectiveUpdate ?
+                    objective.getScores().values() : changedScores.values();
+            for (Score score : scores) {
+                boolean changed = changedScores.containsKey(score.getId()) || score.shouldUpdate();
                 Team team = score.getTeam();
 
                 boolean add = objectiveAdd || objectiveUpdate;
                 boolean remove = false;
                 if (team != null) {
-                    if (team.getUpdateType() == REMOVE || !team.hasEntity(score.getName())) {
+                    // A removed team is only unregistered right away; its update type changes once it's prepared again
+                    if (team.getUpdateType() == REMOVE || teams.get(team.getId()) != team || !team.hasEntity(score.getName())) {
                         score.setTeam(null);
                         add = true;
                         remove = true;
                     }
                 }
 
-                add |= score.shouldUpdate();
-                remove |= score.shouldUpdate();
+                add |= changed;
+                remove |= changed;
 
                 if (score.getUpdateType() == REMOVE || objectiveRemove) {
                     add = false;
@@ -192,16 +247,20 @@ public final class Scoreboard {
                 if (objectiveRemove && score.getCachedData() != null) {
                     // This score has been sent to the client and needs to be removed since the objective is being removed
                     remove = true;
-                } else if (score.shouldUpdate()) {
+                } else if (changed) {
                     score.update(objective.getObjectiveName());
+                    if (score.getCachedData().getTeam() != null) {
+                        // The team has been prepared for this update and has to be marked as updated afterwards
+                        changedTeams.add(score.getCachedData().getTeam());
+                    }
                 }
 
                 if (add) {
-                    addScores.add(score.getCachedInfo());
+                    addScores = add(addScores, score.getCachedInfo());
                 }
 
                 if (remove) {
-                    removeScores.add(score.getCachedInfo());
+                    removeScores = add(removeScores, score.getCachedInfo());
                 }
 
                 // score is pending to be removed, so we can remove it from the objective
@@ -211,8 +270,12 @@ public final class Scoreboard {
 
                 score.setUpdateType(NOTHING);
             }
+            changedScores.clear();
 
             if (objectiveRemove) {
+                if (removedObjectives == null) {
+                    removedObjectives = new ArrayList<>();
+                }
                 removedObjectives.add(objective);
             }
 
@@ -230,33 +293,33 @@ public final class Scoreboard {
                 displayObjectivePacket.setDisplaySlot(objective.getDisplaySlotName());
                 displayObjectivePacket.setSortOrder(1); // ??
                 session.sendUpstreamPacket(displayObjectivePacket);
+                objective.markDisplayed();
             }
 
             objective.setUpdateType(NOTHING);
         }
+        changedObjectives.clear();
 
-        Iterator<Team> teamIterator = teams.values().iterator();
-        while (teamIterator.hasNext()) {
-            Team current = teamIterator.next();
-
+        for (Team current : changedTeams) {
             switch (current.getUpdateType()) {
                 case ADD:
                 case UPDATE:
                     current.markUpdated();
                     break;
                 case REMOVE:
-                    teamIterator.remove();
+                    teams.remove(current.getId(), current);
             }
         }
+        changedTeams.clear();
 
-        if (!removeScores.isEmpty()) {
+        if (removeScores != null) {
             SetScorePacket setScorePacket = new SetScorePacket();
             setScorePacket.setAction(SetScorePacket.Action.REMOVE);
             setScorePacket.setInfos(removeScores);
             session.sendUpstreamPacket(setScorePacket);
         }
 
-        if (!addScores.isEmpty()) {
+        if (addScores != null) {
             SetScorePacket setScorePacket = new SetScorePacket();
             setScorePacket.setAction(SetScorePacket.Action.SET);
             setScorePacket.setInfos(addScores);
@@ -264,17 +327,47 @@ public final class Scoreboard {
         }
 
         // prevents crashes in some cases
-        for (Objective objective : removedObjectives) {
-            despawnObjective(objective);
+        if (removedObjectives != null) {
+            for (Objective objective : removedObjectives) {
+                despawnObjective(objective);
+            }
+        }
+    }
+
+    /**
+     * Lists are only created once there is something to send, as most updates don't change anything
+     */
+    private static List<ScoreInfo> add(List<ScoreInfo> infos, ScoreInfo info) {
+        if (infos == null) {
+            infos = new ArrayList<>();
         }
+        infos.add(info);
+        return infos;
+    }
+
+    synchronized void markChanged(Objective objective) {
+        changedObjectives.put(objective.getId(), objective);
+    }
 
-        lastAddScoreCount = addScores.size();
-        lastRemoveScoreCount = removeScores.size();
+    synchronized void markChanged(Objective objective, Score score) {
+        objective.changedScores.put(score.getId(), score);
+        changedObjectives.put(objective.getId(), objective);
+    }
+
+    /**
+     * Marks the scores of the given team entries as changed in every objective
+     */
+    synchronized void markChanged(Team team, Collection<String> entries) {
+        changedTeams.add(team);
+        changedEntries.addAll(entries);
     }
 
     public void despawnObjective(Objective objective) {
         objectives.remove(objective.getObjectiveName());
-        objective.removed();
+        synchronized (this) {
+            changedObjectives.remove(objective.getId());
+            objective.removed();
+        }
 
         RemoveObjectivePacket removeObjectivePacket = new RemoveObjectivePacket();
         removeObjectivePacket.setObjectiveId(objective.getObjectiveName());
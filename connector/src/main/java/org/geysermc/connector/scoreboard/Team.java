@@ -64,6 +64,7 @@ public final class Team {
         if (added.size() == 0) {
             return;
         }
+        scoreboard.markChanged(this, added);
         // we don't have to change the updateType,
         // because the scores itself need updating, not the team
         for (Objective objective : scoreboard.getObjectives().values()) {
@@ -99,8 +100,14 @@ public final class Team {
     }
 
     public void removeEntities(String... names) {
+        List<String> removed = new ArrayList<>();
         for (String name : names) {
-            entities.remove(name);
+            if (entities.remove(name)) {
+                removed.add(name);
+            }
+        }
+        if (!removed.isEmpty()) {
+            scoreboard.markChanged(this, removed);
         }
     }
 
@@ -173,10 +180,11 @@ public final class Team {
     }
 
     public Team setUpdateType(UpdateType updateType) {
+        currentData.updateType = updateType;
         if (updateType != UpdateType.NOTHING) {
             currentData.updateTime = System.currentTimeMillis();
+            scoreboard.markChanged(this, entities);
         }
-        currentData.updateType = updateType;
         return this;
     }
 
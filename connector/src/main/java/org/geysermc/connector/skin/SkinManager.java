@@ -27,7 +27,6 @@ package org.geysermc.connector.skin;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.github.steveice10.mc.auth.data.GameProfile;
-import com.nukkitx.protocol.bedrock.data.skin.ImageData;
 import com.nukkitx.protocol.bedrock.data.skin.SerializedSkin;
 import com.nukkitx.protocol.bedrock.packet.PlayerListPacket;
 import lombok.AllArgsConstructor;
@@ -41,7 +40,6 @@ import org.geysermc.connector.utils.LanguageUtils;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
-import java.util.Collections;
 import java.util.UUID;
 import java.util.function.Consumer;
 
@@ -60,7 +58,7 @@ public class SkinManager {
             skin = SkinProvider.EMPTY_SKIN;
         }
 
-        return buildEntryManually(
+        PlayerListPacket.Entry entry = buildEntryManually(
                 session,
                 playerEntity.getProfile().getId(),
                 playerEntity.getProfile().getName(),
@@ -71,6 +69,29 @@ public class SkinManager {
                 cape.getCapeData(),
                 geometry
         );
+        playerEntity.setSerializedSkin(entry.getSkin());
+        return entry;
+    }
+
+    /**
+     * Builds a Bedrock player list entry with the default skin for the player's model, to stand in until the real
+     * skin is sent
+     */
+    public static PlayerListPacket.Entry buildDefaultEntry(GeyserSession session, PlayerEntity playerEntity) {
+        GameProfileData data = GameProfileData.from(playerEntity.getProfile());
+        SkinProvider.Skin skin = data.isAlex() ? SkinProvider.EMPTY_SKIN_ALEX : SkinProvider.EMPTY_SKIN;
+
+        return buildEntryManually(
+                session,
+                playerEntity.getProfile().getId(),
+                playerEntity.getProfile().getName(),
+                playerEntity.getGeyserId(),
+                skin.getTextureUrl(),
+                skin.getSkinData(),
+                SkinProvider.EMPTY_CAPE.getCapeId(),
+                SkinProvider.EMPTY_CAPE.getCapeData(),
+                SkinProvider.SkinGeometry.getLegacy(data.isAlex())
+        );
     }
 
     /**
@@ -80,11 +101,7 @@ public class SkinManager {
                                                                  String skinId, byte[] skinData,
                                                                  String capeId, byte[] capeData,
                                                                  SkinProvider.SkinGeometry geometry) {
-        SerializedSkin serializedSkin = SerializedSkin.of(
-                skinId, "", geometry.getGeometryName(), ImageData.of(skinData), Collections.emptyList(),
-                ImageData.of(capeData), geometry.getGeometryData(), "", true, false,
-                !capeId.equals(SkinProvider.EMPTY_CAPE.getCapeId()), capeId, skinId
-        );
+        SerializedSkin serializedSkin = SkinStore.getSkin(skinId, skinData, capeId, capeData, geometry);
 
         // This attempts to find the XUID of the player so profile images show up for Xbox accounts
         String xuid = "";
@@ -181,19 +198,9 @@ public class SkinManager {
                                     cape.getCapeData(),
                                     geometry
                             );
+                            entity.setSerializedSkin(updatedEntry.getSkin());
 
-
-                            PlayerListPacket playerAddPacket = new PlayerListPacket();
-                            playerAddPacket.setAction(PlayerListPacket.Action.ADD);
-                            playerAddPacket.getEntries().add(updatedEntry);
-                            session.sendUpstreamPacket(playerAddPacket);
-
-                            if (!entity.isPlayerList()) {
-                                PlayerListPacket playerRemovePacket = new PlayerListPacket();
-                                playerRemovePacket.setAction(PlayerListPacket.Action.REMOVE);
-                                playerRemovePacket.getEntries().add(updatedEntry);
-                                session.sendUpstreamPacket(playerRemovePacket);
-                            }
+                            session.getSkinDeliveryScheduler().submit(entity, updatedEntry);
                         }
                     } catch (Exception e) {
                         GeyserConnector.getInstance().getLogger().error(LanguageUtils.getLocaleStringLog("geyser.skin.fail", entity.getUuid()), e);
@@ -33,10 +33,12 @@ import com.github.steveice10.opennbt.tag.builtin.IntArrayTag;
 import com.github.steveice10.opennbt.tag.builtin.Tag;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.metrics.GeyserMetrics;
 import org.geysermc.connector.network.session.GeyserSession;
 import org.geysermc.connector.utils.FileUtils;
 import org.geysermc.connector.utils.WebUtils;
@@ -69,6 +71,7 @@ public class SkinProvider {
     }};
     private static final Cache<String, Skin> cachedSkins = CacheBuilder.newBuilder()
             .expireAfterAccess(1, TimeUnit.HOURS)
+            .recordStats()
             .build();
 
     private static final Map<String, CompletableFuture<Skin>> requestedSkins = new ConcurrentHashMap<>();
@@ -76,6 +79,7 @@ public class SkinProvider {
     public static final Cape EMPTY_CAPE = new Cape("", "no-cape", new byte[0], -1, true);
     private static final Cache<String, Cape> cachedCapes = CacheBuilder.newBuilder()
             .expireAfterAccess(1, TimeUnit.HOURS)
+            .recordStats()
             .build();
     private static final Map<String, CompletableFuture<Cape>> requestedCapes = new ConcurrentHashMap<>();
 
@@ -137,6 +141,14 @@ public class SkinProvider {
         return cape != null ? cape : EMPTY_CAPE;
     }
 
+    public static CacheStats getSkinCacheStats() {
+        return cachedSkins.stats();
+    }
+
+    public static CacheStats getCapeCacheStats() {
+        return cachedCapes.stats();
+    }
+
     public static CompletableFuture<SkinAndCape> requestSkinAndCape(UUID playerId, String skinUrl, String capeUrl) {
         return CompletableFuture.supplyAsync(() -> {
             long time = System.currentTimeMillis();
@@ -503,6 +515,11 @@ public class SkinProvider {
         if (provider == CapeProvider.FIVEZIG)
             return readFiveZigCape(imageUrl);
 
+        GeyserMetrics metrics = GeyserConnector.getInstance().getGeyserMetrics();
+        if (metrics.isEnabled()) {
+            metrics.getSkinDownloads().increment();
+        }
+
         HttpURLConnection con = (HttpURLConnection) new URL(imageUrl).openConnection();
         con.setRequestProperty("User-Agent", "Geyser-" + GeyserConnector.getInstance().getPlatformType().toString() + "/" + GeyserConnector.VERSION);
 
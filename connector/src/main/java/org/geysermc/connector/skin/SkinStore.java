@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.skin;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.nukkitx.protocol.bedrock.data.skin.ImageData;
+import com.nukkitx.protocol.bedrock.data.skin.SerializedSkin;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Shares the Bedrock skins sent in player lists and to skulls between all sessions.
+ * <p>
+ * A {@link SerializedSkin} is immutable, so every player list entry for the same skin, cape and geometry can use the
+ * same instance instead of each session wrapping the skin data again. Skins are held weakly: the player entities that
+ * use a skin keep it alive, and once no online player has it anymore it can be collected.
+ */
+public final class SkinStore {
+    private static final Cache<SkinKey, SerializedSkin> SKINS = CacheBuilder.newBuilder()
+            .weakValues()
+            .recordStats()
+            .build();
+
+    private SkinStore() {
+    }
+
+    /**
+     * Returns the shared skin for this combination of skin, cape and geometry, building it if no online player
+     * uses it yet.
+     */
+    public static SerializedSkin getSkin(String skinId, byte[] skinData, String capeId, byte[] capeData, SkinProvider.SkinGeometry geometry) {
+        SkinKey key = new SkinKey(skinId, skinData, capeId, capeData, geometry.getGeometryName(), geometry.getGeometryData());
+        try {
+            return SKINS.get(key, () -> SerializedSkin.of(
+                    skinId, "", geometry.getGeometryName(), ImageData.of(skinData), Collections.emptyList(),
+                    ImageData.of(capeData), geometry.getGeometryData(), "", true, false,
+                    !capeId.equals(SkinProvider.EMPTY_CAPE.getCapeId()), capeId, skinId
+            ));
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    public static CacheStats getCacheStats() {
+        return SKINS.stats();
+    }
+
+    public static SkinStoreStats getStats() {
+        SKINS.cleanUp();
+        long bytes = 0;
+        for (SerializedSkin skin : SKINS.asMap().values()) {
+            bytes += skin.getSkinData().getImage().length + skin.getCapeData().getImage().length + skin.getGeometryData().length();
+        }
+        return new SkinStoreStats(SKINS.size(), bytes, SKINS.stats());
+    }
+
+    @Getter
+    public static class SkinStoreStats {
+        /**
+         * The amount of distinct skins currently shared
+         */
+        private final long skins;
+        /**
+         * The size of the images and geometry of all shared skins
+         */
+        private final long bytes;
+        /**
+         * How often a skin could be reused instead of built again
+         */
+        private final long hits;
+        private final long misses;
+
+        private SkinStoreStats(long skins, long bytes, CacheStats stats) {
+            this.skins = skins;
+            this.bytes = bytes;
+            this.hits = stats.hitCount();
+            this.misses = stats.missCount();
+        }
+    }
+
+    /**
+     * Identifies a skin by the contents of its images, so a texture that was downloaded again after the
+     * {@link SkinProvider} caches expired still finds the skin built from the earlier download. Comparing the images
+     * themselves, not only their IDs, means different images sent under one ID are never mixed up.
+     */
+    private static final class SkinKey {
+        private final String skinId;
+        private final byte[] skinData;
+        private final String capeId;
+        private final byte[] capeData;
+        private final String geometryName;
+        private final String geometryData;
+        private final int hashCode;
+
+        private SkinKey(String skinId, byte[] skinData, String capeId, byte[] capeData, String geometryName, String geometryData) {
+            this.skinId = skinId;
+            this.skinData = skinData;
+            this.capeId = capeId;
+            this.capeData = capeData;
+            this.geometryName = geometryName;
+            this.geometryData = geometryData;
+            this.hashCode = Objects.hash(skinId, Arrays.hashCode(skinData), capeId, Arrays.hashCode(capeData), geometryName, geometryData);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof SkinKey)) return false;
+            SkinKey other = (SkinKey) o;
+            return hashCode == other.hashCode && skinId.equals(other.skinId) && capeId.equals(other.capeId)
+                    && geometryName.equals(other.geometryName) && geometryData.equals(other.geometryData)
+                    && Arrays.equals(skinData, other.skinData) && Arrays.equals(capeData, other.capeData);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -25,7 +25,6 @@
 
 package org.geysermc.connector.skin;
 
-import com.nukkitx.protocol.bedrock.data.skin.ImageData;
 import com.nukkitx.protocol.bedrock.data.skin.SerializedSkin;
 import com.nukkitx.protocol.bedrock.packet.PlayerSkinPacket;
 import org.geysermc.connector.GeyserConnector;
@@ -33,7 +32,6 @@ import org.geysermc.connector.entity.player.PlayerEntity;
 import org.geysermc.connector.network.session.GeyserSession;
 import org.geysermc.connector.utils.LanguageUtils;
 
-import java.util.Collections;
 import java.util.function.Consumer;
 
 public class SkullSkinManager extends SkinManager {
@@ -41,11 +39,8 @@ public class SkullSkinManager extends SkinManager {
     public static SerializedSkin buildSkullEntryManually(String skinId, byte[] skinData) {
         // Prevents https://cdn.discordapp.com/attachments/613194828359925800/779458146191147008/unknown.png
         skinId = skinId + "_skull";
-        return SerializedSkin.of(
-                skinId, "", SkinProvider.SKULL_GEOMETRY.getGeometryName(), ImageData.of(skinData), Collections.emptyList(),
-                ImageData.of(SkinProvider.EMPTY_CAPE.getCapeData()), SkinProvider.SKULL_GEOMETRY.getGeometryData(),
-                "", true, false, false, SkinProvider.EMPTY_CAPE.getCapeId(), skinId
-        );
+        return SkinStore.getSkin(skinId, skinData, SkinProvider.EMPTY_CAPE.getCapeId(),
+                SkinProvider.EMPTY_CAPE.getCapeData(), SkinProvider.SKULL_GEOMETRY);
     }
 
     public static void requestAndHandleSkin(PlayerEntity entity, GeyserSession session,
@@ -60,7 +55,10 @@ public class SkullSkinManager extends SkinManager {
                             packet.setUuid(entity.getUuid());
                             packet.setOldSkinName("");
                             packet.setNewSkinName(skin.getTextureUrl());
-                            packet.setSkin(buildSkullEntryManually(skin.getTextureUrl(), skin.getSkinData()));
+                            SerializedSkin skullSkin = buildSkullEntryManually(skin.getTextureUrl(), skin.getSkinData());
+                            // The entity keeps the shared skin alive for as long as the skull is shown
+                            entity.setSerializedSkin(skullSkin);
+                            packet.setSkin(skullSkin);
                             packet.setTrustedSkin(true);
                             session.sendUpstreamPacket(packet);
                         }
@@ -73,5 +71,4 @@ public class SkullSkinManager extends SkinManager {
                     }
                 });
     }
-
 }
@@ -25,7 +25,17 @@
 
 package org.geysermc.connector.utils;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.nukkitx.network.VarInts;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
 import org.geysermc.connector.network.translators.world.chunk.BlockStorage;
+import org.geysermc.connector.network.translators.world.chunk.bitarray.BitArray;
+import org.geysermc.connector.network.translators.world.chunk.bitarray.BitArrayVersion;
 
 import java.util.Arrays;
 
@@ -51,26 +61,127 @@ public class BiomeUtils {
         return bedrockData;
     }
 
-    public static BlockStorage toNewBedrockBiome(int[] biomeData, int ySection) {
-        BlockStorage storage = new BlockStorage(0);
-        int blockY = ySection << 4;
-        int i = 0;
-        // Iterate over biomes like a chunk, grab the biome from Java, and add it to Bedrock's biome palette
-        // Might be able to be optimized by iterating over Java's biome data section?? Unsure.
+    /**
+     * The number of 4x4x4 biome cells in one 16x16x16 section
+     */
+    private static final int CELLS_PER_SECTION = 64;
+
+    /**
+     * Sections are usually repeated across chunks - think of the same ocean or plains filling whole regions - so
+     * the encoded form of recently seen sections is kept around.
+     */
+    private static final Cache<BiomeSection, byte[]> ENCODED_SECTIONS = CacheBuilder.newBuilder()
+            .maximumSize(4096)
+            .recordStats()
+            .build();
+
+    private static final byte[][] SINGLE_BIOME_SECTIONS = new byte[256][];
+
+    /**
+     * Encodes the biomes of one section in the 3D palette format used by extended height worlds.
+     * <p>
+     * Java stores biomes at 4x4x4 resolution, so the section is read as 64 cells. A section with a single biome uses
+     * the compact single-value form; otherwise a palette storage is built directly from the cells.
+     *
+     * @param biomeData the Java biome data of the column
+     * @param ySection the section index, starting at the bottom of the column
+     * @return the encoded section, ready to be written to a chunk. Must not be modified.
+     */
+    public static byte[] toNewBedrockBiome(int[] biomeData, int ySection) {
+        int[] cells = new int[CELLS_PER_SECTION];
+        int cellY = ySection << 2;
+        boolean singleBiome = true;
+        for (int i = 0; i < CELLS_PER_SECTION; i++) {
+            // Cell order matches Java: y, then z, then x
+            int biomeId = toBedrockBiomeId(biomeData[((cellY + (i >> 4)) & 63) << 4 | (i & 15)]);
+            cells[i] = biomeId;
+            singleBiome &= biomeId == cells[0];
+        }
+
+        if (singleBiome) {
+            return encodeSingleBiome(cells[0]);
+        }
+
+        BiomeSection key = new BiomeSection(cells);
+        byte[] encoded = ENCODED_SECTIONS.getIfPresent(key);
+        if (encoded == null) {
+            encoded = encodePalettedSection(cells);
+            ENCODED_SECTIONS.put(key, encoded);
+        }
+        return encoded;
+    }
+
+    public static CacheStats getEncodedSectionCacheStats() {
+        return ENCODED_SECTIONS.stats();
+    }
+
+    /**
+     * @return a section filled with one biome, in the compact single-value form: a zero-bit palette header followed
+     * by the only palette entry
+     */
+    public static byte[] encodeSingleBiome(int bedrockBiomeId) {
+        if (bedrockBiomeId < 0 || bedrockBiomeId >= SINGLE_BIOME_SECTIONS.length) {
+            return writeSingleBiome(bedrockBiomeId);
+        }
+        byte[] encoded = SINGLE_BIOME_SECTIONS[bedrockBiomeId];
+        if (encoded == null) {
+            // Racing threads would just store the same bytes
+            SINGLE_BIOME_SECTIONS[bedrockBiomeId] = encoded = writeSingleBiome(bedrockBiomeId);
+        }
+        return encoded;
+    }
+
+    private static byte[] writeSingleBiome(int bedrockBiomeId) {
+        ByteBuf byteBuf = Unpooled.buffer(6);
+        try {
+            byteBuf.writeByte(1); // Zero bits per entry, runtime palette
+            VarInts.writeInt(byteBuf, bedrockBiomeId);
+            byte[] encoded = new byte[byteBuf.readableBytes()];
+            byteBuf.readBytes(encoded);
+            return encoded;
+        } finally {
+            byteBuf.release();
+        }
+    }
+
+    private static byte[] encodePalettedSection(int[] cells) {
+        IntList palette = new IntArrayList(4);
+        int[] cellPaletteIndex = new int[CELLS_PER_SECTION];
+        for (int i = 0; i < CELLS_PER_SECTION; i++) {
+            int index = palette.indexOf(cells[i]);
+            if (index == -1) {
+                index = palette.size();
+                palette.add(cells[i]);
+            }
+            cellPaletteIndex[i] = index;
+        }
+
+        int bits = 32 - Integer.numberOfLeadingZeros(palette.size() - 1);
+        BitArray bitArray = BitArrayVersion.forBitsCeil(bits).createArray(BlockStorage.SIZE);
+        // Bedrock storage is ordered x, then z, then y
+        int index = 0;
         for (int x = 0; x < 16; x++) {
             for (int z = 0; z < 16; z++) {
-                for (int y = blockY; y < (blockY + 16); y++) {
-                    int biomeId = biomeID(biomeData, x, y, z);
-                    storage.setFullBlock(i, biomeId);
-                    i++;
+                int column = ((z >> 2) << 2) | (x >> 2);
+                for (int y = 0; y < 16; y++) {
+                    bitArray.set(index++, cellPaletteIndex[((y >> 2) << 4) | column]);
                 }
             }
         }
-        return storage;
+
+        BlockStorage storage = new BlockStorage(bitArray, palette);
+        ByteBuf byteBuf = Unpooled.buffer(storage.estimateNetworkSize());
+        try {
+            storage.writeToNetwork(byteBuf);
+            byte[] encoded = new byte[byteBuf.readableBytes()];
+            byteBuf.readBytes(encoded);
+            return encoded;
+        } finally {
+            byteBuf.release();
+        }
     }
 
-    private static int biomeID(int[] biomeData, int x, int y, int z) {
-        int biomeId = biomeData[((y >> 2) & 63) << 4 | ((z >> 2) & 3) << 2 | ((x >> 2) & 3)];
+    private static int toBedrockBiomeId(int biomeId) {
         if (biomeId == 0) {
             biomeId = 42; // Ocean
         } else if (biomeId >= 40 && biomeId <= 43) { // Java has multiple End dimensions that Bedrock doesn't recognize
@@ -80,4 +191,31 @@ public class BiomeUtils {
         }
         return biomeId;
     }
+
+    private static int biomeID(int[] biomeData, int x, int y, int z) {
+        return toBedrockBiomeId(biomeData[((y >> 2) & 63) << 4 | ((z >> 2) & 3) << 2 | ((x >> 2) & 3)]);
+    }
+
+    /**
+     * The 64 biome cells of a section, used as a cache key.
+     */
+    private static final class BiomeSection {
+        private final int[] cells;
+        private final int hash;
+
+        private BiomeSection(int[] cells) {
+            this.cells = cells;
+            this.hash = Arrays.hashCode(cells);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof BiomeSection && Arrays.equals(cells, ((BiomeSection) o).cells));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
 }
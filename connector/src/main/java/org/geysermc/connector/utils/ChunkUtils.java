@@ -49,7 +49,7 @@ import lombok.Data;
 import lombok.experimental.UtilityClass;
 import org.geysermc.connector.GeyserConnector;
 import org.geysermc.connector.entity.ItemFrameEntity;
-import org.geysermc.connector.entity.player.SkullPlayerEntity;
+import org.geysermc.connector.network.session.cache.SkullCache;
 import org.geysermc.connector.network.session.GeyserSession;
 import org.geysermc.connector.network.translators.inventory.translators.LecternInventoryTranslator;
 import org.geysermc.connector.network.translators.world.block.BlockStateValues;
@@ -90,18 +90,9 @@ public class ChunkUtils {
 
     static {
         if (GeyserConnector.getInstance().getConfig().isExtendedWorldHeight()) {
-            ByteBuf byteBuf = Unpooled.buffer();
-            try {
-                BlockStorage blockStorage = new BlockStorage(0);
-                blockStorage.writeToNetwork(byteBuf);
+            EMPTY_BIOME_DATA = BiomeUtils.encodeSingleBiome(0);
 
-                EMPTY_BIOME_DATA = new byte[byteBuf.readableBytes()];
-                byteBuf.readBytes(EMPTY_BIOME_DATA);
-            } finally {
-                byteBuf.release();
-            }
-
-            byteBuf = Unpooled.buffer();
+            ByteBuf byteBuf = Unpooled.buffer();
             try {
                 for (int i = 0; i < 32; i++) {
                     byteBuf.writeBytes(EMPTY_BIOME_DATA);
@@ -342,22 +333,79 @@ public class ChunkUtils {
      * @param position the position of the block
      */
     public static void updateBlock(GeyserSession session, int blockState, Vector3i position) {
-        // Checks for item frames so they aren't tripped up and removed
-        ItemFrameEntity itemFrameEntity = ItemFrameEntity.getItemFrameEntity(session, position);
-        if (itemFrameEntity != null) {
-            if (blockState == JAVA_AIR_ID) { // Item frame is still present and no block overrides that; refresh it
-                itemFrameEntity.updateBlock(session);
-                // Still update the chunk cache with the new block
-                session.getChunkCache().updateBlock(position.getX(), position.getY(), position.getZ(), blockState);
-                return;
+        updateBlock(session, blockState, position, true);
+    }
+
+    /**
+     * Sends several block updates received in one Java packet to the Bedrock client. This does the same as calling
+     * {@link #updateBlock(GeyserSession, int, Vector3i)} for each block, but with less work per block:
+     * <ul>
+     *     <li>Item frame and skull lookups are skipped entirely if the session has none.</li>
+     *     <li>Lectern and Bedrock-only block entities are updated once all blocks have been sent, and only for the
+     *     positions that need it.</li>
+     * </ul>
+     *
+     * @param session the Bedrock session to send/register the blocks to
+     * @param blockStates the Java block state of each block
+     * @param positions the position of each block
+     */
+    public static void updateBlocks(GeyserSession session, int[] blockStates, Vector3i[] positions) {
+        boolean checkEntities = !session.getItemFrameCache().isEmpty() || !session.getSkullCache().isEmpty();
+        boolean checkLecterns = !session.getLecternCache().isEmpty();
+
+        IntList blockEntityUpdates = new IntArrayList();
+        for (int i = 0; i < positions.length; i++) {
+            Vector3i position = positions[i];
+            int blockState = blockStates[i];
+            if (!sendBlock(session, blockState, position, checkEntities)) {
+                continue;
+            }
+            session.getChunkCache().updateBlock(position.getX(), position.getY(), position.getZ(), blockState);
+
+            if (BlockStateValues.getLecternBookStates().containsKey(blockState) || getBedrockOnlyBlockEntity(blockState) != null
+                    || (checkLecterns && session.getLecternCache().contains(position))) {
+                blockEntityUpdates.add(i);
             }
-            // Otherwise, let's still store our reference to the item frame, but let the new block take precedence for now
         }
 
-        SkullPlayerEntity skull = session.getSkullCache().get(position);
-        if (skull != null && blockState != skull.getBlockState()) {
-            // Skull is gone
-            skull.despawnEntity(session, position);
+        for (int i = 0; i < blockEntityUpdates.size(); i++) {
+            int index = blockEntityUpdates.getInt(i);
+            updateBlockEntities(session, blockStates[index], positions[index]);
+        }
+    }
+
+    private static void updateBlock(GeyserSession session, int blockState, Vector3i position, boolean checkEntities) {
+        if (!sendBlock(session, blockState, position, checkEntities)) {
+            return;
+        }
+        updateBlockEntities(session, blockState, position);
+        session.getChunkCache().updateBlock(position.getX(), position.getY(), position.getZ(), blockState);
+    }
+
+    /**
+     * Sends both layers of a block to the client.
+     *
+     * @return false if an item frame took the place of the block, in which case the chunk cache is already updated
+     */
+    private static boolean sendBlock(GeyserSession session, int blockState, Vector3i position, boolean checkEntities) {
+        if (checkEntities) {
+            // Checks for item frames so they aren't tripped up and removed
+            ItemFrameEntity itemFrameEntity = ItemFrameEntity.getItemFrameEntity(session, position);
+            if (itemFrameEntity != null) {
+                if (blockState == JAVA_AIR_ID) { // Item frame is still present and no block overrides that; refresh it
+                    itemFrameEntity.updateBlock(session);
+                    // Still update the chunk cache with the new block
+                    session.getChunkCache().updateBlock(position.getX(), position.getY(), position.getZ(), blockState);
+                    return false;
+                }
+                // Otherwise, let's still store our reference to the item frame, but let the new block take precedence for now
+            }
+
+            SkullCache.Skull skull = session.getSkullCache().getSkull(position);
+            if (skull != null && blockState != skull.getBlockState()) {
+                // Skull is gone
+                session.getSkullCache().removeSkull(position);
+            }
         }
 
         int blockId = session.getBlockMappings().getBedrockBlockId(blockState);
@@ -379,7 +427,10 @@ public class ChunkUtils {
             waterPacket.setRuntimeId(session.getBlockMappings().getBedrockAirId());
         }
         session.sendUpstreamPacket(waterPacket);
+        return true;
+    }
 
+    private static void updateBlockEntities(GeyserSession session, int blockState, Vector3i position) {
         BlockStateValues.getLecternBookStates().compute(blockState, (key, newLecternHasBook) -> {
             // Determine if this block is a lectern
             if (newLecternHasBook != null) {
@@ -405,16 +456,24 @@ public class ChunkUtils {
             return newLecternHasBook;
         });
 
-        // Iterates through all Bedrock-only block entity translators and determines if a manual block entity packet
-        // needs to be sent
+        BedrockOnlyBlockEntity bedrockOnlyBlockEntity = getBedrockOnlyBlockEntity(blockState);
+        if (bedrockOnlyBlockEntity != null) {
+            // Flower pots are block entities only in Bedrock and are not updated anywhere else like note blocks
+            bedrockOnlyBlockEntity.updateBlock(session, blockState, position);
+        }
+    }
+
+    /**
+     * @return the Bedrock-only block entity translator that needs to send a manual block entity packet for this
+     * block, or null
+     */
+    private static BedrockOnlyBlockEntity getBedrockOnlyBlockEntity(int blockState) {
         for (BedrockOnlyBlockEntity bedrockOnlyBlockEntity : BlockEntityUtils.BEDROCK_ONLY_BLOCK_ENTITIES) {
             if (bedrockOnlyBlockEntity.isBlock(blockState)) {
-                // Flower pots are block entities only in Bedrock and are not updated anywhere else like note blocks
-                bedrockOnlyBlockEntity.updateBlock(session, blockState, position);
-                break; //No block will be a part of two classes
+                return bedrockOnlyBlockEntity; // No block will be a part of two classes
             }
         }
-        session.getChunkCache().updateBlock(position.getX(), position.getY(), position.getZ(), blockState);
+        return null;
     }
 
     public static void sendEmptyChunks(GeyserSession session, Vector3i position, int radius, boolean forceUpdate) {
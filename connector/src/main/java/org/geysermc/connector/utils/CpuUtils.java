@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+
+public class CpuUtils {
+    /**
+     * How long a CPU load sample is reused before asking the JVM again
+     */
+    private static final long SAMPLE_INTERVAL_NANOS = 500_000_000L;
+
+    private static final OperatingSystemMXBean OS_BEAN = ManagementFactory.getOperatingSystemMXBean();
+
+    private static volatile double lastLoad = -1;
+    private static volatile long lastSample = 0;
+
+    /**
+     * Get the recent CPU usage of the Geyser process, sampled at most twice a second.
+     *
+     * @return a value between 0 and 1, or -1 if the platform doesn't report it
+     */
+    public static double getProcessCpuLoad() {
+        long now = System.nanoTime();
+        if (now - lastSample < SAMPLE_INTERVAL_NANOS) {
+            return lastLoad;
+        }
+        lastSample = now;
+
+        double load = -1;
+        if (OS_BEAN instanceof com.sun.management.OperatingSystemMXBean) {
+            load = ((com.sun.management.OperatingSystemMXBean) OS_BEAN).getProcessCpuLoad();
+        } else {
+            // Fall back to the system load average spread over the available cores
+            double loadAverage = OS_BEAN.getSystemLoadAverage();
+            if (loadAverage >= 0) {
+                load = Math.min(1, loadAverage / OS_BEAN.getAvailableProcessors());
+            }
+        }
+        return lastLoad = load;
+    }
+}
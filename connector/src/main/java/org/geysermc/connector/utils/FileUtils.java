@@ -33,6 +33,7 @@ import org.geysermc.connector.GeyserConnector;
 
 import java.io.*;
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.security.MessageDigest;
@@ -260,4 +261,57 @@ public class FileUtils {
             }
         }).collect(Collectors.toSet());
     }
+
+    /**
+     * Returns the index of all classes annotated by the given annotation. The index is generated at compile time
+     * alongside the annotation as {@code <annotation>Index}; if it is missing (for example when the annotation
+     * processor was skipped in an IDE build) the classes are read from the generated resource list and created
+     * through reflection instead.
+     *
+     * @param input the fully qualified name of the annotation
+     * @return an index of all the classes annotated by the given annotation
+     */
+    public static GeneratedClassIndex getGeneratedClassIndex(String input) {
+        try {
+            return (GeneratedClassIndex) Class.forName(input + "Index").newInstance();
+        } catch (ClassNotFoundException | InstantiationException | IllegalAccessException e) {
+            GeyserConnector.getInstance().getLogger().debug("No generated class index for " + input + ", falling back to reflection");
+            return new ReflectiveClassIndex(getGeneratedClassesForAnnotation(input).toArray(new Class<?>[0]));
+        }
+    }
+
+    /**
+     * @see #getGeneratedClassIndex(String)
+     */
+    public static GeneratedClassIndex getGeneratedClassIndex(Class<? extends Annotation> annotationClass) {
+        return getGeneratedClassIndex(annotationClass.getName());
+    }
+
+    private static class ReflectiveClassIndex implements GeneratedClassIndex {
+        private final Class<?>[] classes;
+
+        private ReflectiveClassIndex(Class<?>[] classes) {
+            this.classes = classes;
+        }
+
+        @Override
+        public Class<?>[] getClasses() {
+            return classes.clone();
+        }
+
+        @Override
+        public Object create(int index, Object... args) {
+            for (Constructor<?> constructor : classes[index].getDeclaredConstructors()) {
+                if (constructor.getParameterCount() == args.length) {
+                    try {
+                        constructor.setAccessible(true);
+                        return constructor.newInstance(args);
+                    } catch (ReflectiveOperationException e) {
+                        throw new IllegalArgumentException("Could not create " + classes[index].getName(), e);
+                    }
+                }
+            }
+            throw new IllegalArgumentException("No constructor of " + classes[index].getName() + " takes " + args.length + " argument(s)");
+        }
+    }
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.utils;
+
+/**
+ * An index of every class annotated with one of Geyser's registry annotations, generated at compile time by the
+ * annotation processor. Creating classes through the index avoids looking up and invoking constructors
+ * reflectively during startup.
+ *
+ * @see FileUtils#getGeneratedClassIndex(String)
+ */
+public interface GeneratedClassIndex {
+
+    /**
+     * @return every annotated class, in the order used by {@link #create(int, Object...)}
+     */
+    Class<?>[] getClasses();
+
+    /**
+     * Creates a new instance of an annotated class.
+     *
+     * @param index the index of the class in {@link #getClasses()}
+     * @param args the constructor arguments. The constructor is chosen by the amount and types of the arguments given.
+     * @return the new instance
+     * @throws IllegalArgumentException if the class has no constructor taking these arguments
+     */
+    Object create(int index, Object... args);
+}
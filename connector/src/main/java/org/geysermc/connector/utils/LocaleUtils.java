@@ -27,28 +27,48 @@ package org.geysermc.connector.utils;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.github.steveice10.mc.protocol.MinecraftConstants;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import lombok.Getter;
 import org.geysermc.connector.GeyserConnector;
 
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.ZipFile;
 
 public class LocaleUtils {
 
-    public static final Map<String, Map<String, String>> LOCALE_MAPPINGS = new HashMap<>();
+    /**
+     * Loaded locales. Each locale is immutable once inserted, so it can be read from any thread.
+     */
+    private static final Map<String, Map<String, String>> LOCALE_MAPPINGS = new ConcurrentHashMap<>();
+
+    /**
+     * Each locale is only downloaded and loaded once; later requests share the same future.
+     */
+    private static final Map<String, CompletableFuture<Void>> LOCALE_LOADS = new ConcurrentHashMap<>();
+
+    /**
+     * Translation keys are the same in every locale, so they are shared between them.
+     */
+    private static final Interner<String> KEY_INTERNER = Interners.newWeakInterner();
+
+    private static final Map<String, Asset> ASSET_MAP = new ConcurrentHashMap<>();
 
-    private static final Map<String, Asset> ASSET_MAP = new HashMap<>();
+    private static final CompletableFuture<Void> ASSET_CACHE;
 
-    private static VersionDownload clientJarInfo;
+    private static volatile VersionDownload clientJarInfo;
 
     static {
         // Create the locales folder
@@ -57,7 +77,8 @@ public class LocaleUtils {
         localesFolder.mkdir();
 
         // Download the latest asset list and cache it
-        generateAssetCache().whenComplete((aVoid, ex) -> downloadAndLoadLocale(LanguageUtils.getDefaultLocale()));
+        ASSET_CACHE = generateAssetCache();
+        downloadAndLoadLocale(LanguageUtils.getDefaultLocale());
     }
 
     /**
@@ -109,23 +130,47 @@ public class LocaleUtils {
     }
 
     /**
-     * Downloads a locale from Mojang if its not already loaded
+     * Downloads and loads a locale in the background, unless that has already been done or is in progress.
+     * Until it is ready, {@link #getLocaleString(String, String)} falls back to the default locale. If loading fails,
+     * the next call tries again.
      *
      * @param locale Locale to download and load
+     * @return a future completing once the locale has been loaded, or has failed to load
      */
-    public static void downloadAndLoadLocale(String locale) {
-        locale = locale.toLowerCase();
+    public static CompletableFuture<Void> downloadAndLoadLocale(String locale) {
+        String lowercaseLocale = locale.toLowerCase();
+        CompletableFuture<Void> future = LOCALE_LOADS.computeIfAbsent(lowercaseLocale, key -> ASSET_CACHE.thenRunAsync(() -> {
+            // Check the locale exists
+            if (!ASSET_MAP.containsKey("minecraft/lang/" + key + ".json") && !key.equals("en_us")) {
+                GeyserConnector.getInstance().getLogger().warning(LanguageUtils.getLocaleStringLog("geyser.locale.fail.invalid", key));
+                return;
+            }
 
-        // Check the locale isn't already loaded
-        if (!ASSET_MAP.containsKey("minecraft/lang/" + locale + ".json") && !locale.equals("en_us")) {
-            GeyserConnector.getInstance().getLogger().warning(LanguageUtils.getLocaleStringLog("geyser.locale.fail.invalid", locale));
-            return;
-        }
+            GeyserConnector.getInstance().getLogger().debug("Downloading and loading locale: " + key);
 
-        GeyserConnector.getInstance().getLogger().debug("Downloading and loading locale: " + locale);
+            downloadLocale(key);
+            loadLocale(key);
+        }, GeyserConnector.getInstance().getGeneralThreadPool()).exceptionally(throwable -> {
+            GeyserConnector.getInstance().getLogger().error(LanguageUtils.getLocaleStringLog("geyser.locale.fail.file", key, throwable.getMessage()), throwable);
+            return null;
+        }));
 
-        downloadLocale(locale);
-        loadLocale(locale);
+        future.whenComplete((ignored, throwable) -> {
+            // Download failures are only logged, so check whether the locale actually made it
+            if (!LOCALE_MAPPINGS.containsKey(lowercaseLocale)) {
+                // Forget about this attempt so the next player with this locale tries again
+                LOCALE_LOADS.remove(lowercaseLocale, future);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * @param locale Locale to check
+     * @return true if the locale has been loaded and can be used for translations
+     */
+    public static boolean isLocaleLoaded(String locale) {
+        return LOCALE_MAPPINGS.containsKey(locale.toLowerCase());
     }
 
     /**
@@ -196,38 +241,24 @@ public class LocaleUtils {
 
         // Load the locale
         if (localeFile.exists()) {
-            // Read the localefile
-            InputStream localeStream;
-            try {
-                localeStream = new FileInputStream(localeFile);
-            } catch (FileNotFoundException e) {
-                throw new AssertionError(LanguageUtils.getLocaleStringLog("geyser.locale.fail.file", locale, e.getMessage()));
-            }
+            ImmutableMap.Builder<String, String> langMap = ImmutableMap.builder();
 
-            // Parse the file as json
-            JsonNode localeObj;
-            try {
-                localeObj = GeyserConnector.JSON_MAPPER.readTree(localeStream);
-            } catch (Exception e) {
+            // Stream through the file; it is a flat object of strings so there is no need to build a tree
+            try (JsonParser parser = GeyserConnector.JSON_MAPPER.getFactory().createParser(localeFile)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new IOException("Expected an object");
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String key = KEY_INTERNER.intern(parser.getCurrentName());
+                    parser.nextToken();
+                    langMap.put(key, parser.getValueAsString(""));
+                }
+            } catch (IOException e) {
                 throw new AssertionError(LanguageUtils.getLocaleStringLog("geyser.locale.fail.json", locale), e);
             }
 
-            // Parse all the locale fields
-            Iterator<Map.Entry<String, JsonNode>> localeIterator = localeObj.fields();
-            Map<String, String> langMap = new HashMap<>();
-            while (localeIterator.hasNext()) {
-                Map.Entry<String, JsonNode> entry = localeIterator.next();
-                langMap.put(entry.getKey(), entry.getValue().asText());
-            }
-
             // Insert the locale into the mappings
-            LOCALE_MAPPINGS.put(locale.toLowerCase(), langMap);
-
-            try {
-                localeStream.close();
-            } catch (IOException e) {
-                throw new AssertionError(LanguageUtils.getLocaleStringLog("geyser.locale.fail.file", locale, e.getMessage()));
-            }
+            LOCALE_MAPPINGS.put(locale, langMap.build());
         } else {
             GeyserConnector.getInstance().getLogger().warning(LanguageUtils.getLocaleStringLog("geyser.locale.fail.missing", locale));
         }
@@ -284,9 +315,9 @@ public class LocaleUtils {
      * @return Translated string or the original message if it was not found in the given locale
      */
     public static String getLocaleString(String messageText, String locale) {
-        Map<String, String> localeStrings = LocaleUtils.LOCALE_MAPPINGS.get(locale.toLowerCase());
+        Map<String, String> localeStrings = LOCALE_MAPPINGS.get(locale.toLowerCase());
         if (localeStrings == null) {
-            localeStrings = LocaleUtils.LOCALE_MAPPINGS.get(LanguageUtils.getDefaultLocale());
+            localeStrings = LOCALE_MAPPINGS.get(LanguageUtils.getDefaultLocale().toLowerCase());
             if (localeStrings == null) {
                 // Don't cause a NPE if the locale is STILL missing
                 GeyserConnector.getInstance().getLogger().debug("MISSING DEFAULT LOCALE: " + LanguageUtils.getDefaultLocale());
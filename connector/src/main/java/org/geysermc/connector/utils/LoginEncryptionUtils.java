@@ -30,6 +30,9 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.JsonNodeType;
 import com.github.steveice10.mc.auth.service.MsaAuthenticationService;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.nimbusds.jose.JWSObject;
 import com.nukkitx.network.util.Preconditions;
 import com.nukkitx.protocol.bedrock.packet.LoginPacket;
@@ -55,23 +58,51 @@ import java.security.PublicKey;
 import java.security.interfaces.ECPublicKey;
 import java.security.spec.ECGenParameterSpec;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 public class LoginEncryptionUtils {
     private static final ObjectMapper JSON_MAPPER = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
 
     private static boolean HAS_SENT_ENCRYPTION_MESSAGE = false;
 
+    /**
+     * Identity keys of chain certificates that have already been verified against the Mojang root key, keyed by
+     * the raw certificate. A certificate string that verified once will always verify, so repeated chain prefixes
+     * do not need to go through ECDSA verification again.
+     */
+    private static final Cache<String, ECPublicKey> VERIFIED_CERTIFICATES = CacheBuilder.newBuilder()
+            .maximumSize(1024)
+            .expireAfterWrite(1, TimeUnit.HOURS)
+            .recordStats()
+            .build();
+
+    public static CacheStats getVerifiedCertificateCacheStats() {
+        return VERIFIED_CERTIFICATES.stats();
+    }
+
     private static boolean validateChainData(JsonNode data) throws Exception {
+        ECPublicKey mojangKey = EncryptionUtils.getMojangPublicKey();
         ECPublicKey lastKey = null;
         boolean validChain = false;
         for (JsonNode node : data) {
-            JWSObject jwt = JWSObject.parse(node.asText());
+            String token = node.asText();
+
+            ECPublicKey verifiedKey = VERIFIED_CERTIFICATES.getIfPresent(token);
+            if (verifiedKey != null && (lastKey == null || lastKey.equals(mojangKey))) {
+                validChain = true;
+                lastKey = verifiedKey;
+                continue;
+            }
+
+            JWSObject jwt = JWSObject.parse(token);
 
+            boolean signedByMojang = false;
             if (!validChain) {
-                validChain = EncryptionUtils.verifyJwt(jwt, EncryptionUtils.getMojangPublicKey());
+                validChain = signedByMojang = EncryptionUtils.verifyJwt(jwt, mojangKey);
             }
 
-            if (lastKey != null) {
+            // No need to verify twice if the previous certificate handed us the Mojang key
+            if (lastKey != null && !(signedByMojang && lastKey.equals(mojangKey))) {
                 if (!EncryptionUtils.verifyJwt(jwt, lastKey)) return false;
             }
 
@@ -79,11 +110,21 @@ public class LoginEncryptionUtils {
             JsonNode ipkNode = payloadNode.get("identityPublicKey");
             Preconditions.checkState(ipkNode != null && ipkNode.getNodeType() == JsonNodeType.STRING, "identityPublicKey node is missing in chain");
             lastKey = EncryptionUtils.generateKey(ipkNode.asText());
+
+            if (signedByMojang) {
+                VERIFIED_CERTIFICATES.put(token, lastKey);
+            }
         }
         return validChain;
     }
 
-    public static void encryptPlayerConnection(GeyserConnector connector, GeyserSession session, LoginPacket loginPacket) {
+    /**
+     * Verifies the login chain and client data of the session and prepares the encryption handshake. This is
+     * CPU-heavy and should be run through the {@link org.geysermc.connector.network.session.auth.LoginCryptoExecutor}.
+     *
+     * @return the verified login, which must be completed on the event loop of the upstream session
+     */
+    public static VerifiedLogin encryptPlayerConnection(GeyserConnector connector, GeyserSession session, LoginPacket loginPacket) {
         JsonNode certData;
         try {
             certData = JSON_MAPPER.readTree(loginPacket.getChainData().toByteArray());
@@ -96,18 +137,17 @@ public class LoginEncryptionUtils {
             throw new RuntimeException("Certificate data is not valid");
         }
 
-        encryptConnectionWithCert(connector, session, loginPacket.getSkinData().toString(), certChainData);
+        return encryptConnectionWithCert(connector, session, loginPacket.getSkinData().toString(), certChainData);
     }
 
-    private static void encryptConnectionWithCert(GeyserConnector connector, GeyserSession session, String clientData, JsonNode certChainData) {
+    private static VerifiedLogin encryptConnectionWithCert(GeyserConnector connector, GeyserSession session, String clientData, JsonNode certChainData) {
         try {
             boolean validChain = validateChainData(certChainData);
 
             connector.getLogger().debug(String.format("Is player data valid? %s", validChain));
 
             if (!validChain && !session.getConnector().getConfig().isEnableProxyConnections()) {
-                session.disconnect(LanguageUtils.getLocaleStringLog("geyser.network.remote.invalid_xbox_account"));
-                return;
+                return new VerifiedLogin(LanguageUtils.getLocaleStringLog("geyser.network.remote.invalid_xbox_account"), null, null);
             }
             JWSObject jwt = JWSObject.parse(certChainData.get(certChainData.size() - 1).asText());
             JsonNode payload = JSON_MAPPER.readTree(jwt.getPayload().toBytes());
@@ -138,7 +178,7 @@ public class LoginEncryptionUtils {
 
             if (EncryptionUtils.canUseEncryption()) {
                 try {
-                    LoginEncryptionUtils.startEncryptionHandshake(session, identityPublicKey);
+                    return prepareEncryptionHandshake(identityPublicKey);
                 } catch (Throwable e) {
                     // An error can be thrown on older Java 8 versions about an invalid key
                     if (connector.getConfig().isDebugMode()) {
@@ -150,24 +190,63 @@ public class LoginEncryptionUtils {
             } else {
                 sendEncryptionFailedMessage(connector);
             }
+            return new VerifiedLogin(null, null, null);
         } catch (Exception ex) {
-            session.disconnect("disconnectionScreen.internalError.cantConnect");
+            // The caller logs this and disconnects the session
             throw new RuntimeException("Unable to complete login", ex);
         }
     }
 
-    private static void startEncryptionHandshake(GeyserSession session, PublicKey key) throws Exception {
+    private static VerifiedLogin prepareEncryptionHandshake(PublicKey key) throws Exception {
         KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
         generator.initialize(new ECGenParameterSpec("secp384r1"));
         KeyPair serverKeyPair = generator.generateKeyPair();
 
         byte[] token = EncryptionUtils.generateRandomToken();
         SecretKey encryptionKey = EncryptionUtils.getSecretKey(serverKeyPair.getPrivate(), key, token);
-        session.getUpstream().getSession().enableEncryption(encryptionKey);
+        return new VerifiedLogin(null, encryptionKey, EncryptionUtils.createHandshakeJwt(serverKeyPair, token).serialize());
+    }
+
+    /**
+     * A login that was verified on a login thread. Completing it changes the encryption state of the upstream
+     * session and sends packets, so it has to happen on the event loop of that session.
+     */
+    public static class VerifiedLogin {
+        /**
+         * Why the login was refused, or null if it may continue
+         */
+        private final String disconnectReason;
+        /**
+         * The key to encrypt the connection with, or null if encryption isn't available
+         */
+        private final SecretKey encryptionKey;
+        private final String handshakeJwt;
+
+        private VerifiedLogin(String disconnectReason, SecretKey encryptionKey, String handshakeJwt) {
+            this.disconnectReason = disconnectReason;
+            this.encryptionKey = encryptionKey;
+            this.handshakeJwt = handshakeJwt;
+        }
+
+        /**
+         * Starts encryption, or disconnects the session if the login was refused.
+         *
+         * @return true if the login can continue
+         */
+        public boolean complete(GeyserSession session) {
+            if (disconnectReason != null) {
+                session.disconnect(disconnectReason);
+                return false;
+            }
+            if (encryptionKey != null) {
+                session.getUpstream().getSession().enableEncryption(encryptionKey);
 
-        ServerToClientHandshakePacket packet = new ServerToClientHandshakePacket();
-        packet.setJwt(EncryptionUtils.createHandshakeJwt(serverKeyPair, token).serialize());
-        session.sendUpstreamPacketImmediately(packet);
+                ServerToClientHandshakePacket packet = new ServerToClientHandshakePacket();
+                packet.setJwt(handshakeJwt);
+                session.sendUpstreamPacketImmediately(packet);
+            }
+            return true;
+        }
     }
 
     private static void sendEncryptionFailedMessage(GeyserConnector connector) {
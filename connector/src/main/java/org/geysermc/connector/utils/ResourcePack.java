@@ -28,8 +28,9 @@ package org.geysermc.connector.utils;
 import org.geysermc.connector.GeyserConnector;
 
 import java.io.File;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
@@ -57,6 +58,16 @@ public class ResourcePack {
      * Loop through the packs directory and locate valid resource pack files
      */
     public static void loadPacks() {
+        loadPacks(Runnable::run);
+    }
+
+    /**
+     * Loop through the packs directory and locate valid resource pack files. Each pack is hashed and read on the
+     * given executor, as hashing large packs can take a while.
+     *
+     * @param executor the executor to load the packs on
+     */
+    public static void loadPacks(Executor executor) {
         File directory = GeyserConnector.getInstance().getBootstrap().getConfigFolder().resolve("packs").toFile();
 
         if (!directory.exists()) {
@@ -66,45 +77,60 @@ public class ResourcePack {
             return;
         }
 
+        List<CompletableFuture<Map<String, ResourcePack>>> loads = new ArrayList<>();
         for (File file : directory.listFiles()) {
             if (file.getName().endsWith(".zip") || file.getName().endsWith(".mcpack")) {
-                ResourcePack pack = new ResourcePack();
-
-                pack.sha256 = FileUtils.calculateSHA256(file);
-
-                Stream<? extends ZipEntry> stream = null;
-                try {
-                    ZipFile zip = new ZipFile(file);
-
-                    stream = zip.stream();
-                    stream.forEach((x) -> {
-                        if (x.getName().contains("manifest.json")) {
-                            try {
-                                ResourcePackManifest manifest = FileUtils.loadJson(zip.getInputStream(x), ResourcePackManifest.class);
-                                // Sometimes a pack_manifest file is present and not in a valid format,
-                                // but a manifest file is, so we null check through that one
-                                if (manifest.getHeader().getUuid() != null) {
-                                    pack.file = file;
-                                    pack.manifest = manifest;
-                                    pack.version = ResourcePackManifest.Version.fromArray(manifest.getHeader().getVersion());
-
-                                    PACKS.put(pack.getManifest().getHeader().getUuid().toString(), pack);
-                                }
-                            } catch (Exception e) {
-                                e.printStackTrace();
-                            }
+                loads.add(CompletableFuture.supplyAsync(() -> loadPack(file), executor));
+            }
+        }
+
+        // Register in directory order, so a duplicate UUID resolves the same way on every start
+        for (CompletableFuture<Map<String, ResourcePack>> load : loads) {
+            PACKS.putAll(load.join());
+        }
+    }
+
+    /**
+     * @return the pack found in the file, keyed by the UUID of each valid manifest in it
+     */
+    private static Map<String, ResourcePack> loadPack(File file) {
+        Map<String, ResourcePack> packs = new LinkedHashMap<>();
+        ResourcePack pack = new ResourcePack();
+
+        pack.sha256 = FileUtils.calculateSHA256(file);
+
+        Stream<? extends ZipEntry> stream = null;
+        try {
+            ZipFile zip = new ZipFile(file);
+
+            stream = zip.stream();
+            stream.forEach((x) -> {
+                if (x.getName().contains("manifest.json")) {
+                    try {
+                        ResourcePackManifest manifest = FileUtils.loadJson(zip.getInputStream(x), ResourcePackManifest.class);
+                        // Sometimes a pack_manifest file is present and not in a valid format,
+                        // but a manifest file is, so we null check through that one
+                        if (manifest.getHeader().getUuid() != null) {
+                            pack.file = file;
+                            pack.manifest = manifest;
+                            pack.version = ResourcePackManifest.Version.fromArray(manifest.getHeader().getVersion());
+
+                            packs.put(pack.getManifest().getHeader().getUuid().toString(), pack);
                         }
-                    });
-                } catch (Exception e) {
-                    GeyserConnector.getInstance().getLogger().error(LanguageUtils.getLocaleStringLog("geyser.resource_pack.broken", file.getName()));
-                    e.printStackTrace();
-                } finally {
-                    if (stream != null) {
-                        stream.close();
+                    } catch (Exception e) {
+                        e.printStackTrace();
                     }
                 }
+            });
+        } catch (Exception e) {
+            GeyserConnector.getInstance().getLogger().error(LanguageUtils.getLocaleStringLog("geyser.resource_pack.broken", file.getName()));
+            e.printStackTrace();
+        } finally {
+            if (stream != null) {
+                stream.close();
             }
         }
+        return packs;
     }
 
     public byte[] getSha256() {
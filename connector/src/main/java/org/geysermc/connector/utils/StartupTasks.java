@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.utils;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.geysermc.connector.GeyserLogger;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the startup tasks of Geyser as early as their dependencies allow, so independent tasks such as loading
+ * locales, hashing resource packs and populating registries can overlap.
+ * <p>
+ * Tasks may only depend on tasks that were added before them, which rules out cycles.
+ */
+public class StartupTasks {
+    private final Map<String, StartupTask> tasks = new LinkedHashMap<>();
+
+    /**
+     * The finished tasks, in the order they finished in
+     */
+    private final Queue<TaskTiming> timings = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Adds a task to run.
+     *
+     * @param name the name of the task, as shown in the timeline
+     * @param task the task
+     * @param dependencies the names of the tasks that must finish before this one starts
+     * @return this instance
+     */
+    public StartupTasks add(String name, Runnable task, String... dependencies) {
+        for (String dependency : dependencies) {
+            if (!tasks.containsKey(dependency)) {
+                throw new IllegalArgumentException("Startup task " + name + " depends on unknown task " + dependency);
+            }
+        }
+        if (tasks.put(name, new StartupTask(name, task, dependencies)) != null) {
+            throw new IllegalArgumentException("Duplicate startup task " + name);
+        }
+        return this;
+    }
+
+    /**
+     * Runs every task and waits for all of them to finish. If a task fails, the tasks depending on it are skipped
+     * and its exception is rethrown here.
+     *
+     * @param executor the executor to run the tasks on
+     * @return the timeline of the tasks, in the order they finished in
+     */
+    public List<TaskTiming> run(Executor executor) {
+        long startTime = System.nanoTime();
+        Map<String, CompletableFuture<Void>> futures = new HashMap<>();
+        for (StartupTask task : tasks.values()) {
+            CompletableFuture<?>[] dependencies = new CompletableFuture<?>[task.dependencies.length];
+            for (int i = 0; i < dependencies.length; i++) {
+                dependencies[i] = futures.get(task.dependencies[i]);
+            }
+
+            futures.put(task.name, CompletableFuture.allOf(dependencies).thenRunAsync(() -> {
+                long taskStart = System.nanoTime();
+                task.task.run();
+                long taskEnd = System.nanoTime();
+                timings.add(new TaskTiming(task.name, Thread.currentThread().getName(),
+                        TimeUnit.NANOSECONDS.toMillis(taskStart - startTime), TimeUnit.NANOSECONDS.toMillis(taskEnd - taskStart)));
+            }, executor));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            // Surface the original failure, such as an error in a static initializer, as if the task ran inline
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+        return new ArrayList<>(timings);
+    }
+
+    /**
+     * Logs the timeline of a startup in debug mode.
+     */
+    public static void logTimeline(GeyserLogger logger, List<TaskTiming> timeline) {
+        for (TaskTiming timing : timeline) {
+            logger.debug(String.format("Startup task %s took %dms (started at +%dms on %s)",
+                    timing.getName(), timing.getDurationMillis(), timing.getStartMillis(), timing.getThread()));
+        }
+    }
+
+    @AllArgsConstructor
+    private static class StartupTask {
+        private final String name;
+        private final Runnable task;
+        private final String[] dependencies;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class TaskTiming {
+        private final String name;
+        private final String thread;
+        /**
+         * When the task started, relative to the start of all tasks
+         */
+        private final long startMillis;
+        private final long durationMillis;
+    }
+}
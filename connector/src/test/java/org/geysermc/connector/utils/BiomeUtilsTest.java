@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.utils;
+
+import com.nukkitx.network.VarInts;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.geysermc.connector.network.translators.world.chunk.BlockStorage;
+import org.geysermc.connector.network.translators.world.chunk.bitarray.BitArray;
+import org.geysermc.connector.network.translators.world.chunk.bitarray.BitArrayVersion;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class BiomeUtilsTest {
+
+    @Test
+    public void singleBiomeUsesCompactForm() {
+        int[] biomeData = new int[1024];
+        Arrays.fill(biomeData, 1); // Plains
+
+        byte[] encoded = BiomeUtils.toNewBedrockBiome(biomeData, 3);
+        Assert.assertEquals("Zero bit palette header", 1, encoded[0]);
+        Assert.assertArrayEquals(BiomeUtils.encodeSingleBiome(1), encoded);
+
+        int[] decoded = decode(encoded);
+        for (int biome : decoded) {
+            Assert.assertEquals(1, biome);
+        }
+    }
+
+    @Test
+    public void mixedBiomesMatchJavaCells() {
+        Random random = new Random(0);
+        int[] biomeData = new int[1024];
+        for (int i = 0; i < biomeData.length; i++) {
+            biomeData[i] = 1 + random.nextInt(5);
+        }
+
+        for (int section = 0; section < 16; section++) {
+            int[] decoded = decode(BiomeUtils.toNewBedrockBiome(biomeData, section));
+            int index = 0;
+            for (int x = 0; x < 16; x++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int y = 0; y < 16; y++) {
+                        int blockY = (section << 4) + y;
+                        int expected = biomeData[((blockY >> 2) & 63) << 4 | (z >> 2) << 2 | (x >> 2)];
+                        Assert.assertEquals(expected, decoded[index++]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void identicalSectionsAreShared() {
+        int[] biomeData = new int[1024];
+        for (int i = 0; i < biomeData.length; i++) {
+            biomeData[i] = (i & 1) == 0 ? 1 : 4;
+        }
+        Assert.assertSame(BiomeUtils.toNewBedrockBiome(biomeData, 0), BiomeUtils.toNewBedrockBiome(biomeData.clone(), 0));
+    }
+
+    private static int[] decode(byte[] encoded) {
+        ByteBuf buffer = Unpooled.wrappedBuffer(encoded);
+        int bits = buffer.readUnsignedByte() >> 1;
+        int[] biomes = new int[BlockStorage.SIZE];
+        if (bits == 0) {
+            Arrays.fill(biomes, VarInts.readInt(buffer));
+            return biomes;
+        }
+
+        BitArrayVersion version = BitArrayVersion.get(bits, true);
+        int[] words = new int[version.getWordsForSize(BlockStorage.SIZE)];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = buffer.readIntLE();
+        }
+        BitArray bitArray = version.createArray(BlockStorage.SIZE, words);
+
+        int[] palette = new int[VarInts.readInt(buffer)];
+        for (int i = 0; i < palette.length; i++) {
+            palette[i] = VarInts.readInt(buffer);
+        }
+        for (int i = 0; i < biomes.length; i++) {
+            biomes[i] = palette[bitArray.get(i)];
+        }
+        return biomes;
+    }
+}
@@ -0,0 +1,455 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.steveice10.mc.protocol.packet.ingame.client.ClientChatPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.client.player.ClientPlayerChangeHeldItemPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.client.player.ClientPlayerPositionPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.client.player.ClientPlayerPositionRotationPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.client.window.ClientCloseWindowPacket;
+import com.github.steveice10.packetlib.packet.Packet;
+import com.nimbusds.jose.*;
+import com.nukkitx.math.vector.Vector3f;
+import com.nukkitx.protocol.bedrock.BedrockClient;
+import com.nukkitx.protocol.bedrock.BedrockClientSession;
+import com.nukkitx.protocol.bedrock.BedrockPacket;
+import com.nukkitx.protocol.bedrock.BedrockPacketCodec;
+import com.nukkitx.protocol.bedrock.BedrockSession;
+import com.nukkitx.protocol.bedrock.handler.BedrockPacketHandler;
+import com.nukkitx.protocol.bedrock.packet.*;
+import com.nukkitx.protocol.bedrock.util.EncryptionUtils;
+import com.nukkitx.protocol.bedrock.v448.Bedrock_v448;
+import io.netty.buffer.ByteBuf;
+import io.netty.util.AsciiString;
+import lombok.Getter;
+import org.geysermc.loadtest.behavior.BotBehavior;
+
+import javax.crypto.SecretKey;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.KeyPair;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A headless Bedrock client that goes through the login sequence the same way a real client does:
+ * login, encryption handshake, resource packs, spawn and finally joining the Java server.
+ * <p>
+ * Bots sign their own certificate chain, so Geyser must have {@code enable-proxy-connections} enabled.
+ */
+public class BedrockBot implements BedrockPacketHandler {
+    public static final BedrockPacketCodec CODEC = Bedrock_v448.V448_CODEC;
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+    private static final String EMPTY_SKIN = Base64.getEncoder().encodeToString(new byte[64 * 64 * 4]);
+
+    @Getter
+    private final String name;
+    @Getter
+    private final SessionStats stats;
+    private final List<BotBehavior> behaviors;
+    private final KeyPair keyPair;
+    private BedrockClient client;
+    @Getter
+    private BedrockClientSession session;
+    @Getter
+    private long runtimeEntityId;
+    @Getter
+    private Vector3f position = Vector3f.ZERO;
+    private long tick;
+
+    /**
+     * Chat messages that have been sent but not echoed back yet, with the time they were sent
+     */
+    private final Map<String, Long> pendingChat = new ConcurrentHashMap<>();
+    /**
+     * Packets that Geyser has not forwarded to the Java server yet, by packet class and then by a key that can be
+     * read from both the Bedrock packet and its Java translation, with the time they were sent
+     */
+    private final Map<Class<?>, Map<Object, Long>> pendingForward = new ConcurrentHashMap<>();
+
+    /**
+     * Completes once Geyser has translated the Java join game packet for this bot
+     */
+    @Getter
+    private final CompletableFuture<BedrockBot> joinFuture = new CompletableFuture<>();
+
+    @Getter
+    private long connectStart;
+    @Getter
+    private long loginAccepted;
+    @Getter
+    private long spawned;
+    @Getter
+    private long joined;
+
+    public BedrockBot(String name) {
+        this(name, new SessionStats(), Collections.emptyList());
+    }
+
+    public BedrockBot(String name, SessionStats stats, List<BotBehavior> behaviors) {
+        this.name = name;
+        this.stats = stats;
+        this.behaviors = behaviors;
+        this.keyPair = EncryptionUtils.createKeyPair();
+    }
+
+    public CompletableFuture<BedrockBot> connect(InetSocketAddress address) {
+        connectStart = System.nanoTime();
+        client = new BedrockClient(new InetSocketAddress("0.0.0.0", 0));
+        client.bind().thenCompose(v -> client.connect(address)).whenComplete((session, throwable) -> {
+            if (throwable != null) {
+                joinFuture.completeExceptionally(throwable);
+                return;
+            }
+            this.session = session;
+            session.setPacketCodec(CODEC);
+            session.setPacketHandler(this);
+            session.setBatchHandler(this::handleBatch);
+            session.setLogging(false);
+            session.addDisconnectHandler(reason -> joinFuture.completeExceptionally(new IllegalStateException(name + " disconnected: " + reason)));
+            try {
+                session.sendPacketImmediately(createLoginPacket());
+            } catch (Exception e) {
+                joinFuture.completeExceptionally(e);
+            }
+        });
+        return joinFuture;
+    }
+
+    public void disconnect() {
+        if (session != null && !session.isClosed()) {
+            session.disconnect();
+        }
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    public void sendPacket(BedrockPacket packet) {
+        if (session != null && !session.isClosed()) {
+            stats.packetSent(packet.getClass());
+            Object key = getForwardKey(packet);
+            if (key != null) {
+                pendingForward.computeIfAbsent(packet.getClass(), k -> new ConcurrentHashMap<>()).put(key, System.nanoTime());
+            }
+            session.sendPacket(packet);
+        }
+    }
+
+    public boolean isJoined() {
+        return joined != 0 && session != null && !session.isClosed();
+    }
+
+    /**
+     * Runs all behaviors of this bot. Called every 50 milliseconds once the bot has joined.
+     */
+    public void tick() {
+        if (!isJoined()) {
+            return;
+        }
+        tick++;
+        for (BotBehavior behavior : behaviors) {
+            behavior.tick(this, tick);
+        }
+    }
+
+    /**
+     * Moves the bot and tells Geyser about it.
+     */
+    public void move(Vector3f position, float yaw) {
+        this.position = position;
+
+        MovePlayerPacket movePlayerPacket = new MovePlayerPacket();
+        movePlayerPacket.setRuntimeEntityId(runtimeEntityId);
+        movePlayerPacket.setPosition(position);
+        movePlayerPacket.setRotation(Vector3f.from(0, yaw, yaw));
+        movePlayerPacket.setMode(MovePlayerPacket.Mode.NORMAL);
+        movePlayerPacket.setOnGround(true);
+        movePlayerPacket.setTick(tick);
+        sendPacket(movePlayerPacket);
+    }
+
+    /**
+     * Sends a chat message and tracks how long it takes to be echoed back by the stub Java server.
+     */
+    public void chat(String message) {
+        pendingChat.put(message, System.nanoTime());
+
+        TextPacket textPacket = new TextPacket();
+        textPacket.setType(TextPacket.Type.CHAT);
+        textPacket.setNeedsTranslation(false);
+        textPacket.setSourceName(name);
+        textPacket.setMessage(message);
+        textPacket.setXuid("");
+        textPacket.setPlatformChatId("");
+        sendPacket(textPacket);
+    }
+
+    /**
+     * Called when the stub Java server receives a packet from this bot's Java session, to record how long the
+     * Bedrock packet it was translated from took to get through Geyser.
+     */
+    public void forwarded(Packet javaPacket) {
+        Class<?> packetClass;
+        Object key;
+        if (javaPacket instanceof ClientPlayerPositionRotationPacket) {
+            ClientPlayerPositionRotationPacket positionPacket = (ClientPlayerPositionRotationPacket) javaPacket;
+            packetClass = MovePlayerPacket.class;
+            key = getPositionKey(positionPacket.getX(), positionPacket.getZ());
+        } else if (javaPacket instanceof ClientPlayerPositionPacket) {
+            ClientPlayerPositionPacket positionPacket = (ClientPlayerPositionPacket) javaPacket;
+            packetClass = MovePlayerPacket.class;
+            key = getPositionKey(positionPacket.getX(), positionPacket.getZ());
+        } else if (javaPacket instanceof ClientChatPacket) {
+            packetClass = TextPacket.class;
+            key = ((ClientChatPacket) javaPacket).getMessage();
+        } else if (javaPacket instanceof ClientPlayerChangeHeldItemPacket) {
+            packetClass = MobEquipmentPacket.class;
+            key = ((ClientPlayerChangeHeldItemPacket) javaPacket).getSlot();
+        } else if (javaPacket instanceof ClientCloseWindowPacket) {
+            packetClass = ContainerClosePacket.class;
+            key = ((ClientCloseWindowPacket) javaPacket).getWindowId();
+        } else {
+            return;
+        }
+
+        Map<Object, Long> pending = pendingForward.get(packetClass);
+        if (pending == null) {
+            return;
+        }
+        Long sent = pending.remove(key);
+        if (sent != null) {
+            stats.packetForwarded(packetClass, System.nanoTime() - sent);
+            // Anything of this type sent earlier was dropped or merged by Geyser and will never arrive
+            pending.values().removeIf(time -> time < sent);
+        }
+    }
+
+    private static Object getForwardKey(BedrockPacket packet) {
+        if (packet instanceof MovePlayerPacket) {
+            Vector3f position = ((MovePlayerPacket) packet).getPosition();
+            return getPositionKey(position.getX(), position.getZ());
+        }
+        if (packet instanceof TextPacket) {
+            return ((TextPacket) packet).getMessage();
+        }
+        if (packet instanceof MobEquipmentPacket) {
+            return ((MobEquipmentPacket) packet).getHotbarSlot();
+        }
+        if (packet instanceof ContainerClosePacket) {
+            return (int) ((ContainerClosePacket) packet).getId();
+        }
+        return null;
+    }
+
+    /**
+     * Geyser subtracts the eye height from Y and goes through a double conversion, so only X and Z are compared,
+     * rounded to a centimetre.
+     */
+    private static long getPositionKey(double x, double z) {
+        return Math.round(x * 100) << 32 | (Math.round(z * 100) & 0xFFFFFFFFL);
+    }
+
+    private void handleBatch(BedrockSession session, ByteBuf compressed, Collection<BedrockPacket> packets) {
+        stats.getReceivedBytes().add(compressed.readableBytes());
+        for (BedrockPacket packet : packets) {
+            stats.packetReceived(packet.getClass());
+            packet.handle(this);
+        }
+    }
+
+    private LoginPacket createLoginPacket() throws JOSEException {
+        String publicKey = Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+        long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+
+        ObjectNode extraData = JSON_MAPPER.createObjectNode();
+        extraData.put("displayName", name);
+        extraData.put("identity", UUID.nameUUIDFromBytes(name.getBytes()).toString());
+        extraData.put("XUID", "");
+
+        ObjectNode chainPayload = JSON_MAPPER.createObjectNode();
+        chainPayload.put("certificateAuthority", true);
+        chainPayload.put("nbf", now - 60);
+        chainPayload.put("exp", now + TimeUnit.DAYS.toSeconds(1));
+        chainPayload.put("identityPublicKey", publicKey);
+        chainPayload.set("extraData", extraData);
+
+        ObjectNode chain = JSON_MAPPER.createObjectNode();
+        ArrayNode chainArray = chain.putArray("chain");
+        chainArray.add(sign(chainPayload, publicKey));
+
+        ObjectNode clientData = JSON_MAPPER.createObjectNode();
+        clientData.put("GameVersion", CODEC.getMinecraftVersion());
+        clientData.put("ServerAddress", "127.0.0.1:19132");
+        clientData.put("ThirdPartyName", name);
+        clientData.put("LanguageCode", "en_US");
+        clientData.put("SkinId", "Standard_Custom");
+        clientData.put("SkinData", EMPTY_SKIN);
+        clientData.put("SkinImageHeight", 64);
+        clientData.put("SkinImageWidth", 64);
+        clientData.put("CapeId", "");
+        clientData.put("CapeData", "");
+        clientData.put("SkinResourcePatch", Base64.getEncoder().encodeToString(
+                "{\"geometry\":{\"default\":\"geometry.humanoid.custom\"}}".getBytes()));
+        clientData.put("SkinGeometryData", "");
+        clientData.put("DeviceId", UUID.randomUUID().toString());
+        clientData.put("DeviceModel", "Geyser load test");
+        clientData.put("DeviceOS", 7);
+        clientData.put("UIProfile", 0);
+        clientData.put("CurrentInputMode", 1);
+        clientData.put("DefaultInputMode", 1);
+        clientData.put("PlatformOnlineId", "");
+        clientData.put("PlatformOfflineId", "");
+        clientData.put("SelfSignedId", UUID.randomUUID().toString());
+        clientData.put("ClientRandomId", name.hashCode());
+
+        LoginPacket loginPacket = new LoginPacket();
+        loginPacket.setProtocolVersion(CODEC.getProtocolVersion());
+        loginPacket.setChainData(new AsciiString(chain.toString()));
+        loginPacket.setSkinData(new AsciiString(sign(clientData, publicKey)));
+        return loginPacket;
+    }
+
+    private String sign(JsonNode payload, String publicKey) throws JOSEException {
+        JWSHeader header = new JWSHeader.Builder(JWSAlgorithm.ES384)
+                .x509CertURL(URI.create(publicKey))
+                .build();
+        JWSObject jws = new JWSObject(header, new Payload(payload.toString()));
+        EncryptionUtils.signJwt(jws, (ECPrivateKey) keyPair.getPrivate());
+        return jws.serialize();
+    }
+
+    @Override
+    public boolean handle(ServerToClientHandshakePacket packet) {
+        try {
+            JWSObject jws = JWSObject.parse(packet.getJwt());
+            ECPublicKey serverKey = EncryptionUtils.generateKey(jws.getHeader().getX509CertURL().toASCIIString());
+            JsonNode payload = JSON_MAPPER.readTree(jws.getPayload().toString());
+            byte[] salt = Base64.getDecoder().decode(payload.get("salt").asText());
+            SecretKey key = EncryptionUtils.getSecretKey(keyPair.getPrivate(), serverKey, salt);
+            session.enableEncryption(key);
+        } catch (Exception e) {
+            joinFuture.completeExceptionally(e);
+            disconnect();
+            return true;
+        }
+
+        session.sendPacketImmediately(new ClientToServerHandshakePacket());
+        return true;
+    }
+
+    @Override
+    public boolean handle(PlayStatusPacket packet) {
+        switch (packet.getStatus()) {
+            case LOGIN_SUCCESS:
+                loginAccepted = System.nanoTime();
+                break;
+            case PLAYER_SPAWN:
+                spawned = System.nanoTime();
+                SetLocalPlayerAsInitializedPacket initializedPacket = new SetLocalPlayerAsInitializedPacket();
+                initializedPacket.setRuntimeEntityId(runtimeEntityId);
+                sendPacket(initializedPacket);
+                break;
+            default:
+                joinFuture.completeExceptionally(new IllegalStateException(name + " got play status " + packet.getStatus()));
+                break;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean handle(ResourcePacksInfoPacket packet) {
+        ResourcePackClientResponsePacket response = new ResourcePackClientResponsePacket();
+        response.setStatus(ResourcePackClientResponsePacket.Status.HAVE_ALL_PACKS);
+        sendPacket(response);
+        return true;
+    }
+
+    @Override
+    public boolean handle(ResourcePackStackPacket packet) {
+        ResourcePackClientResponsePacket response = new ResourcePackClientResponsePacket();
+        response.setStatus(ResourcePackClientResponsePacket.Status.COMPLETED);
+        sendPacket(response);
+        return true;
+    }
+
+    @Override
+    public boolean handle(StartGamePacket packet) {
+        runtimeEntityId = packet.getRuntimeEntityId();
+        position = packet.getPlayerPosition();
+
+        RequestChunkRadiusPacket radiusPacket = new RequestChunkRadiusPacket();
+        radiusPacket.setRadius(8);
+        sendPacket(radiusPacket);
+        return true;
+    }
+
+    @Override
+    public boolean handle(MovePlayerPacket packet) {
+        if (packet.getRuntimeEntityId() == runtimeEntityId) {
+            // Teleported by the server
+            position = packet.getPosition();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean handle(TextPacket packet) {
+        for (Map.Entry<String, Long> entry : pendingChat.entrySet()) {
+            if (packet.getMessage().contains(entry.getKey())) {
+                stats.getChatLatency().record(System.nanoTime() - entry.getValue());
+                pendingChat.remove(entry.getKey());
+                break;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean handle(SetPlayerGameTypePacket packet) {
+        // The first packet Geyser sends while translating the Java join game packet
+        if (joined == 0) {
+            joined = System.nanoTime();
+            joinFuture.complete(this);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean handle(DisconnectPacket packet) {
+        joinFuture.completeExceptionally(new IllegalStateException(name + " was kicked: " + packet.getKickMessage()));
+        return true;
+    }
+}
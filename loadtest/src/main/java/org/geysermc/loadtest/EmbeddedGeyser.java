@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.loadtest;
+
+import org.geysermc.common.PlatformType;
+import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.GeyserLogger;
+import org.geysermc.connector.bootstrap.GeyserBootstrap;
+import org.geysermc.connector.command.CommandManager;
+import org.geysermc.connector.configuration.GeyserConfiguration;
+import org.geysermc.connector.dump.BootstrapDumpInfo;
+import org.geysermc.connector.ping.IGeyserPingPassthrough;
+import org.geysermc.connector.utils.FileUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Runs Geyser in the same process as the bots, configured from the bundled {@code loadtest.yml}:
+ * offline authentication, proxy connections allowed and no metrics, so a load test never touches the network.
+ */
+public class EmbeddedGeyser implements GeyserBootstrap {
+    private final LoadTestConfiguration config;
+    private final GeyserLogger logger;
+    private final Path configFolder;
+    private GeyserConnector connector;
+    private CommandManager commandManager;
+
+    public EmbeddedGeyser(int bedrockPort, String javaAddress, int javaPort, boolean debug) throws IOException {
+        try (InputStream stream = EmbeddedGeyser.class.getClassLoader().getResourceAsStream("loadtest.yml")) {
+            this.config = FileUtils.loadYaml(stream, LoadTestConfiguration.class);
+        }
+        config.getBedrock().setPort(bedrockPort);
+        config.getRemote().setAddress(javaAddress);
+        config.getRemote().setPort(javaPort);
+        this.logger = new ConsoleLogger(debug);
+        this.configFolder = Files.createTempDirectory("geyser-loadtest");
+    }
+
+    @Override
+    public void onEnable() {
+        GeyserConfiguration.checkGeyserConfiguration(config, logger);
+        connector = GeyserConnector.start(PlatformType.STANDALONE, this);
+        commandManager = new CommandManager(connector) {
+            @Override
+            public String getDescription(String command) {
+                return "";
+            }
+        };
+    }
+
+    @Override
+    public void onDisable() {
+        if (connector != null) {
+            connector.shutdown();
+        }
+    }
+
+    @Override
+    public GeyserConfiguration getGeyserConfig() {
+        return config;
+    }
+
+    @Override
+    public GeyserLogger getGeyserLogger() {
+        return logger;
+    }
+
+    @Override
+    public CommandManager getGeyserCommandManager() {
+        return commandManager;
+    }
+
+    @Override
+    public IGeyserPingPassthrough getGeyserPingPassthrough() {
+        return null;
+    }
+
+    @Override
+    public Path getConfigFolder() {
+        return configFolder;
+    }
+
+    @Override
+    public BootstrapDumpInfo getDumpInfo() {
+        return new BootstrapDumpInfo();
+    }
+
+    private static class ConsoleLogger implements GeyserLogger {
+        private boolean debug;
+
+        ConsoleLogger(boolean debug) {
+            this.debug = debug;
+        }
+
+        @Override
+        public void severe(String message) {
+            System.err.println("[SEVERE] " + message);
+        }
+
+        @Override
+        public void severe(String message, Throwable error) {
+            severe(message);
+            error.printStackTrace();
+        }
+
+        @Override
+        public void error(String message) {
+            System.err.println("[ERROR] " + message);
+        }
+
+        @Override
+        public void error(String message, Throwable error) {
+            error(message);
+            error.printStackTrace();
+        }
+
+        @Override
+        public void warning(String message) {
+            System.out.println("[WARN] " + message);
+        }
+
+        @Override
+        public void info(String message) {
+            System.out.println("[INFO] " + message);
+        }
+
+        @Override
+        public void debug(String message) {
+            if (debug) {
+                System.out.println("[DEBUG] " + message);
+            }
+        }
+
+        @Override
+        public void setDebug(boolean debug) {
+            this.debug = debug;
+        }
+
+        @Override
+        public boolean isDebug() {
+            return debug;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.loadtest;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Simulates a join storm: many Bedrock clients connecting to Geyser within a short time, as happens after a
+ * backend restart.
+ * <p>
+ * Run Geyser with {@code auth-type: offline}, {@code enable-proxy-connections: true} and
+ * {@code max-pending-logins-per-address: 0} (all bots share one address), pointing its remote address at the stub
+ * server started with {@code --stub-port}. For example:
+ * <pre>
+ * java -cp loadtest.jar org.geysermc.loadtest.JoinStorm --geyser 127.0.0.1:19132 --bots 300 --rate 100 --stub-port 25565
+ * </pre>
+ */
+public class JoinStorm {
+
+    public static void main(String[] args) throws Exception {
+        String geyserAddress = "127.0.0.1:19132";
+        int bots = 100;
+        int rate = 50;
+        int stubPort = -1;
+        int timeoutSeconds = 120;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--geyser":
+                    geyserAddress = args[++i];
+                    break;
+                case "--bots":
+                    bots = Integer.parseInt(args[++i]);
+                    break;
+                case "--rate":
+                    rate = Integer.parseInt(args[++i]);
+                    break;
+                case "--stub-port":
+                    stubPort = Integer.parseInt(args[++i]);
+                    break;
+                case "--timeout":
+                    timeoutSeconds = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    System.out.println("Usage: JoinStorm [--geyser host:port] [--bots amount] [--rate bots per second] [--stub-port port] [--timeout seconds]");
+                    return;
+            }
+        }
+
+        StubJavaServer stubServer = null;
+        if (stubPort > 0) {
+            stubServer = new StubJavaServer("127.0.0.1", stubPort);
+            stubServer.bind();
+            System.out.println("Stub Java server listening on port " + stubPort);
+        }
+
+        String[] addressParts = geyserAddress.split(":");
+        InetSocketAddress address = new InetSocketAddress(addressParts[0], Integer.parseInt(addressParts[1]));
+
+        JoinStormResult result = run(address, bots, rate, timeoutSeconds);
+        result.print();
+
+        if (stubServer != null) {
+            stubServer.close();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Connects the given amount of bots at the given rate and waits until all of them have joined or failed.
+     */
+    public static JoinStormResult run(InetSocketAddress address, int bots, int rate, int timeoutSeconds) throws InterruptedException {
+        JoinStormResult result = new JoinStormResult();
+        List<BedrockBot> connected = new ArrayList<>(bots);
+        List<CompletableFuture<BedrockBot>> futures = new ArrayList<>(bots);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, rate);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < bots; i++) {
+            BedrockBot bot = new BedrockBot("Bot" + i);
+            connected.add(bot);
+            futures.add(bot.connect(address).whenComplete((joinedBot, throwable) -> {
+                if (throwable != null) {
+                    result.failed.incrementAndGet();
+                    System.out.println(throwable.getMessage());
+                    return;
+                }
+                result.timeToLogin.record(joinedBot.getLoginAccepted() - joinedBot.getConnectStart());
+                result.timeToSpawn.record(joinedBot.getSpawned() - joinedBot.getConnectStart());
+                result.timeToJoin.record(joinedBot.getJoined() - joinedBot.getConnectStart());
+            }));
+
+            // Spread the connections evenly over time
+            long wait = start + intervalNanos * (i + 1) - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            System.out.println("Timed out waiting for all bots to join");
+        } catch (Exception ignored) {
+            // Individual failures are counted above
+        }
+        result.durationNanos = System.nanoTime() - start;
+
+        for (BedrockBot bot : connected) {
+            bot.disconnect();
+        }
+        return result;
+    }
+
+    public static class JoinStormResult {
+        private final AtomicInteger failed = new AtomicInteger();
+        private final LatencyRecorder timeToLogin = new LatencyRecorder();
+        private final LatencyRecorder timeToSpawn = new LatencyRecorder();
+        private final LatencyRecorder timeToJoin = new LatencyRecorder();
+        private long durationNanos;
+
+        public void print() {
+            System.out.println(String.format("Joined: %d, failed: %d, took %.1fs", timeToJoin.getCount(), failed.get(),
+                    durationNanos / 1_000_000_000D));
+            System.out.println("Login accepted: " + timeToLogin.summary());
+            System.out.println("Spawned:        " + timeToSpawn.summary());
+            System.out.println("Joined Java:    " + timeToJoin.summary());
+        }
+    }
+}
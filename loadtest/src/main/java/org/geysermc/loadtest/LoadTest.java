@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.loadtest;
+
+import org.geysermc.loadtest.behavior.BotBehavior;
+
+import java.net.InetSocketAddress;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Connects simulated Bedrock clients to Geyser and keeps them busy for a while, then reports packet throughput,
+ * latency percentiles per packet type, chat round trip latency and the resources used per session.
+ * <p>
+ * Without {@code --geyser}, Geyser and a stub Java server are started in this process, so a test can run fully
+ * offline:
+ * <pre>
+ * java -cp loadtest.jar org.geysermc.loadtest.LoadTest --bots 200 --rate 50 --duration 60 --behaviors move,chat,inventory
+ * </pre>
+ * With {@code --geyser host:port}, the bots connect to an already running Geyser instead; see {@link JoinStorm}
+ * for the configuration it needs.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        String geyserAddress = null;
+        int bots = 50;
+        int rate = 25;
+        int durationSeconds = 60;
+        int stubPort = 25566;
+        int bedrockPort = 19133;
+        String behaviorNames = "move,chat,inventory";
+        boolean debug = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--geyser":
+                    geyserAddress = args[++i];
+                    break;
+                case "--bots":
+                    bots = Integer.parseInt(args[++i]);
+                    break;
+                case "--rate":
+                    rate = Integer.parseInt(args[++i]);
+                    break;
+                case "--duration":
+                    durationSeconds = Integer.parseInt(args[++i]);
+                    break;
+                case "--stub-port":
+                    stubPort = Integer.parseInt(args[++i]);
+                    break;
+                case "--bedrock-port":
+                    bedrockPort = Integer.parseInt(args[++i]);
+                    break;
+                case "--behaviors":
+                    behaviorNames = args[++i];
+                    break;
+                case "--debug":
+                    debug = true;
+                    break;
+                default:
+                    System.out.println("Usage: LoadTest [--geyser host:port] [--bots amount] [--rate bots per second] " +
+                            "[--duration seconds] [--behaviors move,chat,inventory] [--stub-port port] [--bedrock-port port] [--debug]");
+                    return;
+            }
+        }
+
+        StubJavaServer stubServer = new StubJavaServer("127.0.0.1", stubPort);
+        stubServer.bind();
+
+        EmbeddedGeyser geyser = null;
+        InetSocketAddress address;
+        if (geyserAddress == null) {
+            geyser = new EmbeddedGeyser(bedrockPort, "127.0.0.1", stubPort, debug);
+            geyser.onEnable();
+            address = new InetSocketAddress("127.0.0.1", bedrockPort);
+        } else {
+            String[] addressParts = geyserAddress.split(":");
+            address = new InetSocketAddress(addressParts[0], Integer.parseInt(addressParts[1]));
+        }
+
+        SessionStats stats = new SessionStats();
+        List<BedrockBot> botList = new ArrayList<>(bots);
+        Map<String, BedrockBot> botsByName = new HashMap<>();
+        for (int i = 0; i < bots; i++) {
+            List<BotBehavior> behaviors = new ArrayList<>();
+            for (String name : behaviorNames.split(",")) {
+                BotBehavior behavior = BotBehavior.fromName(name.trim());
+                if (behavior == null) {
+                    System.out.println("Unknown behavior " + name);
+                    return;
+                }
+                behaviors.add(behavior);
+            }
+            BedrockBot bot = new BedrockBot("Bot" + i, stats, behaviors);
+            botList.add(bot);
+            botsByName.put(bot.getName(), bot);
+        }
+        stubServer.setPacketListener((playerName, packet) -> {
+            BedrockBot bot = botsByName.get(playerName);
+            if (bot != null) {
+                bot.forwarded(packet);
+            }
+        });
+
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+        ticker.scheduleAtFixedRate(() -> {
+            for (BedrockBot bot : botList) {
+                try {
+                    bot.tick();
+                } catch (Throwable t) {
+                    t.printStackTrace();
+                }
+            }
+        }, 50, 50, TimeUnit.MILLISECONDS);
+
+        // Join everyone first so the measurement only covers the steady state
+        LatencyRecorder timeToJoin = new LatencyRecorder();
+        LongAdder failed = new LongAdder();
+        List<CompletableFuture<BedrockBot>> futures = new ArrayList<>(bots);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, rate);
+        long start = System.nanoTime();
+        for (int i = 0; i < bots; i++) {
+            futures.add(botList.get(i).connect(address).whenComplete((bot, throwable) -> {
+                if (throwable != null) {
+                    failed.increment();
+                } else {
+                    timeToJoin.record(bot.getJoined() - bot.getConnectStart());
+                }
+            }));
+            long wait = start + intervalNanos * (i + 1) - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(120, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            System.out.println("Timed out waiting for all bots to join");
+        } catch (ExecutionException ignored) {
+            // Counted above
+        }
+        System.out.println(String.format("Joined: %d, failed: %d. Time to join: %s", timeToJoin.getCount(), failed.sum(),
+                timeToJoin.summary()));
+
+        Map<String, Long> sentBefore = snapshot(stats.getSentPackets());
+        Map<String, Long> receivedBefore = snapshot(stats.getReceivedPackets());
+        long bytesBefore = stats.getReceivedBytes().sum();
+
+        ResourceMonitor monitor = new ResourceMonitor();
+        monitor.start();
+        TimeUnit.SECONDS.sleep(durationSeconds);
+        ResourceMonitor.Snapshot usage = monitor.stop();
+
+        int activeSessions = 0;
+        for (BedrockBot bot : botList) {
+            if (bot.isJoined()) {
+                activeSessions++;
+            }
+        }
+
+        System.out.println();
+        System.out.println("Active sessions after " + durationSeconds + "s: " + activeSessions);
+        System.out.println(usage.summary(activeSessions));
+        System.out.println(String.format("Downstream to bots: %.1f KB/s", (stats.getReceivedBytes().sum() - bytesBefore) / 1024D / durationSeconds));
+        System.out.println("Chat round trip: " + stats.getChatLatency().summary());
+        System.out.println("Bot to Java server latency by packet type:");
+        for (Map.Entry<String, LatencyRecorder> entry : new TreeMap<>(stats.getForwardLatency()).entrySet()) {
+            System.out.println(String.format("  %-40s %s", entry.getKey(), entry.getValue().summary()));
+        }
+        printRates("Sent by bots (packets/s)", sentBefore, snapshot(stats.getSentPackets()), durationSeconds);
+        printRates("Received by bots (packets/s)", receivedBefore, snapshot(stats.getReceivedPackets()), durationSeconds);
+        printRates("Received by the Java server (packets, whole run)", Collections.emptyMap(),
+                snapshot(stubServer.getReceivedPackets()), 1);
+
+        ticker.shutdownNow();
+        for (BedrockBot bot : botList) {
+            bot.disconnect();
+        }
+        if (geyser != null) {
+            geyser.onDisable();
+        }
+        stubServer.close();
+        System.exit(0);
+    }
+
+    private static Map<String, Long> snapshot(Map<String, LongAdder> counters) {
+        Map<String, Long> snapshot = new HashMap<>();
+        for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().sum());
+        }
+        return snapshot;
+    }
+
+    private static void printRates(String title, Map<String, Long> before, Map<String, Long> after, int seconds) {
+        System.out.println(title + ":");
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(after.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        for (Map.Entry<String, Long> entry : entries) {
+            long delta = entry.getValue() - before.getOrDefault(entry.getKey(), 0L);
+            if (delta > 0) {
+                System.out.println(String.format("  %-40s %10.1f", entry.getKey(), delta / (double) seconds));
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.loadtest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the CPU time and heap allocations of this process between two points in time.
+ * <p>
+ * When Geyser is embedded, this includes the bots and the stub server, so the numbers are an upper bound for
+ * Geyser itself. Allocations are summed over live threads, so threads that died during the run are not counted.
+ */
+public class ResourceMonitor {
+    private final OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+    private long startNanos;
+    private long startCpuNanos;
+    private long startAllocatedBytes;
+
+    public void start() {
+        startNanos = System.nanoTime();
+        startCpuNanos = getProcessCpuNanos();
+        startAllocatedBytes = getAllocatedBytes();
+    }
+
+    public Snapshot stop() {
+        long wallNanos = System.nanoTime() - startNanos;
+        long cpuNanos = getProcessCpuNanos();
+        long allocatedBytes = getAllocatedBytes();
+        return new Snapshot(wallNanos,
+                cpuNanos < 0 || startCpuNanos < 0 ? -1 : cpuNanos - startCpuNanos,
+                allocatedBytes < 0 || startAllocatedBytes < 0 ? -1 : allocatedBytes - startAllocatedBytes);
+    }
+
+    private long getProcessCpuNanos() {
+        if (osBean instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) osBean).getProcessCpuTime();
+        }
+        return -1;
+    }
+
+    private long getAllocatedBytes() {
+        if (!(threadBean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean sunThreadBean = (com.sun.management.ThreadMXBean) threadBean;
+        if (!sunThreadBean.isThreadAllocatedMemorySupported() || !sunThreadBean.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long total = 0;
+        for (long allocated : sunThreadBean.getThreadAllocatedBytes(threadBean.getAllThreadIds())) {
+            if (allocated > 0) {
+                total += allocated;
+            }
+        }
+        return total;
+    }
+
+    public static class Snapshot {
+        private final long wallNanos;
+        private final long cpuNanos;
+        private final long allocatedBytes;
+
+        private Snapshot(long wallNanos, long cpuNanos, long allocatedBytes) {
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        /**
+         * @param sessions the amount of sessions to divide the usage over
+         */
+        public String summary(int sessions) {
+            double seconds = wallNanos / 1_000_000_000D;
+            int divisor = Math.max(1, sessions);
+            StringBuilder builder = new StringBuilder();
+            if (cpuNanos >= 0) {
+                double cores = cpuNanos / (double) wallNanos;
+                builder.append(String.format("CPU: %.2f cores (%.4f per session)", cores, cores / divisor));
+            } else {
+                builder.append("CPU: unavailable");
+            }
+            builder.append(", ");
+            if (allocatedBytes >= 0) {
+                double megabytesPerSecond = allocatedBytes / 1024D / 1024D / seconds;
+                builder.append(String.format("allocations: %.1f MB/s (%.1f KB/s per session)", megabytesPerSecond,
+                        megabytesPerSecond * 1024 / divisor));
+            } else {
+                builder.append("allocations: unavailable");
+            }
+            return builder.toString();
+        }
+    }
+}
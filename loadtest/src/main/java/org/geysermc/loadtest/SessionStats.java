@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.loadtest;
+
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Packet counters and latencies for one or more bots.
+ */
+@Getter
+public class SessionStats {
+    private final Map<String, LongAdder> sentPackets = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> receivedPackets = new ConcurrentHashMap<>();
+    private final LongAdder receivedBytes = new LongAdder();
+    /**
+     * Time between a bot sending a chat message and Geyser handing back the echo from the Java server
+     */
+    private final LatencyRecorder chatLatency = new LatencyRecorder();
+    /**
+     * Time between a bot sending a packet and the stub Java server receiving its translation, by Bedrock packet class
+     */
+    private final Map<String, LatencyRecorder> forwardLatency = new ConcurrentHashMap<>();
+
+    public void packetSent(Class<?> packetClass) {
+        sentPackets.computeIfAbsent(packetClass.getSimpleName(), k -> new LongAdder()).increment();
+    }
+
+    public void packetReceived(Class<?> packetClass) {
+        receivedPackets.computeIfAbsent(packetClass.getSimpleName(), k -> new LongAdder()).increment();
+    }
+
+    public void packetForwarded(Class<?> packetClass, long nanos) {
+        forwardLatency.computeIfAbsent(packetClass.getSimpleName(), k -> new LatencyRecorder()).record(nanos);
+    }
+
+    public long getTotalSent() {
+        return sum(sentPackets);
+    }
+
+    public long getTotalReceived() {
+        return sum(receivedPackets);
+    }
+
+    private static long sum(Map<String, LongAdder> counters) {
+        long total = 0;
+        for (LongAdder counter : counters.values()) {
+            total += counter.sum();
+        }
+        return total;
+    }
+}
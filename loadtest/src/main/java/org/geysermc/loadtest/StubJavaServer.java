@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.loadtest;
+
+import com.github.steveice10.mc.auth.data.GameProfile;
+import com.github.steveice10.mc.protocol.MinecraftConstants;
+import com.github.steveice10.mc.protocol.MinecraftProtocol;
+import com.github.steveice10.mc.protocol.ServerLoginHandler;
+import com.github.steveice10.mc.protocol.data.game.MessageType;
+import com.github.steveice10.mc.protocol.data.game.entity.player.GameMode;
+import com.github.steveice10.mc.protocol.packet.ingame.client.ClientChatPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.server.ServerChatPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.server.ServerJoinGamePacket;
+import com.github.steveice10.mc.protocol.packet.ingame.server.entity.player.ServerPlayerPositionRotationPacket;
+import com.github.steveice10.opennbt.tag.builtin.*;
+import com.github.steveice10.packetlib.Server;
+import com.github.steveice10.packetlib.event.session.PacketReceivedEvent;
+import com.github.steveice10.packetlib.event.session.SessionAdapter;
+import com.github.steveice10.packetlib.packet.Packet;
+import com.github.steveice10.packetlib.tcp.TcpServer;
+import lombok.Getter;
+import lombok.Setter;
+import net.kyori.adventure.text.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * A minimal offline-mode Java server that lets every player in and puts them into an empty overworld.
+ * <p>
+ * This is just enough for Geyser to finish joining, so load tests don't need a real server. Chat messages are
+ * echoed back to the sender and every received packet is counted and handed to the packet listener.
+ */
+public class StubJavaServer {
+    private final Server server;
+    private final AtomicInteger nextEntityId = new AtomicInteger(1);
+    @Getter
+    private final AtomicInteger logins = new AtomicInteger();
+    /**
+     * Packets Geyser sent to this server, by packet class
+     */
+    @Getter
+    private final Map<String, LongAdder> receivedPackets = new ConcurrentHashMap<>();
+    /**
+     * Called with the player's name for every packet Geyser sends to this server
+     */
+    @Setter
+    private volatile BiConsumer<String, Packet> packetListener;
+
+    public StubJavaServer(String host, int port) {
+        this.server = new TcpServer(host, port, MinecraftProtocol.class);
+        server.setGlobalFlag(MinecraftConstants.VERIFY_USERS_KEY, false);
+        server.setGlobalFlag(MinecraftConstants.SERVER_COMPRESSION_THRESHOLD, 256);
+        server.setGlobalFlag(MinecraftConstants.SERVER_LOGIN_HANDLER_KEY, (ServerLoginHandler) session -> {
+            logins.incrementAndGet();
+            String playerName = session.<GameProfile>getFlag(MinecraftConstants.PROFILE_KEY).getName();
+            session.send(new ServerJoinGamePacket(nextEntityId.getAndIncrement(), false, GameMode.SURVIVAL, GameMode.SURVIVAL,
+                    1, new String[] {"minecraft:world"}, getDimensionCodec(), getOverworldTag(""), "minecraft:world",
+                    0, 100, 8, false, true, false, false));
+            session.send(new ServerPlayerPositionRotationPacket(0, 64, 0, 0, 0, 0, false));
+            session.addListener(new SessionAdapter() {
+                @Override
+                public void packetReceived(PacketReceivedEvent event) {
+                    Packet packet = event.getPacket();
+                    receivedPackets.computeIfAbsent(packet.getClass().getSimpleName(), k -> new LongAdder()).increment();
+                    BiConsumer<String, Packet> listener = packetListener;
+                    if (listener != null) {
+                        listener.accept(playerName, packet);
+                    }
+
+                    if (packet instanceof ClientChatPacket) {
+                        // Echo chat back so bots can measure the round trip through Geyser
+                        String message = ((ClientChatPacket) packet).getMessage();
+                        event.getSession().send(new ServerChatPacket(Component.text(message), MessageType.SYSTEM, new UUID(0, 0)));
+                    }
+                }
+            });
+        });
+    }
+
+    public void bind() {
+        server.bind();
+    }
+
+    public void close() {
+        server.close();
+    }
+
+    private static CompoundTag getOverworldTag(String name) {
+        CompoundTag tag = new CompoundTag(name);
+        tag.put(new ByteTag("piglin_safe", (byte) 0));
+        tag.put(new ByteTag("natural", (byte) 1));
+        tag.put(new FloatTag("ambient_light", 0f));
+        tag.put(new StringTag("infiniburn", "minecraft:infiniburn_overworld"));
+        tag.put(new ByteTag("respawn_anchor_works", (byte) 0));
+        tag.put(new ByteTag("has_skylight", (byte) 1));
+        tag.put(new ByteTag("bed_works", (byte) 1));
+        tag.put(new StringTag("effects", "minecraft:overworld"));
+        tag.put(new ByteTag("has_raids", (byte) 1));
+        tag.put(new IntTag("min_y", 0));
+        tag.put(new IntTag("height", 256));
+        tag.put(new IntTag("logical_height", 256));
+        tag.put(new DoubleTag("coordinate_scale", 1d));
+        tag.put(new ByteTag("ultrawarm", (byte) 0));
+        tag.put(new ByteTag("has_ceiling", (byte) 0));
+        return tag;
+    }
+
+    private static CompoundTag getDimensionCodec() {
+        CompoundTag overworld = new CompoundTag("");
+        overworld.put(new StringTag("name", "minecraft:overworld"));
+        overworld.put(new IntTag("id", 0));
+        overworld.put(getOverworldTag("element"));
+
+        CompoundTag dimensionTypes = new CompoundTag("minecraft:dimension_type");
+        dimensionTypes.put(new StringTag("type", "minecraft:dimension_type"));
+        ListTag dimensionList = new ListTag("value");
+        dimensionList.add(overworld);
+        dimensionTypes.put(dimensionList);
+
+        CompoundTag biomes = new CompoundTag("minecraft:worldgen/biome");
+        biomes.put(new StringTag("type", "minecraft:worldgen/biome"));
+        biomes.put(new ListTag("value"));
+
+        CompoundTag codec = new CompoundTag("");
+        codec.put(dimensionTypes);
+        codec.put(biomes);
+        return codec;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.loadtest.behavior;
+
+import org.geysermc.loadtest.BedrockBot;
+
+/**
+ * Something a bot does repeatedly once it has joined.
+ */
+public interface BotBehavior {
+
+    /**
+     * Called every 50 milliseconds.
+     *
+     * @param bot the bot to act for
+     * @param tick the amount of ticks since the bot joined
+     */
+    void tick(BedrockBot bot, long tick);
+
+    /**
+     * @param name the name used on the command line
+     * @return the behavior with that name, or null if there is none
+     */
+    static BotBehavior fromName(String name) {
+        switch (name.toLowerCase()) {
+            case "move":
+                return new MovementBehavior();
+            case "chat":
+                return new ChatBehavior();
+            case "inventory":
+                return new InventoryBehavior();
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.loadtest.behavior;
+
+import com.nukkitx.protocol.bedrock.data.inventory.ContainerId;
+import com.nukkitx.protocol.bedrock.data.inventory.ItemData;
+import com.nukkitx.protocol.bedrock.packet.ContainerClosePacket;
+import com.nukkitx.protocol.bedrock.packet.InteractPacket;
+import com.nukkitx.protocol.bedrock.packet.MobEquipmentPacket;
+import org.geysermc.loadtest.BedrockBot;
+
+/**
+ * Scrolls through the hotbar and opens and closes the player inventory.
+ */
+public class InventoryBehavior implements BotBehavior {
+    private static final int HOTBAR_INTERVAL_TICKS = 10;
+    private static final int INVENTORY_INTERVAL_TICKS = 100;
+
+    @Override
+    public void tick(BedrockBot bot, long tick) {
+        if (tick % HOTBAR_INTERVAL_TICKS == 0) {
+            int slot = (int) (tick / HOTBAR_INTERVAL_TICKS % 9);
+            MobEquipmentPacket equipmentPacket = new MobEquipmentPacket();
+            equipmentPacket.setRuntimeEntityId(bot.getRuntimeEntityId());
+            equipmentPacket.setContainerId(ContainerId.INVENTORY);
+            equipmentPacket.setInventorySlot(slot);
+            equipmentPacket.setHotbarSlot(slot);
+            equipmentPacket.setItem(ItemData.AIR);
+            bot.sendPacket(equipmentPacket);
+        }
+
+        if (tick % INVENTORY_INTERVAL_TICKS == 0) {
+            InteractPacket interactPacket = new InteractPacket();
+            interactPacket.setRuntimeEntityId(bot.getRuntimeEntityId());
+            interactPacket.setAction(InteractPacket.Action.OPEN_INVENTORY);
+            bot.sendPacket(interactPacket);
+        } else if (tick % INVENTORY_INTERVAL_TICKS == INVENTORY_INTERVAL_TICKS / 2) {
+            ContainerClosePacket closePacket = new ContainerClosePacket();
+            closePacket.setId((byte) 0);
+            bot.sendPacket(closePacket);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.loadtest.behavior;
+
+import com.nukkitx.math.vector.Vector3f;
+import org.geysermc.loadtest.BedrockBot;
+
+/**
+ * Walks in a circle around the spawn point, sending a movement packet every tick like a real client.
+ */
+public class MovementBehavior implements BotBehavior {
+    private static final float RADIUS = 4f;
+    /**
+     * One full circle every 10 seconds
+     */
+    private static final double RADIANS_PER_TICK = Math.PI * 2 / 200;
+
+    private Vector3f center;
+
+    @Override
+    public void tick(BedrockBot bot, long tick) {
+        if (center == null) {
+            center = bot.getPosition();
+        }
+        double angle = tick * RADIANS_PER_TICK;
+        Vector3f position = center.add(Math.cos(angle) * RADIUS, 0, Math.sin(angle) * RADIUS);
+        bot.move(position, (float) Math.toDegrees(angle));
+    }
+}